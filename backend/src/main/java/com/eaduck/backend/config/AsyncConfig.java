@@ -0,0 +1,52 @@
+package com.eaduck.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pools de execução em segundo plano.
+ * Os pools são limitados (threads e fila) para que picos de upload não consumam toda a CPU/memória
+ * do servidor; tarefas recusadas são descartadas e geradas novamente sob demanda.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "derivativeExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor derivativeExecutor(
+            @Value("${derivatives.pool-size:2}") int poolSize,
+            @Value("${derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("derivatives-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "reportExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor reportExecutor(
+            @Value("${reports.jobs.pool-size:2}") int poolSize,
+            @Value("${reports.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("reports-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Boletins em lote: PDFs de uma sala gerados em paralelo, sem usar o common pool
+    @Bean(name = "reportCardPool", destroyMethod = "shutdown")
+    public ForkJoinPool reportCardPool(@Value("${reports.report-cards.parallelism:2}") int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -0,0 +1,12 @@
+package com.eaduck.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (@Scheduled) da aplicação, como a limpeza de sessões de upload.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
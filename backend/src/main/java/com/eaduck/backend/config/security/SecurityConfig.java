@@ -55,6 +55,8 @@ public class SecurityConfig {
                             "/app/**"
                     ).permitAll()
                 .requestMatchers("/files/**").permitAll()
+                // Upload direto local: autorizado pela assinatura da URL pré-assinada
+                .requestMatchers("/api/storage/local/**").permitAll()
                 .requestMatchers("/api/users/me").authenticated()
                 .requestMatchers("/api/users/me/classrooms").authenticated()
                 .requestMatchers("/api/users/me/name").authenticated()
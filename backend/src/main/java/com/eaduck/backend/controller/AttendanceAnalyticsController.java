@@ -0,0 +1,243 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.attendance.AttendanceAnalyticsService;
+import com.eaduck.backend.service.attendance.AttendanceAnalyticsService.Granularity;
+import com.eaduck.backend.service.attendance.AttendanceRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Indicadores de frequência: tendência da taxa de presença por sala, disciplina e aluno
+ * (granularity=day, week ou month), estatísticas por aluno no ano e reconstrução dos totais diários.
+ */
+@RestController
+@RequestMapping("/api/attendances/analytics")
+public class AttendanceAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceAnalyticsController.class);
+
+    // Anos aceitos nas estatísticas (cada ano consultado ocupa uma entrada no cache de matrizes)
+    private static final int MIN_STATS_YEAR = 2000;
+
+    private final AttendanceAnalyticsService analyticsService;
+    private final AttendanceRollupService rollupService;
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+
+    public AttendanceAnalyticsController(AttendanceAnalyticsService analyticsService,
+                                         AttendanceRollupService rollupService,
+                                         ClassroomRepository classroomRepository,
+                                         UserRepository userRepository) {
+        this.analyticsService = analyticsService;
+        this.rollupService = rollupService;
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+    }
+
+    @GetMapping("/classroom/{classroomId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getClassroomTrend(@PathVariable Long classroomId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                               @RequestParam(required = false) String granularity,
+                                               @RequestParam(required = false) String discipline,
+                                               Authentication authentication) {
+        ResponseEntity<?> invalid = validate(startDate, endDate, granularity);
+        if (invalid != null) {
+            return invalid;
+        }
+        ResponseEntity<?> denied = checkClassroomAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            return ResponseEntity.ok(analyticsService.classroomTrend(classroomId, startDate, endDate,
+                    Granularity.fromParam(granularity), discipline));
+        } catch (Exception e) {
+            logger.error("Erro ao calcular tendência da sala {}: {}", classroomId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao calcular frequência: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/disciplines")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getDisciplineTrends(@PathVariable Long classroomId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                 @RequestParam(required = false) String granularity,
+                                                 Authentication authentication) {
+        ResponseEntity<?> invalid = validate(startDate, endDate, granularity);
+        if (invalid != null) {
+            return invalid;
+        }
+        ResponseEntity<?> denied = checkClassroomAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            return ResponseEntity.ok(analyticsService.disciplineTrends(classroomId, startDate, endDate,
+                    Granularity.fromParam(granularity)));
+        } catch (Exception e) {
+            logger.error("Erro ao calcular tendência por disciplina da sala {}: {}", classroomId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao calcular frequência: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/student/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'STUDENT')")
+    public ResponseEntity<?> getStudentTrend(@PathVariable Long studentId,
+                                             @RequestParam(required = false) Long classroomId,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                             @RequestParam(required = false) String granularity,
+                                             @RequestParam(required = false) String discipline,
+                                             Authentication authentication) {
+        ResponseEntity<?> invalid = validate(startDate, endDate, granularity);
+        if (invalid != null) {
+            return invalid;
+        }
+        // O próprio aluno vê a sua tendência; os demais precisam de acesso à sala (sem sala, só administradores)
+        User currentUser = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (currentUser == null) {
+            return ResponseEntity.status(403).build();
+        }
+        if (!currentUser.getId().equals(studentId)) {
+            if (classroomId != null) {
+                ResponseEntity<?> denied = checkClassroomAccess(classroomId, authentication);
+                if (denied != null) {
+                    return denied;
+                }
+            } else if (currentUser.getRole() != Role.ADMIN) {
+                return ResponseEntity.status(403).build();
+            }
+        }
+        try {
+            return ResponseEntity.ok(analyticsService.studentTrend(studentId, classroomId, startDate, endDate,
+                    Granularity.fromParam(granularity), discipline));
+        } catch (Exception e) {
+            logger.error("Erro ao calcular tendência do aluno {}: {}", studentId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao calcular frequência: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/students")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getClassroomStudentStats(@PathVariable Long classroomId,
+                                                      @RequestParam(required = false) Integer year,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                      Authentication authentication) {
+        int statsYear = statsYear(year, startDate);
+        ResponseEntity<?> invalid = validateStats(statsYear, startDate, endDate);
+        if (invalid != null) {
+            return invalid;
+        }
+        ResponseEntity<?> denied = checkClassroomAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            return ResponseEntity.ok(analyticsService.classroomStudentStats(classroomId,
+                    statsYear, startDate, endDate));
+        } catch (Exception e) {
+            logger.error("Erro ao calcular estatísticas da sala {}: {}", classroomId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao calcular frequência: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/students/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getStudentStats(@PathVariable Long classroomId,
+                                             @PathVariable Long studentId,
+                                             @RequestParam(required = false) Integer year,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                             Authentication authentication) {
+        int statsYear = statsYear(year, startDate);
+        ResponseEntity<?> invalid = validateStats(statsYear, startDate, endDate);
+        if (invalid != null) {
+            return invalid;
+        }
+        ResponseEntity<?> denied = checkClassroomAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            return ResponseEntity.ok(analyticsService.studentStats(classroomId, studentId,
+                    statsYear, startDate, endDate));
+        } catch (Exception e) {
+            logger.error("Erro ao calcular estatísticas do aluno {}: {}", studentId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao calcular frequência: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRollup(@RequestParam(required = false) Long classroomId) {
+        if (!rollupService.startRebuild(classroomId)) {
+            return ResponseEntity.status(409).body(Map.of("error", "Reconstrução já em andamento"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Reconstrução dos totais de frequência iniciada"));
+    }
+
+    private static ResponseEntity<?> validate(LocalDate startDate, LocalDate endDate, String granularity) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Data final anterior à data inicial"));
+        }
+        if (Granularity.fromParam(granularity) == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularidade inválida: " + granularity));
+        }
+        return null;
+    }
+
+    // Ano entre MIN_STATS_YEAR e o próximo ano; fora disso a matriz do ano não é montada nem guardada no cache
+    private static ResponseEntity<?> validateStats(int year, LocalDate startDate, LocalDate endDate) {
+        int maxYear = LocalDate.now().getYear() + 1;
+        if (year < MIN_STATS_YEAR || year > maxYear) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Ano inválido: " + year + " (entre " + MIN_STATS_YEAR + " e " + maxYear + ")"));
+        }
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Data final anterior à data inicial"));
+        }
+        return null;
+    }
+
+    // Estatísticas são por ano letivo: o ano informado, o da data inicial ou o atual
+    private static int statsYear(Integer year, LocalDate startDate) {
+        if (year != null) {
+            return year;
+        }
+        return startDate != null ? startDate.getYear() : LocalDate.now().getYear();
+    }
+
+    /**
+     * Administradores ou professores da sala; null quando o acesso é permitido.
+     */
+    private ResponseEntity<?> checkClassroomAccess(Long classroomId, Authentication authentication) {
+        User currentUser = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (currentUser == null) {
+            return ResponseEntity.status(403).build();
+        }
+        Classroom classroom = classroomRepository.findById(classroomId).orElse(null);
+        if (classroom == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean hasAccess = currentUser.getRole() == Role.ADMIN
+                || (currentUser.getRole() == Role.TEACHER && classroom.getTeachers().contains(currentUser));
+        return hasAccess ? null : ResponseEntity.status(403).build();
+    }
+}
@@ -1,5 +1,10 @@
 package com.eaduck.backend.controller;
 
+import com.eaduck.backend.exceptions.FileTooLargeException;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.DerivativeService;
+import com.eaduck.backend.service.storage.UploadedFile;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -7,9 +12,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,7 +21,7 @@ import java.util.Map;
 public class ChatFileController {
 
     // Tipos de arquivo permitidos para chat
-    private static final List<String> ALLOWED_IMAGE_TYPES = List.of(
+    static final List<String> ALLOWED_IMAGE_TYPES = List.of(
         "image/jpeg",
         "image/jpg",
         "image/png",
@@ -27,7 +29,7 @@ public class ChatFileController {
         "image/webp"
     );
 
-    private static final List<String> ALLOWED_AUDIO_TYPES = List.of(
+    static final List<String> ALLOWED_AUDIO_TYPES = List.of(
         "audio/mpeg",
         "audio/mp3",
         "audio/wav",
@@ -37,7 +39,13 @@ public class ChatFileController {
     );
 
     // Limite máximo: 2GB conforme WhatsApp
-    private static final long MAX_FILE_SIZE = 2L * 1024 * 1024 * 1024; // 2GB
+    static final long MAX_FILE_SIZE = 2L * 1024 * 1024 * 1024; // 2GB
+
+    @Autowired
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @Autowired
+    private DerivativeService derivativeService;
 
     @PostMapping("/upload")
     @PreAuthorize("isAuthenticated()")
@@ -68,32 +76,26 @@ public class ChatFileController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Criar diretório de upload se não existir
-            String uploadDir = "uploads/chat/";
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            // Gravar em streaming; conteúdo já enviado antes é reaproveitado pelo hash
+            UploadedFile stored = contentAddressedStorageService.store(file, MAX_FILE_SIZE, authentication.getName());
 
-            // Gerar nome único para o arquivo
-            String originalFilename = file.getOriginalFilename();
-            String fileName = System.currentTimeMillis() + "_" + 
-                             (originalFilename != null ? originalFilename.replaceAll("[^a-zA-Z0-9._-]", "_") : "file");
-            Path filePath = uploadPath.resolve(fileName);
-
-            // Salvar arquivo
-            Files.write(filePath, file.getBytes());
+            if (isImage) {
+                // Miniaturas geradas em segundo plano, antes mesmo da mensagem ser enviada
+                derivativeService.requestDerivatives(stored.url());
+            }
 
             // Retornar informações do arquivo
-            String fileUrl = "/files/chat/" + fileName;
-            response.put("fileUrl", fileUrl);
-            response.put("fileName", originalFilename);
+            response.put("fileUrl", stored.url());
+            response.put("fileName", stored.originalFilename());
             response.put("fileType", contentType);
-            response.put("fileSize", file.getSize());
+            response.put("fileSize", stored.size());
             response.put("messageType", isImage ? "IMAGE" : "AUDIO");
 
             return ResponseEntity.ok(response);
 
+        } catch (FileTooLargeException e) {
+            response.put("error", "Arquivo muito grande. Tamanho máximo: 2GB");
+            return ResponseEntity.badRequest().body(response);
         } catch (IOException e) {
             response.put("error", "Erro ao salvar arquivo: " + e.getMessage());
             return ResponseEntity.status(500).body(response);
@@ -4,41 +4,39 @@ import com.eaduck.backend.model.classroom.Classroom;
 import com.eaduck.backend.model.user.User;
 import com.eaduck.backend.repository.ClassroomRepository;
 import com.eaduck.backend.repository.UserRepository;
-import com.eaduck.backend.repository.SubmissionRepository;
-import com.eaduck.backend.repository.AttendanceRepository;
-import com.eaduck.backend.model.submission.Submission;
-import com.eaduck.backend.model.attendance.Attendance;
-import com.eaduck.backend.model.enums.AttendanceStatus;
 import com.eaduck.backend.model.classroom.dto.ClassroomDTO;
 import com.eaduck.backend.model.classroom.dto.ClassroomCreateDTO;
 import com.eaduck.backend.model.classroom.dto.ClassroomUpdateDTO;
 import com.eaduck.backend.model.user.dto.UserDTO;
 import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.service.ClassroomListingService;
+import com.eaduck.backend.service.report.ClassroomReportService;
+import com.eaduck.backend.service.report.PdfResponses;
+import com.eaduck.backend.service.report.PreparedReport;
+import com.eaduck.backend.service.report.ReportAggregateService;
+import com.eaduck.backend.service.report.ReportAggregates;
+import com.eaduck.backend.service.report.ReportCardArchive;
+import com.eaduck.backend.service.report.ReportStyles;
+import com.eaduck.backend.service.report.ReportTable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.ArrayList;
-import java.io.ByteArrayOutputStream;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.HttpStatus;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,10 +53,16 @@ public class ClassroomController {
     private UserRepository userRepository;
 
     @Autowired
-    private SubmissionRepository submissionRepository;
+    private ReportAggregateService reportAggregateService;
+
+    @Autowired
+    private ClassroomReportService classroomReportService;
 
     @Autowired
-    private AttendanceRepository attendanceRepository;
+    private ReportCardArchive reportCardArchive;
+
+    @Autowired
+    private ClassroomListingService classroomListingService;
 
 
     @GetMapping
@@ -69,27 +73,15 @@ public class ClassroomController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<Classroom> classrooms;
+        // Retorna DTO completo para cada sala, garantindo nomes nunca nulos (consultas de projeção)
+        List<ClassroomDTO> dtos;
         if (user.getRole() == Role.ADMIN) {
-            classrooms = classroomRepository.findAll();
+            dtos = classroomListingService.findAll();
         } else if (user.getRole() == Role.TEACHER) {
-            classrooms = new ArrayList<>(user.getClassroomsAsTeacher());
+            dtos = classroomListingService.findByTeacherId(user.getId());
         } else {
-            classrooms = new ArrayList<>(user.getClassrooms());
+            dtos = classroomListingService.findByStudentId(user.getId());
         }
-        // Retorna DTO completo para cada sala, garantindo nomes nunca nulos
-        List<ClassroomDTO> dtos = classrooms.stream().map(classroom -> ClassroomDTO.builder()
-            .id(classroom.getId())
-            .name(classroom.getName())
-            .academicYear(classroom.getAcademicYear())
-            .teacherIds(classroom.getTeachers().stream().map(User::getId).toList())
-            .teacherNames(classroom.getTeachers().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentIds(classroom.getStudents().stream().map(User::getId).toList())
-            .studentNames(classroom.getStudents().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentCount(classroom.getStudents() != null ? classroom.getStudents().size() : 0)
-            .active(classroom.getStudents() != null && !classroom.getStudents().isEmpty())
-            .isActive(classroom.getIsActive() != null ? classroom.getIsActive() : true)
-            .build()).toList();
         return ResponseEntity.ok(dtos);
     }
 
@@ -101,8 +93,8 @@ public class ClassroomController {
             return ResponseEntity.badRequest().build();
         }
 
-        Classroom classroom = classroomRepository.findById(id).orElse(null);
-        if (classroom == null) {
+        ClassroomDTO dto = classroomListingService.findById(id).orElse(null);
+        if (dto == null) {
             return ResponseEntity.notFound().build();
         }
 
@@ -111,9 +103,9 @@ public class ClassroomController {
         if (user.getRole() == Role.ADMIN) {
             hasAccess = true;
         } else if (user.getRole() == Role.TEACHER) {
-            hasAccess = user.getClassroomsAsTeacher().contains(classroom);
+            hasAccess = classroomRepository.isTeacherOf(id, user.getId());
         } else {
-            hasAccess = user.getClassrooms().contains(classroom);
+            hasAccess = classroomRepository.isStudentOf(id, user.getId());
         }
 
         if (!hasAccess) {
@@ -122,23 +114,10 @@ public class ClassroomController {
 
         // Verifica se a sala está inativa e se o usuário não é admin
         // Se a sala estiver inativa e o usuário não for admin, bloqueia o acesso
-        boolean isActive = classroom.getIsActive() != null ? classroom.getIsActive() : true;
-        if (!isActive && user.getRole() != Role.ADMIN) {
+        if (!dto.isActive() && user.getRole() != Role.ADMIN) {
             return ResponseEntity.status(403).body(null);
         }
 
-        ClassroomDTO dto = ClassroomDTO.builder()
-            .id(classroom.getId())
-            .name(classroom.getName())
-            .academicYear(classroom.getAcademicYear())
-            .teacherIds(classroom.getTeachers().stream().map(User::getId).toList())
-            .teacherNames(classroom.getTeachers().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentIds(classroom.getStudents().stream().map(User::getId).toList())
-            .studentNames(classroom.getStudents().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentCount(classroom.getStudents() != null ? classroom.getStudents().size() : 0)
-            .active(classroom.getStudents() != null && !classroom.getStudents().isEmpty())
-            .isActive(isActive)
-            .build();
         return ResponseEntity.ok(dto);
     }
 
@@ -332,300 +311,8 @@ public class ClassroomController {
                 return ResponseEntity.badRequest().build();
             }
 
-            // Buscar todas as frequências do aluno na sala
-            List<Attendance> attendances = attendanceRepository.findByClassroom(classroom);
-            List<Attendance> studentAttendances = attendances.stream()
-                    .filter(a -> a.getStudent().getId().equals(studentId))
-                    .collect(java.util.stream.Collectors.toList());
-            
-            // Agrupar frequências por disciplina
-            java.util.Map<String, java.util.List<Attendance>> attendancesByDisciplina = new java.util.HashMap<>();
-            java.util.Set<String> allDisciplines = new java.util.HashSet<>();
-            
-            for (Attendance attendance : studentAttendances) {
-                String disciplina = attendance.getDiscipline();
-                if (disciplina != null && !disciplina.isEmpty()) {
-                    attendancesByDisciplina.computeIfAbsent(disciplina, k -> new java.util.ArrayList<>()).add(attendance);
-                    allDisciplines.add(disciplina);
-                }
-            }
-            
-            // Buscar todas as tasks da sala
-            List<com.eaduck.backend.model.task.Task> tasks = new ArrayList<>(classroom.getTasks());
-            
-            // Agrupar tasks por título (disciplina) - assumindo que tasks com mesmo título são da mesma disciplina
-            java.util.Map<String, java.util.List<Submission>> submissionsByDisciplina = new java.util.HashMap<>();
-            
-            for (com.eaduck.backend.model.task.Task task : tasks) {
-                String disciplinaName = task.getTitle();
-                allDisciplines.add(disciplinaName); // Adicionar disciplinas que têm tasks
-                Submission submission = submissionRepository.findByTaskIdAndStudentId(task.getId(), studentId);
-                if (submission != null && submission.getGrade() != null) {
-                    submissionsByDisciplina.computeIfAbsent(disciplinaName, k -> new java.util.ArrayList<>()).add(submission);
-                }
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf, PageSize.A4.rotate());
-
-            // Título
-            Paragraph title = new Paragraph("Relatório de Notas - EaDuck")
-                    .setFontSize(16)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(5);
-            document.add(title);
-
-            // Data de geração
-            Paragraph date = new Paragraph("Data de geração: " + java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")))
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(15);
-            document.add(date);
-
-            // Informações da Sala
-            Paragraph classroomInfo = new Paragraph()
-                    .setFontSize(11)
-                    .setBold()
-                    .setMarginBottom(10);
-            classroomInfo.add(new Paragraph("Nome da Sala: " + (classroom.getName() != null ? classroom.getName() : "-")));
-            classroomInfo.add(new Paragraph("Ano Letivo: " + (classroom.getAcademicYear() != null ? classroom.getAcademicYear() : "-")));
-            document.add(classroomInfo);
-
-            // Preparar dados do aluno
-            String studentName = student.getNomeCompleto() != null ? student.getNomeCompleto() : 
-                                (student.getName() != null ? student.getName() : student.getEmail());
-            java.util.List<java.util.Map<String, Object>> studentData = new java.util.ArrayList<>();
-
-            // Processar todas as disciplinas (com notas e/ou frequência)
-            for (String disciplinaName : allDisciplines) {
-                java.util.List<Submission> submissions = submissionsByDisciplina.getOrDefault(disciplinaName, new java.util.ArrayList<>());
-                java.util.List<Attendance> disciplinaAttendances = attendancesByDisciplina.getOrDefault(disciplinaName, new java.util.ArrayList<>());
-                
-                // Ordenar submissions por data de avaliação
-                submissions.sort((s1, s2) -> {
-                    if (s1.getEvaluatedAt() != null && s2.getEvaluatedAt() != null) {
-                        return s2.getEvaluatedAt().compareTo(s1.getEvaluatedAt());
-                    }
-                    return Long.compare(s2.getId(), s1.getId());
-                });
-                
-                // Pegar as 3 primeiras notas
-                Double nota1 = null, nota2 = null, nota3 = null;
-                for (int i = 0; i < Math.min(3, submissions.size()); i++) {
-                    if (i == 0) nota1 = submissions.get(i).getGrade();
-                    else if (i == 1) nota2 = submissions.get(i).getGrade();
-                    else if (i == 2) nota3 = submissions.get(i).getGrade();
-                }
-
-                // Calcular média da disciplina
-                double sum = 0.0;
-                int count = 0;
-                for (Submission sub : submissions) {
-                    if (sub.getGrade() != null) {
-                        sum += sub.getGrade();
-                        count++;
-                    }
-                }
-                Double mediaDisciplina = count > 0 ? sum / count : null;
-
-                // Calcular frequência por bimestre (1º, 2º e 3º)
-                Double frequencia1 = null; // null = não há frequência registrada
-                Double frequencia2 = null;
-                Double frequencia3 = null;
-                
-                if (!disciplinaAttendances.isEmpty()) {
-                    // Determinar o ano letivo para calcular os bimestres
-                    int anoLetivo = java.time.LocalDate.now().getYear();
-                    try {
-                        if (classroom.getAcademicYear() != null && !classroom.getAcademicYear().isEmpty()) {
-                            anoLetivo = Integer.parseInt(classroom.getAcademicYear());
-                        }
-                    } catch (NumberFormatException e) {
-                        // Usar ano atual se não conseguir parsear
-                    }
-                    
-                    // Definir períodos dos bimestres (assumindo ano letivo de fevereiro a novembro)
-                    // 1º Bimestre: Fevereiro, Março, Abril (meses 2, 3, 4)
-                    // 2º Bimestre: Maio, Junho, Julho (meses 5, 6, 7)
-                    // 3º Bimestre: Agosto, Setembro, Outubro, Novembro (meses 8, 9, 10, 11)
-                    
-                    java.util.List<Attendance> bimestre1 = new java.util.ArrayList<>();
-                    java.util.List<Attendance> bimestre2 = new java.util.ArrayList<>();
-                    java.util.List<Attendance> bimestre3 = new java.util.ArrayList<>();
-                    
-                    for (Attendance att : disciplinaAttendances) {
-                        int month = att.getDate().getMonthValue();
-                        if (month >= 2 && month <= 4) {
-                            bimestre1.add(att);
-                        } else if (month >= 5 && month <= 7) {
-                            bimestre2.add(att);
-                        } else if (month >= 8 && month <= 11) {
-                            bimestre3.add(att);
-                        }
-                    }
-                    
-                    // Calcular frequência do 1º bimestre
-                    if (!bimestre1.isEmpty()) {
-                        long presentes1 = bimestre1.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.PRESENT)
-                                .count();
-                        frequencia1 = (double) presentes1 / bimestre1.size();
-                    }
-                    
-                    // Calcular frequência do 2º bimestre
-                    if (!bimestre2.isEmpty()) {
-                        long presentes2 = bimestre2.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.PRESENT)
-                                .count();
-                        frequencia2 = (double) presentes2 / bimestre2.size();
-                    }
-                    
-                    // Calcular frequência do 3º bimestre
-                    if (!bimestre3.isEmpty()) {
-                        long presentes3 = bimestre3.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.PRESENT)
-                                .count();
-                        frequencia3 = (double) presentes3 / bimestre3.size();
-                    }
-                }
-
-                // Recuperação (não implementado ainda, deixar como "-")
-                String recuperacao = "-";
-
-                // Resultado final da disciplina
-                String resultadoDisciplina = "-";
-                if (mediaDisciplina != null) {
-                    if (mediaDisciplina >= 6.0) {
-                        resultadoDisciplina = "Aprovado";
-                    } else {
-                        resultadoDisciplina = "Reprovado";
-                    }
-                } else {
-                    resultadoDisciplina = "Em andamento";
-                }
-
-                java.util.Map<String, Object> row = new java.util.HashMap<>();
-                row.put("nome", studentName);
-                row.put("matricula", String.valueOf(student.getId()));
-                row.put("disciplina", disciplinaName);
-                row.put("nota1", nota1);
-                row.put("nota2", nota2);
-                row.put("nota3", nota3);
-                row.put("media", mediaDisciplina);
-                row.put("frequencia1", frequencia1);
-                row.put("frequencia2", frequencia2);
-                row.put("frequencia3", frequencia3);
-                row.put("recuperacao", recuperacao);
-                row.put("resultado", resultadoDisciplina);
-                studentData.add(row);
-            }
-            
-            // Se não houver nenhuma disciplina, adicionar linha vazia
-            if (studentData.isEmpty()) {
-                java.util.Map<String, Object> row = new java.util.HashMap<>();
-                row.put("nome", studentName);
-                row.put("matricula", String.valueOf(student.getId()));
-                row.put("disciplina", "-");
-                row.put("nota1", null);
-                row.put("nota2", null);
-                row.put("nota3", null);
-                row.put("media", null);
-                row.put("frequencia1", 1.0);
-                row.put("frequencia2", 1.0);
-                row.put("frequencia3", 1.0);
-                row.put("recuperacao", "-");
-                row.put("resultado", "Em andamento");
-                studentData.add(row);
-            }
-
-            // Criar tabela única com os dados do aluno
-            UnitValue[] columnWidths = {
-                UnitValue.createPointValue(65),   // Nome do Aluno
-                UnitValue.createPointValue(30),   // Matrícula
-                UnitValue.createPointValue(65),   // Disciplina
-                UnitValue.createPointValue(28),   // Nota 1
-                UnitValue.createPointValue(28),   // Nota 2
-                UnitValue.createPointValue(28),   // Nota 3
-                UnitValue.createPointValue(32),   // Média
-                UnitValue.createPointValue(32),   // Freq. 1º Bim
-                UnitValue.createPointValue(32),   // Freq. 2º Bim
-                UnitValue.createPointValue(32),   // Freq. 3º Bim
-                UnitValue.createPointValue(35),   // Recuperação
-                UnitValue.createPointValue(50)    // Resultado Final
-            };
-            Table mainTable = new Table(columnWidths);
-            mainTable.setWidth(UnitValue.createPercentValue(100));
-
-            // Cabeçalho
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOME DO ALUNO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("MATRÍCULA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("DISCIPLINA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 1").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 2").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 3").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("MÉDIA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("FREQ. 1º BIM").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("FREQ. 2º BIM").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("FREQ. 3º BIM").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("RECUPERAÇÃO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("RESULTADO FINAL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-            // Dados
-            for (java.util.Map<String, Object> row : studentData) {
-                String nome = (String) row.get("nome");
-                String nomeDisplay = nome != null ? (nome.length() > 18 ? nome.substring(0, 15) + "..." : nome) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(nomeDisplay)).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("matricula"))).setFontSize(6).setPadding(3));
-                
-                String disciplina = (String) row.get("disciplina");
-                String disciplinaDisplay = disciplina != null ? (disciplina.length() > 18 ? disciplina.substring(0, 15) + "..." : disciplina) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(disciplinaDisplay)).setFontSize(6).setPadding(3));
-                
-                Double nota1 = (Double) row.get("nota1");
-                mainTable.addCell(new Cell().add(new Paragraph(nota1 != null ? String.format("%.2f", nota1) : "-")).setFontSize(6).setPadding(3));
-                
-                Double nota2 = (Double) row.get("nota2");
-                mainTable.addCell(new Cell().add(new Paragraph(nota2 != null ? String.format("%.2f", nota2) : "-")).setFontSize(6).setPadding(3));
-                
-                Double nota3 = (Double) row.get("nota3");
-                mainTable.addCell(new Cell().add(new Paragraph(nota3 != null ? String.format("%.2f", nota3) : "-")).setFontSize(6).setPadding(3));
-                
-                Double media = (Double) row.get("media");
-                mainTable.addCell(new Cell().add(new Paragraph(media != null ? String.format("%.2f", media) : "-")).setFontSize(6).setPadding(3));
-                
-                // Frequências dos 3 bimestres (formato: 85% ou "-" se não houver dados)
-                Double frequencia1 = (Double) row.get("frequencia1");
-                String freq1Display = frequencia1 != null ? String.format("%.0f%%", frequencia1 * 100) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(freq1Display)).setFontSize(6).setPadding(3));
-                
-                Double frequencia2 = (Double) row.get("frequencia2");
-                String freq2Display = frequencia2 != null ? String.format("%.0f%%", frequencia2 * 100) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(freq2Display)).setFontSize(6).setPadding(3));
-                
-                Double frequencia3 = (Double) row.get("frequencia3");
-                String freq3Display = frequencia3 != null ? String.format("%.0f%%", frequencia3 * 100) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(freq3Display)).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("recuperacao"))).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("resultado"))).setFontSize(6).setPadding(3));
-            }
-
-            document.add(mainTable);
-
-            document.close();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            String filename = "notas_" + studentName.replaceAll("[^a-zA-Z0-9]", "_") + ".pdf";
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
+            PreparedReport report = classroomReportService.studentGrades(classroom, student);
+            return PdfResponses.stream(report.filename(), report.content());
         } catch (Exception e) {
             logger.error("Erro ao gerar PDF de notas do aluno: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Erro ao gerar PDF: " + e.getMessage());
@@ -805,75 +492,31 @@ public class ClassroomController {
             return ResponseEntity.status(403).build();
         }
 
-        User targetUser = userRepository.findById(userId).orElse(null);
-        if (targetUser == null) {
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Classroom> classrooms = new ArrayList<>();
-        
+        List<ClassroomDTO> dtos;
         if (currentUser.getRole() == Role.ADMIN) {
             // Admin vê todas as salas
-            classrooms = classroomRepository.findAll();
+            dtos = classroomListingService.findAll();
         } else if (currentUser.getRole() == Role.TEACHER) {
             // Professor vê suas salas como professor
-            classrooms = new ArrayList<>(currentUser.getClassroomsAsTeacher());
+            dtos = classroomListingService.findByTeacherId(currentUser.getId());
         } else {
             // Estudante vê suas salas
-            classrooms = new ArrayList<>(targetUser.getClassrooms());
+            dtos = classroomListingService.findByStudentId(userId);
         }
 
-        List<ClassroomDTO> dtos = classrooms.stream().map(classroom -> ClassroomDTO.builder()
-            .id(classroom.getId())
-            .name(classroom.getName())
-            .academicYear(classroom.getAcademicYear())
-            .teacherIds(classroom.getTeachers().stream().map(User::getId).toList())
-            .teacherNames(classroom.getTeachers().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentIds(classroom.getStudents().stream().map(User::getId).toList())
-            .studentNames(classroom.getStudents().stream().map(u -> u.getName() != null ? u.getName() : u.getEmail()).toList())
-            .studentCount(classroom.getStudents() != null ? classroom.getStudents().size() : 0)
-            .active(classroom.getStudents() != null && !classroom.getStudents().isEmpty())
-            .isActive(classroom.getIsActive() != null ? classroom.getIsActive() : true)
-            .build()).toList();
-
         return ResponseEntity.ok(dtos);
     }
 
     /**
-     * Calcula a média final de um aluno na sala
+     * Calcula a média final de um aluno na sala (null = sem notas, em andamento)
      */
-    private Double calculateStudentFinalAverage(User student, Classroom classroom) {
-        // Buscar todas as tasks da sala
-        List<com.eaduck.backend.model.task.Task> tasks = new ArrayList<>(classroom.getTasks());
-        
-        if (tasks.isEmpty()) {
-            return null; // Sem notas = Em andamento
-        }
-        
-        // Buscar todas as submissions do aluno nas tasks desta sala
-        List<Submission> submissions = new ArrayList<>();
-        for (com.eaduck.backend.model.task.Task task : tasks) {
-            Submission submission = submissionRepository.findByTaskIdAndStudentId(task.getId(), student.getId());
-            if (submission != null && submission.getGrade() != null) {
-                submissions.add(submission);
-            }
-        }
-        
-        if (submissions.isEmpty()) {
-            return null; // Sem notas = Em andamento
-        }
-        
-        // Calcular média das notas
-        double sum = 0.0;
-        int count = 0;
-        for (Submission submission : submissions) {
-            if (submission.getGrade() != null) {
-                sum += submission.getGrade();
-                count++;
-            }
-        }
-        
-        return count > 0 ? sum / count : null;
+    private Double calculateStudentFinalAverage(User student, Map<Long, ReportAggregates> aggregates) {
+        ReportAggregates studentAggregates = aggregates.get(student.getId());
+        return studentAggregates != null ? studentAggregates.finalAverage() : null;
     }
     
     /**
@@ -889,6 +532,41 @@ public class ClassroomController {
         }
     }
 
+    // Professores e administradores da sala (mesmas colunas, TIPO pelo papel)
+    private static final ReportTable<User> STAFF_TABLE = ReportTable.<User>builder()
+            .column("ID", 15, user -> String.valueOf(user.getId()))
+            .column("E-MAIL", 50, user -> ReportStyles.truncate(user.getEmail(), 20, 17))
+            .column("NOME COMPLETO", 80, user -> ReportStyles.truncate(user.getNomeCompleto(), 25, 22))
+            .column("CPF", 50, user -> ReportStyles.orDash(user.getCpf()))
+            .column("ENDEREÇO", 90, user -> ReportStyles.truncate(user.getEndereco(), 28, 25))
+            .column("TITULAÇÃO", 70, user -> ReportStyles.truncate(user.getTitulacao(), 22, 19))
+            .column("TIPO", 50, user -> user.getRole() == Role.ADMIN ? "Administrador" : "Professor")
+            .column("STATUS", 30, user -> user.isActive() ? "Ativo" : "Inativo")
+            .build();
+
+    // Alunos da sala; curso, ano letivo e resultado dependem da sala exportada
+    private ReportTable<User> studentTable(Classroom classroom, Map<Long, ReportAggregates> aggregates) {
+        String curso = ReportStyles.truncate(classroom.getName(), 18, 15);
+        String anoLetivo = ReportStyles.orDash(classroom.getAcademicYear());
+        return ReportTable.<User>builder()
+                .column("ID", 15, student -> String.valueOf(student.getId()))
+                .column("E-MAIL", 50, student -> ReportStyles.truncate(student.getEmail(), 20, 17))
+                .column("NOME COMPLETO", 80, student -> ReportStyles.truncate(student.getNomeCompleto(), 25, 22))
+                .column("CPF", 50, student -> ReportStyles.orDash(student.getCpf()))
+                .column("DATA NASC.", 40, student -> ReportStyles.orDash(student.getDataNascimento()))
+                .column("NOME MÃE", 70, student -> ReportStyles.truncate(student.getNomeMae(), 22, 19))
+                .column("NOME PAI", 70, student -> ReportStyles.truncate(student.getNomePai(), 22, 19))
+                .column("TELEFONE", 55, student -> ReportStyles.orDash(student.getTelefone()))
+                .column("ENDEREÇO", 90, student -> ReportStyles.truncate(student.getEndereco(), 28, 25))
+                .column("STATUS", 30, student -> student.isActive() ? "Ativo" : "Inativo")
+                // Matrícula (usando ID como matrícula)
+                .column("MATRÍCULA", 40, student -> String.valueOf(student.getId()))
+                .column("CURSO", 60, student -> curso)
+                .column("ANO LETIVO", 40, student -> anoLetivo)
+                .column("RESULTADO", 50, student -> getStudentFinalResult(calculateStudentFinalAverage(student, aggregates)))
+                .build();
+    }
+
     @GetMapping("/{id}/export/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<?> exportClassroomUsersToPdf(@PathVariable Long id, Authentication authentication) {
@@ -916,259 +594,56 @@ public class ClassroomController {
                 return ResponseEntity.status(403).build();
             }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf, PageSize.A4.rotate());
-
-            // ========== 1. INFORMAÇÕES GERAIS DA SALA ==========
-            Paragraph title = new Paragraph("Relatório de Dados da Sala - EaDuck")
-                    .setFontSize(18)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(title);
-
-            Paragraph classroomName = new Paragraph("Nome da Turma (Curso): " + (classroom.getName() != null ? classroom.getName() : "-"))
-                    .setFontSize(12)
-                    .setMarginBottom(5);
-            document.add(classroomName);
-
-            Paragraph academicYear = new Paragraph("Ano Letivo: " + (classroom.getAcademicYear() != null ? classroom.getAcademicYear() : "-"))
-                    .setFontSize(12)
-                    .setMarginBottom(20);
-            document.add(academicYear);
-
-            // Data de geração
-            Paragraph date = new Paragraph("Data de geração: " + java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")))
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(date);
-
-            // ========== 2. DADOS DOS ALUNOS ==========
+            // Usuários carregados antes do streaming, fora da thread que escreve a resposta
             List<User> students = new ArrayList<>(classroom.getStudents());
-            if (!students.isEmpty()) {
-                Paragraph studentsTitle = new Paragraph("DADOS DOS ALUNOS")
-                        .setFontSize(14)
-                        .setBold()
-                        .setMarginBottom(10);
-                document.add(studentsTitle);
-
-                UnitValue[] studentColumnWidths = {
-                    UnitValue.createPointValue(15),   // ID
-                    UnitValue.createPointValue(50),    // E-MAIL
-                    UnitValue.createPointValue(80),   // NOME COMPLETO
-                    UnitValue.createPointValue(50),    // CPF
-                    UnitValue.createPointValue(40),    // DATA NASC.
-                    UnitValue.createPointValue(70),    // NOME MÃE
-                    UnitValue.createPointValue(70),    // NOME PAI
-                    UnitValue.createPointValue(55),    // TELEFONE
-                    UnitValue.createPointValue(90),    // ENDEREÇO
-                    UnitValue.createPointValue(30),    // STATUS
-                    UnitValue.createPointValue(40),    // MATRÍCULA
-                    UnitValue.createPointValue(60),    // CURSO
-                    UnitValue.createPointValue(40),    // ANO LETIVO
-                    UnitValue.createPointValue(50)     // RESULTADO FINAL
-                };
-                Table studentTable = new Table(studentColumnWidths);
-                studentTable.setWidth(UnitValue.createPercentValue(100));
-
-                // Cabeçalho
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("ID").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("E-MAIL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME COMPLETO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("CPF").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("DATA NASC.").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME MÃE").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME PAI").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("TELEFONE").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("ENDEREÇO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("STATUS").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("MATRÍCULA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("CURSO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("ANO LETIVO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("RESULTADO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-                // Dados dos alunos
-                for (User student : students) {
-                    studentTable.addCell(new Cell().add(new Paragraph(String.valueOf(student.getId()))).setFontSize(6).setPadding(3));
-                    
-                    String email = student.getEmail() != null ? (student.getEmail().length() > 20 ? student.getEmail().substring(0, 17) + "..." : student.getEmail()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
-                    
-                    String nomeCompleto = student.getNomeCompleto() != null ? (student.getNomeCompleto().length() > 25 ? student.getNomeCompleto().substring(0, 22) + "..." : student.getNomeCompleto()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomeCompleto)).setFontSize(6).setPadding(3));
-                    
-                    studentTable.addCell(new Cell().add(new Paragraph(student.getCpf() != null ? student.getCpf() : "-")).setFontSize(6).setPadding(3));
-                    studentTable.addCell(new Cell().add(new Paragraph(student.getDataNascimento() != null ? student.getDataNascimento() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String nomeMae = student.getNomeMae() != null ? (student.getNomeMae().length() > 22 ? student.getNomeMae().substring(0, 19) + "..." : student.getNomeMae()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomeMae)).setFontSize(6).setPadding(3));
-                    
-                    String nomePai = student.getNomePai() != null ? (student.getNomePai().length() > 22 ? student.getNomePai().substring(0, 19) + "..." : student.getNomePai()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomePai)).setFontSize(6).setPadding(3));
-                    
-                    studentTable.addCell(new Cell().add(new Paragraph(student.getTelefone() != null ? student.getTelefone() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String endereco = student.getEndereco() != null ? (student.getEndereco().length() > 28 ? student.getEndereco().substring(0, 25) + "..." : student.getEndereco()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(endereco)).setFontSize(6).setPadding(3));
-                    
-                    String statusLabel = student.isActive() ? "Ativo" : "Inativo";
-                    studentTable.addCell(new Cell().add(new Paragraph(statusLabel)).setFontSize(6).setPadding(3));
-                    
-                    // Matrícula (usando ID como matrícula)
-                    studentTable.addCell(new Cell().add(new Paragraph(String.valueOf(student.getId()))).setFontSize(6).setPadding(3));
-                    
-                    // Curso (Nome da Turma)
-                    String curso = classroom.getName() != null ? (classroom.getName().length() > 18 ? classroom.getName().substring(0, 15) + "..." : classroom.getName()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(curso)).setFontSize(6).setPadding(3));
-                    
-                    // Ano Letivo
-                    studentTable.addCell(new Cell().add(new Paragraph(classroom.getAcademicYear() != null ? classroom.getAcademicYear() : "-")).setFontSize(6).setPadding(3));
-                    
-                    // Resultado Final
-                    Double mediaFinal = calculateStudentFinalAverage(student, classroom);
-                    String resultadoFinal = getStudentFinalResult(mediaFinal);
-                    studentTable.addCell(new Cell().add(new Paragraph(resultadoFinal)).setFontSize(6).setPadding(3));
-                }
-
-                document.add(studentTable);
-                document.add(new Paragraph(" ").setMarginBottom(15));
-            }
-
-            // ========== 3. DADOS DOS PROFESSORES ==========
             List<User> teachers = new ArrayList<>(classroom.getTeachers().stream()
                     .filter(t -> t.getRole() == Role.TEACHER)
                     .toList());
-            if (!teachers.isEmpty()) {
-                Paragraph teachersTitle = new Paragraph("DADOS DOS PROFESSORES")
-                        .setFontSize(14)
-                        .setBold()
-                        .setMarginBottom(10);
-                document.add(teachersTitle);
-
-                UnitValue[] teacherColumnWidths = {
-                    UnitValue.createPointValue(15),   // ID
-                    UnitValue.createPointValue(50),    // E-MAIL
-                    UnitValue.createPointValue(80),    // NOME COMPLETO
-                    UnitValue.createPointValue(50),    // CPF
-                    UnitValue.createPointValue(90),    // ENDEREÇO
-                    UnitValue.createPointValue(70),    // TITULAÇÃO
-                    UnitValue.createPointValue(50),    // TIPO
-                    UnitValue.createPointValue(30)     // STATUS
-                };
-                Table teacherTable = new Table(teacherColumnWidths);
-                teacherTable.setWidth(UnitValue.createPercentValue(100));
-
-                // Cabeçalho
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("ID").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("E-MAIL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("NOME COMPLETO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("CPF").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("ENDEREÇO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("TITULAÇÃO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("TIPO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                teacherTable.addHeaderCell(new Cell().add(new Paragraph("STATUS").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-                // Dados dos professores
-                for (User teacher : teachers) {
-                    teacherTable.addCell(new Cell().add(new Paragraph(String.valueOf(teacher.getId()))).setFontSize(6).setPadding(3));
-                    
-                    String email = teacher.getEmail() != null ? (teacher.getEmail().length() > 20 ? teacher.getEmail().substring(0, 17) + "..." : teacher.getEmail()) : "-";
-                    teacherTable.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
-                    
-                    String nomeCompleto = teacher.getNomeCompleto() != null ? (teacher.getNomeCompleto().length() > 25 ? teacher.getNomeCompleto().substring(0, 22) + "..." : teacher.getNomeCompleto()) : "-";
-                    teacherTable.addCell(new Cell().add(new Paragraph(nomeCompleto)).setFontSize(6).setPadding(3));
-                    
-                    teacherTable.addCell(new Cell().add(new Paragraph(teacher.getCpf() != null ? teacher.getCpf() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String endereco = teacher.getEndereco() != null ? (teacher.getEndereco().length() > 28 ? teacher.getEndereco().substring(0, 25) + "..." : teacher.getEndereco()) : "-";
-                    teacherTable.addCell(new Cell().add(new Paragraph(endereco)).setFontSize(6).setPadding(3));
-                    
-                    String titulacao = teacher.getTitulacao() != null ? (teacher.getTitulacao().length() > 22 ? teacher.getTitulacao().substring(0, 19) + "..." : teacher.getTitulacao()) : "-";
-                    teacherTable.addCell(new Cell().add(new Paragraph(titulacao)).setFontSize(6).setPadding(3));
-                    
-                    teacherTable.addCell(new Cell().add(new Paragraph("Professor")).setFontSize(6).setPadding(3));
-                    
-                    String statusLabel = teacher.isActive() ? "Ativo" : "Inativo";
-                    teacherTable.addCell(new Cell().add(new Paragraph(statusLabel)).setFontSize(6).setPadding(3));
-                }
-
-                document.add(teacherTable);
-                document.add(new Paragraph(" ").setMarginBottom(15));
-            }
-
-            // ========== 4. DADOS DOS ADMINISTRADORES ==========
             List<User> admins = new ArrayList<>(classroom.getTeachers().stream()
                     .filter(t -> t.getRole() == Role.ADMIN)
                     .toList());
-            if (!admins.isEmpty()) {
-                Paragraph adminsTitle = new Paragraph("DADOS DOS ADMINISTRADORES")
-                        .setFontSize(14)
-                        .setBold()
-                        .setMarginBottom(10);
-                document.add(adminsTitle);
-
-                UnitValue[] adminColumnWidths = {
-                    UnitValue.createPointValue(15),   // ID
-                    UnitValue.createPointValue(50),    // E-MAIL
-                    UnitValue.createPointValue(80),    // NOME COMPLETO
-                    UnitValue.createPointValue(50),    // CPF
-                    UnitValue.createPointValue(90),    // ENDEREÇO
-                    UnitValue.createPointValue(70),    // TITULAÇÃO
-                    UnitValue.createPointValue(50),    // TIPO
-                    UnitValue.createPointValue(30)     // STATUS
-                };
-                Table adminTable = new Table(adminColumnWidths);
-                adminTable.setWidth(UnitValue.createPercentValue(100));
-
-                // Cabeçalho
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("ID").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("E-MAIL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("NOME COMPLETO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("CPF").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("ENDEREÇO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("TITULAÇÃO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("TIPO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                adminTable.addHeaderCell(new Cell().add(new Paragraph("STATUS").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-                // Dados dos administradores
-                for (User admin : admins) {
-                    adminTable.addCell(new Cell().add(new Paragraph(String.valueOf(admin.getId()))).setFontSize(6).setPadding(3));
-                    
-                    String email = admin.getEmail() != null ? (admin.getEmail().length() > 20 ? admin.getEmail().substring(0, 17) + "..." : admin.getEmail()) : "-";
-                    adminTable.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
-                    
-                    String nomeCompleto = admin.getNomeCompleto() != null ? (admin.getNomeCompleto().length() > 25 ? admin.getNomeCompleto().substring(0, 22) + "..." : admin.getNomeCompleto()) : "-";
-                    adminTable.addCell(new Cell().add(new Paragraph(nomeCompleto)).setFontSize(6).setPadding(3));
-                    
-                    adminTable.addCell(new Cell().add(new Paragraph(admin.getCpf() != null ? admin.getCpf() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String endereco = admin.getEndereco() != null ? (admin.getEndereco().length() > 28 ? admin.getEndereco().substring(0, 25) + "..." : admin.getEndereco()) : "-";
-                    adminTable.addCell(new Cell().add(new Paragraph(endereco)).setFontSize(6).setPadding(3));
-                    
-                    String titulacao = admin.getTitulacao() != null ? (admin.getTitulacao().length() > 22 ? admin.getTitulacao().substring(0, 19) + "..." : admin.getTitulacao()) : "-";
-                    adminTable.addCell(new Cell().add(new Paragraph(titulacao)).setFontSize(6).setPadding(3));
-                    
-                    adminTable.addCell(new Cell().add(new Paragraph("Administrador")).setFontSize(6).setPadding(3));
-                    
-                    String statusLabel = admin.isActive() ? "Ativo" : "Inativo";
-                    adminTable.addCell(new Cell().add(new Paragraph(statusLabel)).setFontSize(6).setPadding(3));
-                }
-
-                document.add(adminTable);
-            }
 
-            document.close();
+            // Resumo das notas da sala agregado no banco, para o resultado final de cada aluno
+            Map<Long, ReportAggregates> aggregates = reportAggregateService.forClassroom(classroom.getId());
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
             String filename = "dados_sala_" + classroom.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".pdf";
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            return PdfResponses.stream(filename, document -> {
+                // ========== 1. INFORMAÇÕES GERAIS DA SALA ==========
+                document.add(ReportStyles.title("Relatório de Dados da Sala - EaDuck", 18, 20));
+
+                Paragraph classroomName = new Paragraph("Nome da Turma (Curso): " + (classroom.getName() != null ? classroom.getName() : "-"))
+                        .setFontSize(12)
+                        .setMarginBottom(5);
+                document.add(classroomName);
+
+                Paragraph academicYear = new Paragraph("Ano Letivo: " + (classroom.getAcademicYear() != null ? classroom.getAcademicYear() : "-"))
+                        .setFontSize(12)
+                        .setMarginBottom(20);
+                document.add(academicYear);
+
+                // Data de geração
+                document.add(ReportStyles.generatedAt(20));
+
+                // ========== 2. DADOS DOS ALUNOS ==========
+                if (!students.isEmpty()) {
+                    document.add(ReportStyles.sectionTitle("DADOS DOS ALUNOS"));
+                    studentTable(classroom, aggregates).write(document, students);
+                    document.add(new Paragraph(" ").setMarginBottom(15));
+                }
+
+                // ========== 3. DADOS DOS PROFESSORES ==========
+                if (!teachers.isEmpty()) {
+                    document.add(ReportStyles.sectionTitle("DADOS DOS PROFESSORES"));
+                    STAFF_TABLE.write(document, teachers);
+                    document.add(new Paragraph(" ").setMarginBottom(15));
+                }
 
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
+                // ========== 4. DADOS DOS ADMINISTRADORES ==========
+                if (!admins.isEmpty()) {
+                    document.add(ReportStyles.sectionTitle("DADOS DOS ADMINISTRADORES"));
+                    STAFF_TABLE.write(document, admins);
+                }
+            });
         } catch (Exception e) {
             logger.error("Erro ao gerar PDF de dados da sala: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Erro ao gerar PDF: " + e.getMessage());
@@ -1203,204 +678,68 @@ public class ClassroomController {
                 return ResponseEntity.status(403).build();
             }
 
-            List<User> students = new ArrayList<>(classroom.getStudents());
-            if (students.isEmpty()) {
+            if (classroom.getStudents().isEmpty()) {
                 return ResponseEntity.badRequest().body("Nenhum aluno encontrado nesta sala.");
             }
 
-            // Buscar todas as tasks da sala
-            List<com.eaduck.backend.model.task.Task> tasks = new ArrayList<>(classroom.getTasks());
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf, PageSize.A4.rotate());
-
-            // Título
-            Paragraph title = new Paragraph("Relatório de Notas - EaDuck")
-                    .setFontSize(16)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(5);
-            document.add(title);
-
-            // Data de geração
-            Paragraph date = new Paragraph("Data de geração: " + java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")))
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(15);
-            document.add(date);
-
-            // Informações da Sala
-            Paragraph classroomInfo = new Paragraph()
-                    .setFontSize(11)
-                    .setBold()
-                    .setMarginBottom(10);
-            classroomInfo.add(new Paragraph("Nome da Sala: " + (classroom.getName() != null ? classroom.getName() : "-")));
-            classroomInfo.add(new Paragraph("Ano Letivo: " + (classroom.getAcademicYear() != null ? classroom.getAcademicYear() : "-")));
-            document.add(classroomInfo);
-
-            // Preparar dados de todos os alunos
-            java.util.List<java.util.Map<String, Object>> allStudentData = new java.util.ArrayList<>();
-            
-            for (User student : students) {
-                String studentName = student.getNomeCompleto() != null ? student.getNomeCompleto() : 
-                                    (student.getName() != null ? student.getName() : student.getEmail());
-                
-                // Agrupar tasks por título (disciplina)
-                java.util.Map<String, java.util.List<Submission>> submissionsByDisciplina = new java.util.HashMap<>();
-                
-                for (com.eaduck.backend.model.task.Task task : tasks) {
-                    String disciplinaName = task.getTitle();
-                    Submission submission = submissionRepository.findByTaskIdAndStudentId(task.getId(), student.getId());
-                    if (submission != null && submission.getGrade() != null) {
-                        submissionsByDisciplina.computeIfAbsent(disciplinaName, k -> new java.util.ArrayList<>()).add(submission);
-                    }
-                }
+            PreparedReport report = classroomReportService.allStudentsGrades(classroom);
+            return PdfResponses.stream(report.filename(), report.content());
+        } catch (Exception e) {
+            logger.error("Erro ao gerar PDF de todas as notas: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao gerar PDF: " + e.getMessage());
+        }
+    }
 
-                // Para cada disciplina, criar uma linha
-                if (!submissionsByDisciplina.isEmpty()) {
-                    for (java.util.Map.Entry<String, java.util.List<Submission>> entry : submissionsByDisciplina.entrySet()) {
-                        String disciplinaName = entry.getKey();
-                        java.util.List<Submission> submissions = entry.getValue();
-                        
-                        // Ordenar submissions por data de avaliação
-                        submissions.sort((s1, s2) -> {
-                            if (s1.getEvaluatedAt() != null && s2.getEvaluatedAt() != null) {
-                                return s2.getEvaluatedAt().compareTo(s1.getEvaluatedAt());
-                            }
-                            return Long.compare(s2.getId(), s1.getId());
-                        });
-                        
-                        // Pegar as 3 primeiras notas
-                        Double nota1 = null, nota2 = null, nota3 = null;
-                        for (int i = 0; i < Math.min(3, submissions.size()); i++) {
-                            if (i == 0) nota1 = submissions.get(i).getGrade();
-                            else if (i == 1) nota2 = submissions.get(i).getGrade();
-                            else if (i == 2) nota3 = submissions.get(i).getGrade();
-                        }
-
-                        // Calcular média da disciplina
-                        double sum = 0.0;
-                        int count = 0;
-                        for (Submission sub : submissions) {
-                            if (sub.getGrade() != null) {
-                                sum += sub.getGrade();
-                                count++;
-                            }
-                        }
-                        Double mediaDisciplina = count > 0 ? sum / count : null;
-
-                        // Recuperação (não implementado ainda, deixar como "-")
-                        String recuperacao = "-";
-
-                        // Resultado final da disciplina
-                        String resultadoDisciplina = "-";
-                        if (mediaDisciplina != null) {
-                            if (mediaDisciplina >= 6.0) {
-                                resultadoDisciplina = "Aprovado";
-                            } else {
-                                resultadoDisciplina = "Reprovado";
-                            }
-                        }
-
-                        java.util.Map<String, Object> row = new java.util.HashMap<>();
-                        row.put("nome", studentName);
-                        row.put("matricula", String.valueOf(student.getId()));
-                        row.put("disciplina", disciplinaName);
-                        row.put("nota1", nota1);
-                        row.put("nota2", nota2);
-                        row.put("nota3", nota3);
-                        row.put("media", mediaDisciplina);
-                        row.put("recuperacao", recuperacao);
-                        row.put("resultado", resultadoDisciplina);
-                        allStudentData.add(row);
-                    }
-                } else {
-                    // Aluno sem notas - adicionar linha com "Em andamento"
-                    java.util.Map<String, Object> row = new java.util.HashMap<>();
-                    row.put("nome", studentName);
-                    row.put("matricula", String.valueOf(student.getId()));
-                    row.put("disciplina", "-");
-                    row.put("nota1", null);
-                    row.put("nota2", null);
-                    row.put("nota3", null);
-                    row.put("media", null);
-                    row.put("recuperacao", "-");
-                    row.put("resultado", "Em andamento");
-                    allStudentData.add(row);
-                }
+    /**
+     * Boletins de todos os alunos da sala em um ZIP (um PDF por aluno). Notas e frequências da sala
+     * são carregadas uma vez; os PDFs são gerados em paralelo e gravados no ZIP em streaming.
+     */
+    @GetMapping("/{classroomId}/students/grades/pdf/zip")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportReportCardsToZip(
+            @PathVariable Long classroomId,
+            Authentication authentication) {
+        try {
+            User currentUser = userRepository.findByEmail(authentication.getName()).orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(403).build();
             }
 
-            // Criar tabela única com todos os dados
-            UnitValue[] columnWidths = {
-                UnitValue.createPointValue(80),   // Nome do Aluno
-                UnitValue.createPointValue(40),   // Matrícula
-                UnitValue.createPointValue(80),   // Disciplina
-                UnitValue.createPointValue(35),   // Nota 1
-                UnitValue.createPointValue(35),   // Nota 2
-                UnitValue.createPointValue(35),   // Nota 3
-                UnitValue.createPointValue(40),   // Média
-                UnitValue.createPointValue(45),   // Recuperação
-                UnitValue.createPointValue(60)    // Resultado Final
-            };
-            Table mainTable = new Table(columnWidths);
-            mainTable.setWidth(UnitValue.createPercentValue(100));
-
-            // Cabeçalho
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOME DO ALUNO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("MATRÍCULA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("DISCIPLINA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 1").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 2").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("NOTA 3").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("MÉDIA").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("RECUPERAÇÃO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-            mainTable.addHeaderCell(new Cell().add(new Paragraph("RESULTADO FINAL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-            // Dados
-            for (java.util.Map<String, Object> row : allStudentData) {
-                String nome = (String) row.get("nome");
-                String nomeDisplay = nome != null ? (nome.length() > 20 ? nome.substring(0, 17) + "..." : nome) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(nomeDisplay)).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("matricula"))).setFontSize(6).setPadding(3));
-                
-                String disciplina = (String) row.get("disciplina");
-                String disciplinaDisplay = disciplina != null ? (disciplina.length() > 20 ? disciplina.substring(0, 17) + "..." : disciplina) : "-";
-                mainTable.addCell(new Cell().add(new Paragraph(disciplinaDisplay)).setFontSize(6).setPadding(3));
-                
-                Double nota1 = (Double) row.get("nota1");
-                mainTable.addCell(new Cell().add(new Paragraph(nota1 != null ? String.format("%.2f", nota1) : "-")).setFontSize(6).setPadding(3));
-                
-                Double nota2 = (Double) row.get("nota2");
-                mainTable.addCell(new Cell().add(new Paragraph(nota2 != null ? String.format("%.2f", nota2) : "-")).setFontSize(6).setPadding(3));
-                
-                Double nota3 = (Double) row.get("nota3");
-                mainTable.addCell(new Cell().add(new Paragraph(nota3 != null ? String.format("%.2f", nota3) : "-")).setFontSize(6).setPadding(3));
-                
-                Double media = (Double) row.get("media");
-                mainTable.addCell(new Cell().add(new Paragraph(media != null ? String.format("%.2f", media) : "-")).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("recuperacao"))).setFontSize(6).setPadding(3));
-                
-                mainTable.addCell(new Cell().add(new Paragraph((String) row.get("resultado"))).setFontSize(6).setPadding(3));
+            Classroom classroom = classroomRepository.findById(classroomId).orElse(null);
+            if (classroom == null) {
+                return ResponseEntity.notFound().build();
             }
 
-            document.add(mainTable);
+            boolean hasAccess = currentUser.getRole() == Role.ADMIN
+                    || (currentUser.getRole() == Role.TEACHER && classroom.getTeachers().contains(currentUser));
+            if (!hasAccess) {
+                return ResponseEntity.status(403).build();
+            }
 
-            document.close();
+            if (classroom.getStudents().isEmpty()) {
+                return ResponseEntity.badRequest().body("Nenhum aluno encontrado nesta sala.");
+            }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            String filename = "notas_todos_alunos_" + classroom.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".pdf";
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            // Dados carregados aqui, antes do streaming; a geração dos PDFs não acessa o banco
+            List<PreparedReport> reportCards = classroomReportService.reportCards(classroom);
+            String filename = "boletins_" + classroom.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".zip";
 
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
+            StreamingResponseBody body = out -> {
+                try {
+                    reportCardArchive.write(reportCards, out);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Erro ao gerar ZIP de boletins da sala {}: {}", classroomId, e.getMessage(), e);
+                    throw e;
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(filename, StandardCharsets.UTF_8).build().toString())
+                    .body(body);
         } catch (Exception e) {
-            logger.error("Erro ao gerar PDF de todas as notas: {}", e.getMessage(), e);
-            return ResponseEntity.status(500).body("Erro ao gerar PDF: " + e.getMessage());
+            logger.error("Erro ao gerar boletins: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao gerar boletins: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.export.ExportFormat;
+import com.eaduck.backend.service.export.SpreadsheetExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Exportações em planilha (format=csv ou xlsx), geradas em streaming direto na resposta:
+ * frequência da sala por período, matriz de notas da sala e cadastro de usuários.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    private final SpreadsheetExportService spreadsheetExportService;
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+
+    public ExportController(SpreadsheetExportService spreadsheetExportService,
+                            ClassroomRepository classroomRepository,
+                            UserRepository userRepository) {
+        this.spreadsheetExportService = spreadsheetExportService;
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+    }
+
+    @GetMapping("/classrooms/{classroomId}/attendance")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportAttendance(@PathVariable Long classroomId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                              @RequestParam(defaultValue = "csv") String format,
+                                              Authentication authentication) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Formato não suportado: " + format));
+        }
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Data final anterior à data inicial"));
+        }
+        Classroom classroom = classroomRepository.findById(classroomId).orElse(null);
+        if (classroom == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!hasAccess(classroom, authentication)) {
+            return ResponseEntity.status(403).build();
+        }
+        String filename = "frequencia_" + safeName(classroom.getName()) + "_" + startDate.format(FILE_DATE)
+                + "_" + endDate.format(FILE_DATE) + "." + exportFormat.getExtension();
+        return stream(filename, exportFormat, out ->
+                spreadsheetExportService.writeAttendance(classroomId, startDate, endDate, exportFormat, out));
+    }
+
+    @GetMapping("/classrooms/{classroomId}/grades")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportGrades(@PathVariable Long classroomId,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          Authentication authentication) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Formato não suportado: " + format));
+        }
+        Classroom classroom = classroomRepository.findById(classroomId).orElse(null);
+        if (classroom == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!hasAccess(classroom, authentication)) {
+            return ResponseEntity.status(403).build();
+        }
+        String filename = "notas_" + safeName(classroom.getName()) + "." + exportFormat.getExtension();
+        return stream(filename, exportFormat, out ->
+                spreadsheetExportService.writeGrades(classroomId, exportFormat, out));
+    }
+
+    @GetMapping("/users")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportUsers(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Formato não suportado: " + format));
+        }
+        return stream("usuarios_eaduck." + exportFormat.getExtension(), exportFormat,
+                out -> spreadsheetExportService.writeUsers(exportFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String filename, ExportFormat format, StreamingResponseBody export) {
+        StreamingResponseBody body = out -> {
+            try {
+                export.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Erro ao gerar exportação {}: {}", filename, e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Mesma regra das exportações em PDF: administradores ou professores da sala.
+     */
+    private boolean hasAccess(Classroom classroom, Authentication authentication) {
+        User currentUser = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (currentUser == null) {
+            return false;
+        }
+        return currentUser.getRole() == Role.ADMIN
+                || (currentUser.getRole() == Role.TEACHER && classroom.getTeachers().contains(currentUser));
+    }
+
+    private static String safeName(String value) {
+        return value != null ? value.replaceAll("[^a-zA-Z0-9]", "_") : "sala";
+    }
+}
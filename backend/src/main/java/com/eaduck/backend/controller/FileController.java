@@ -1,44 +1,343 @@
 package com.eaduck.backend.controller;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RestController;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.eaduck.backend.service.storage.BlobStorage;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.DerivativeService;
+import com.eaduck.backend.service.storage.DerivativeSize;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
+/**
+ * Serve os arquivos enviados (uploads/ e uploads/chat/) com suporte a:
+ * ETag/Last-Modified e revalidação (If-None-Match/If-Modified-Since → 304),
+ * Range/If-Range (206 Partial Content, usado nos seeks de áudio e vídeo) e
+ * transferência sem cópia (sendfile do Tomcat ou FileChannel.transferTo).
+ * Arquivos endereçados por conteúdo (nome = SHA-256) recebem cache imutável de longa duração.
+ * O parâmetro ?size=thumb|medium serve a miniatura/prévia gerada pelo DerivativeService; enquanto
+ * ela não existe, a geração é enfileirada e o original é servido sem cache.
+ * Com armazenamento externo (storage.type=s3) a resposta é um redirecionamento para uma URL
+ * pré-assinada, e os bytes não passam pela aplicação.
+ * Arquivos por conteúdo são localizados pelo índice stored_files (hash da URL → chave), e não
+ * pela concatenação do caminho pedido.
+ * O nome no Content-Disposition é o do parâmetro ?name= (nome do anexo ou da mensagem, quando quem
+ * monta o link o conhece) ou o nome original guardado em stored_files; nunca o hash da chave.
+ */
 @RestController
 public class FileController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileController.class);
+
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+    private static final String DEFAULT_CACHE = "public, max-age=3600";
+    private static final String NO_CACHE = "no-cache";
+
+    private static final Duration DOWNLOAD_URL_TTL = Duration.ofMinutes(10);
+
+    private static final int MAX_DOWNLOAD_NAME_LENGTH = 255;
+
+    // Abaixo deste tamanho o sendfile não compensa (mesmo limite padrão do Tomcat)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private final Path uploadRoot = Paths.get("uploads").toAbsolutePath().normalize();
+
     @Autowired
     private ServletContext servletContext;
 
-    @GetMapping("/files/{filename:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String filename) {
+    @Autowired
+    private DerivativeService derivativeService;
+
+    @Autowired
+    private BlobStorage blobStorage;
+
+    @Autowired
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @GetMapping("/files/**")
+    public void getFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!blobStorage.isLocal()) {
+            redirectToStorage(request, response);
+            return;
+        }
+
+        String relative = relativePath(request);
+        Path original = relative != null ? resolve(relative) : null;
+        if (original == null || !Files.isRegularFile(original) || !Files.isReadable(original)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Variante de tamanho (miniatura/prévia)
+        Path file = original;
+        String variant = "";
+        boolean derivativePending = false;
+        String sizeParam = request.getParameter("size");
+        if (sizeParam != null) {
+            Optional<DerivativeSize> derivativeSize = DerivativeSize.fromKey(sizeParam);
+            if (derivativeSize.isEmpty()) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Tamanho inválido: " + sizeParam);
+                return;
+            }
+            Optional<Path> derivative = derivativeService.findDerivative(original, derivativeSize.get());
+            if (derivative.isPresent()) {
+                file = derivative.get();
+                variant = "-" + derivativeSize.get().getKey();
+            } else {
+                derivativeService.requestDerivatives("/files/" + relative);
+                derivativePending = true;
+            }
+        }
+
+        String fileName = file.getFileName().toString();
+        long size = Files.size(file);
+        // Datas HTTP têm precisão de segundos
+        long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000 * 1000;
+        var contentAddressed = CONTENT_ADDRESSED_NAME.matcher(original.getFileName().toString());
+        String etag = contentAddressed.matches()
+                ? "\"" + contentAddressed.group(1) + variant + "\""
+                : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                derivativePending ? NO_CACHE : contentAddressed.matches() ? IMMUTABLE_CACHE : DEFAULT_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String mimeType = servletContext.getMimeType(fileName);
+        response.setContentType(mimeType != null ? mimeType : "application/octet-stream");
+        String downloadName = variant.isEmpty() ? downloadName(request, relative).orElse(fileName) : fileName;
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(downloadName, StandardCharsets.UTF_8).build().toString());
+
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && size > 0 && isRangeApplicable(request, etag, lastModified)) {
+            long[] range = parseRange(rangeHeader, size);
+            if (range == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range.length == 2) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(Math.max(length, 0));
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        transfer(request, response, file, start, length);
+    }
+
+    private void redirectToStorage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = relativePath(request);
+        String key = relative != null ? contentAddressedStorageService.resolveKey("/files/" + relative).orElse(null) : null;
+        if (key == null || !blobStorage.exists(key)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + (DOWNLOAD_URL_TTL.toSeconds() / 2));
+        String fileName = downloadName(request, relative).orElse(null);
+        response.sendRedirect(blobStorage.presignDownload(key, fileName, DOWNLOAD_URL_TTL).url());
+    }
+
+    /**
+     * Nome do download: ?name= (sem caminho nem caracteres de controle) ou o nome original registrado.
+     */
+    private Optional<String> downloadName(HttpServletRequest request, String relative) {
+        String requested = request.getParameter("name");
+        if (requested != null) {
+            String name = requested.replaceAll("[\\p{Cntrl}\"]", "");
+            name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1).trim();
+            if (!name.isEmpty()) {
+                return Optional.of(name.length() > MAX_DOWNLOAD_NAME_LENGTH
+                        ? name.substring(name.length() - MAX_DOWNLOAD_NAME_LENGTH) : name);
+            }
+        }
+        return contentAddressedStorageService.originalFilename("/files/" + relative)
+                .filter(name -> !name.isBlank());
+    }
+
+    /**
+     * Localiza o arquivo pelo índice e garante que ele continua dentro de uploads/.
+     */
+    private Path resolve(String relative) {
+        Optional<String> key = contentAddressedStorageService.resolveKey("/files/" + relative);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Path file = uploadRoot.resolve(key.get()).normalize();
+        return file.startsWith(uploadRoot) ? file : null;
+    }
+
+    /**
+     * Caminho relativo após /files/. Diretórios internos (.tmp, .sessions, ...) não são servidos.
+     */
+    private String relativePath(HttpServletRequest request) {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (path == null || !path.startsWith("/files/")) {
+            return null;
+        }
+        String relative = UriUtils.decode(path.substring("/files/".length()), StandardCharsets.UTF_8);
+        if (relative.isEmpty()) {
+            return null;
+        }
+        for (String segment : relative.split("/")) {
+            if (segment.isEmpty() || segment.startsWith(".")) {
+                return null;
+            }
+        }
+        return relative;
+    }
+
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * If-Range: o Range só vale se o validador enviado ainda corresponde ao arquivo atual;
+     * caso contrário o arquivo inteiro é enviado (200).
+     */
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long date = getDateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && date == lastModified;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Interpreta um cabeçalho Range de intervalo único.
+     * Retorna {início, fim}, um array vazio quando o cabeçalho deve ser ignorado
+     * (formato desconhecido ou múltiplos intervalos, que respondemos com o arquivo inteiro)
+     * ou null quando o intervalo não é satisfatível (416).
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
         try {
-            Path file = Paths.get("uploads/").resolve(filename);
-            Resource resource = new UrlResource(file.toUri());
-            if (resource.exists() || resource.isReadable()) {
-                // Detecta o tipo do arquivo
-                String mimeType = servletContext.getMimeType(file.toString());
-                if (mimeType == null) {
-                    mimeType = "application/octet-stream";
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Sufixo: últimos N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
                 }
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .contentType(MediaType.parseMediaType(mimeType))
-                        .body(resource);
+                start = Math.max(0, size - suffix);
+                end = size - 1;
             } else {
-                return ResponseEntity.notFound().build();
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    /**
+     * Usa o sendfile do Tomcat quando disponível (o conector copia direto do arquivo para o socket);
+     * senão FileChannel.transferTo, sem buffer intermediário na aplicação.
+     */
+    private void transfer(HttpServletRequest request, HttpServletResponse response, Path file, long start, long length)
+            throws IOException {
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
             }
-        } catch (Exception e) {
-            return ResponseEntity.status(500).build();
+        } catch (IOException e) {
+            // Cliente cancelou o download (comum em seeks de mídia)
+            logger.debug("Transferência de {} interrompida: {}", file, e.getMessage());
         }
     }
-} 
\ No newline at end of file
+}
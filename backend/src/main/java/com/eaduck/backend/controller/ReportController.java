@@ -0,0 +1,164 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.report.dto.ReportJobDTO;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.report.ReportJob;
+import com.eaduck.backend.service.report.ReportJobService;
+import com.eaduck.backend.service.report.ReportRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Relatórios em segundo plano (notas e frequência): POST cria o job e responde 202 com o id,
+ * GET /api/reports/jobs/{id} informa o andamento e GET /api/reports/jobs/{id}/download entrega o PDF.
+ * As exportações diretas em /api/classrooms e /api/attendance continuam disponíveis.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+    private final ReportJobService reportJobService;
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+
+    public ReportController(ReportJobService reportJobService,
+                            ClassroomRepository classroomRepository,
+                            UserRepository userRepository) {
+        this.reportJobService = reportJobService;
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+    }
+
+    @PostMapping("/classrooms/{classroomId}/grades")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> submitClassroomGrades(@PathVariable Long classroomId, Authentication authentication) {
+        ResponseEntity<?> denied = checkAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        return submit(ReportRequest.classroomGrades(classroomId), authentication);
+    }
+
+    @PostMapping("/classrooms/{classroomId}/students/{studentId}/grades")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> submitStudentGrades(@PathVariable Long classroomId, @PathVariable Long studentId,
+                                                 Authentication authentication) {
+        ResponseEntity<?> denied = checkAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        User student = userRepository.findById(studentId).orElse(null);
+        if (student == null || student.getRole() != Role.STUDENT
+                || !classroomRepository.findById(classroomId).map(c -> c.getStudents().contains(student)).orElse(false)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return submit(ReportRequest.studentGrades(classroomId, studentId), authentication);
+    }
+
+    @PostMapping("/classrooms/{classroomId}/attendance/{date}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> submitAttendanceSheet(@PathVariable Long classroomId,
+                                                   @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                   Authentication authentication) {
+        ResponseEntity<?> denied = checkAccess(classroomId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        return submit(ReportRequest.attendanceSheet(classroomId, date), authentication);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getJob(@PathVariable String jobId, Authentication authentication) {
+        ReportJob job = reportJobService.getJob(jobId).orElse(null);
+        if (job == null || !job.isRequestedBy(authentication.getName())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toDTO(job));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> download(@PathVariable String jobId, Authentication authentication) {
+        ReportJob job = reportJobService.getJob(jobId).orElse(null);
+        if (job == null || !job.isRequestedBy(authentication.getName())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            return ResponseEntity.status(409).body(toDTO(job));
+        }
+        if (!Files.isRegularFile(job.getFile())) {
+            // Removido do cache depois que o job terminou: o cliente deve pedir de novo
+            return ResponseEntity.status(410).body(Map.of("error", "Relatório expirado, solicite novamente"));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFilename(), StandardCharsets.UTF_8).build().toString())
+                .body(new FileSystemResource(job.getFile()));
+    }
+
+    private ResponseEntity<?> submit(ReportRequest request, Authentication authentication) {
+        try {
+            ReportJob job = reportJobService.submit(request, authentication.getName());
+            return ResponseEntity.accepted().body(toDTO(job));
+        } catch (TaskRejectedException e) {
+            logger.warn("Fila de relatórios cheia, pedido {} recusado", request.key());
+            return ResponseEntity.status(503).body(Map.of("error", "Muitos relatórios em geração, tente novamente em instantes"));
+        } catch (Exception e) {
+            logger.error("Erro ao solicitar relatório {}: {}", request.key(), e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Erro ao solicitar relatório: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mesma regra das exportações diretas: administradores ou professores da sala.
+     */
+    private ResponseEntity<?> checkAccess(Long classroomId, Authentication authentication) {
+        User currentUser = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (currentUser == null) {
+            return ResponseEntity.status(403).build();
+        }
+        Classroom classroom = classroomRepository.findById(classroomId).orElse(null);
+        if (classroom == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean hasAccess = currentUser.getRole() == Role.ADMIN
+                || (currentUser.getRole() == Role.TEACHER && classroom.getTeachers().contains(currentUser));
+        return hasAccess ? null : ResponseEntity.status(403).build();
+    }
+
+    private ReportJobDTO toDTO(ReportJob job) {
+        return ReportJobDTO.builder()
+                .id(job.getId())
+                .type(job.getRequest().type().name())
+                .status(job.getStatus().name())
+                .filename(job.getFilename())
+                .error(job.getError())
+                .downloadUrl(job.getStatus() == ReportJob.Status.DONE ? "/api/reports/jobs/" + job.getId() + "/download" : null)
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
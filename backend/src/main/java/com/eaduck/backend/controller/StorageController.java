@@ -0,0 +1,203 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.exceptions.FileTooLargeException;
+import com.eaduck.backend.model.upload.dto.DirectUploadDTO;
+import com.eaduck.backend.service.storage.BlobStorage;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.FileStorageService;
+import com.eaduck.backend.service.storage.LegacyUploadMigration;
+import com.eaduck.backend.service.storage.LocalBlobStorage;
+import com.eaduck.backend.service.storage.OrphanFileCollector;
+import com.eaduck.backend.service.storage.UploadSession;
+import com.eaduck.backend.service.storage.UploadedFile;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Upload direto ao armazenamento por URL pré-assinada. O cliente calcula o SHA-256 do arquivo e:
+ * 1. POST /api/storage/uploads: se o conteúdo já existe a resposta é EXISTS e nada precisa ser enviado;
+ *    senão recebe uma URL pré-assinada (PUT) válida por poucos minutos;
+ * 2. envia o arquivo direto para essa URL (S3/MinIO, ou /api/storage/local/** no backend local);
+ * 3. POST /api/storage/uploads/complete registra o arquivo e devolve o mesmo corpo de
+ *    /api/chat/upload ou cria o anexo da tarefa.
+ */
+@RestController
+@RequestMapping("/api/storage")
+public class StorageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageController.class);
+
+    private static final Pattern SHA256 = Pattern.compile("^[0-9a-f]{64}$");
+    private static final Duration UPLOAD_URL_TTL = Duration.ofMinutes(15);
+
+    @Autowired
+    private BlobStorage blobStorage;
+
+    @Autowired
+    private ObjectProvider<LocalBlobStorage> localBlobStorage;
+
+    @Autowired
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UploadSupport uploadSupport;
+
+    @Autowired
+    private OrphanFileCollector orphanFileCollector;
+
+    @Autowired
+    private LegacyUploadMigration legacyUploadMigration;
+
+    @PostMapping("/uploads")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> requestUpload(@RequestBody DirectUploadDTO dto, Authentication authentication) {
+        ResponseEntity<?> invalid = validate(dto, authentication);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        Optional<UploadedFile> existing = contentAddressedStorageService.findExisting(dto.getSha256(), dto.getFileName());
+        if (existing.isPresent()) {
+            response.put("status", "EXISTS");
+            response.put("fileUrl", existing.get().url());
+            return ResponseEntity.ok(response);
+        }
+
+        String key = ContentAddressedStorageService.keyFor(dto.getSha256(), dto.getFileName());
+        response.put("status", "UPLOAD");
+        long maxSize = uploadSupport.maxSize(UploadSession.Purpose.valueOf(dto.getPurpose().toUpperCase()));
+        response.put("upload", blobStorage.presignUpload(key, dto.getContentType(), dto.getSha256(), maxSize, UPLOAD_URL_TTL));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/uploads/complete")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> completeUpload(@RequestBody DirectUploadDTO dto, Authentication authentication) {
+        ResponseEntity<?> invalid = validate(dto, authentication);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            UploadedFile stored = contentAddressedStorageService.registerDirectUpload(dto.getSha256(), dto.getFileName(),
+                    dto.getContentType(), dto.getSize(), authentication.getName());
+            return uploadSupport.finish(UploadSession.Purpose.valueOf(dto.getPurpose().toUpperCase()), dto.getTaskId(),
+                    dto.getFileName(), dto.getContentType(), stored, authentication);
+        } catch (IOException e) {
+            logger.warn("Upload direto não confirmado ({}): {}", dto.getSha256(), e.getMessage());
+            return ResponseEntity.badRequest().body("Upload não confirmado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Destino das URLs pré-assinadas do backend local. A autorização vem da assinatura da URL;
+     * o conteúdo só é aceito se o hash calculado durante a cópia for o mesmo da chave e se couber no
+     * limite da finalidade, assinado junto com a URL.
+     */
+    @PutMapping("/local/**")
+    public ResponseEntity<?> localUpload(
+            @RequestParam long expires,
+            @RequestParam long maxSize,
+            @RequestParam String signature,
+            HttpServletRequest request) {
+        LocalBlobStorage storage = localBlobStorage.getIfAvailable();
+        if (storage == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String key = path.substring("/api/storage/local/".length());
+        if (!storage.verify("PUT", key, expires, maxSize, signature)) {
+            return ResponseEntity.status(403).body("Assinatura inválida ou expirada");
+        }
+        Optional<String> expectedHash = ContentAddressedStorageService.hashOf("/files/" + key);
+        if (expectedHash.isEmpty()) {
+            return ResponseEntity.badRequest().body("Chave inválida");
+        }
+
+        try (InputStream body = request.getInputStream()) {
+            FileStorageService.StagedFile staged = fileStorageService.stage(body, maxSize);
+            if (!staged.sha256().equals(expectedHash.get())) {
+                Files.deleteIfExists(staged.path());
+                return ResponseEntity.badRequest().body("Conteúdo não corresponde ao hash informado");
+            }
+            storage.put(key, staged.path(), request.getContentType());
+            return ResponseEntity.ok().build();
+        } catch (FileTooLargeException e) {
+            return ResponseEntity.badRequest().body("Arquivo muito grande");
+        } catch (IOException e) {
+            logger.error("Erro ao gravar upload direto {}: {}", key, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao gravar arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resultado da última execução da coleta de órfãos (arquivos removidos e bytes liberados).
+     */
+    @GetMapping("/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getCollectorReport() {
+        OrphanFileCollector.Report report = orphanFileCollector.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Inicia uma rodada da coleta de órfãos em segundo plano (mesmos limites de lote da execução
+     * agendada); o resultado fica em GET /gc.
+     */
+    @PostMapping("/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runCollector() {
+        if (!orphanFileCollector.startCollect()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Coleta já em andamento"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Coleta de órfãos iniciada"));
+    }
+
+    /**
+     * Inicia a migração dos uploads antigos para o layout por conteúdo em segundo plano.
+     */
+    @PostMapping("/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runMigration() {
+        if (!legacyUploadMigration.startMigration()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Migração já em andamento"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Migração de uploads iniciada"));
+    }
+
+    private ResponseEntity<?> validate(DirectUploadDTO dto, Authentication authentication) {
+        if (dto.getFileName() == null || dto.getSize() == null || dto.getPurpose() == null || dto.getSha256() == null) {
+            return ResponseEntity.badRequest().body("fileName, size, sha256 e purpose são obrigatórios");
+        }
+        if (!SHA256.matcher(dto.getSha256()).matches()) {
+            return ResponseEntity.badRequest().body("sha256 inválido");
+        }
+        UploadSession.Purpose purpose;
+        try {
+            purpose = UploadSession.Purpose.valueOf(dto.getPurpose().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Finalidade de upload inválida: " + dto.getPurpose());
+        }
+        return uploadSupport.checkPolicy(purpose, dto.getContentType(), dto.getSize(), dto.getTaskId(), authentication);
+    }
+}
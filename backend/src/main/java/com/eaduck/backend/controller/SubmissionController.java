@@ -10,13 +10,21 @@ import com.eaduck.backend.model.user.dto.UserDTO;
 import com.eaduck.backend.repository.SubmissionRepository;
 import com.eaduck.backend.repository.TaskRepository;
 import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.model.enums.Role;
 import com.eaduck.backend.service.NotificationService;
+import com.eaduck.backend.service.SubmissionArchiveService;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.exceptions.FileTooLargeException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import jakarta.mail.internet.MimeMessage;
@@ -24,9 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +47,8 @@ public class SubmissionController {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+    private final SubmissionArchiveService submissionArchiveService;
     @Autowired
     private JavaMailSender mailSender;
 
@@ -68,11 +76,15 @@ public class SubmissionController {
             SubmissionRepository submissionRepository,
             TaskRepository taskRepository,
             UserRepository userRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            ContentAddressedStorageService contentAddressedStorageService,
+            SubmissionArchiveService submissionArchiveService) {
         this.submissionRepository = submissionRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+        this.submissionArchiveService = submissionArchiveService;
     }
 
     @PostMapping
@@ -123,6 +135,38 @@ public class SubmissionController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Baixa todos os arquivos enviados para a tarefa em um único ZIP (um arquivo por aluno
+     * e manifest.csv com as notas), gerado em streaming direto na resposta.
+     */
+    @GetMapping("/task/{taskId}/download-all")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
+    public ResponseEntity<StreamingResponseBody> downloadAllSubmissions(@PathVariable Long taskId, Authentication authentication) {
+        User user = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (user == null) return ResponseEntity.badRequest().build();
+        Task task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) return ResponseEntity.notFound().build();
+        if (user.getRole() == Role.TEACHER) {
+            // Verifica se o professor leciona na turma da tarefa
+            if (task.getClassroom() == null || !user.getClassroomsAsTeacher().contains(task.getClassroom())) {
+                return ResponseEntity.status(403).build();
+            }
+        }
+
+        List<SubmissionArchiveService.Entry> entries = submissionRepository.findByTaskId(taskId).stream()
+            .map(SubmissionArchiveService.Entry::of)
+            .collect(Collectors.toList());
+        String fileName = SubmissionArchiveService.archiveName(taskId, task.getTitle());
+        logger.info("Gerando ZIP com {} submissões da tarefa {}", entries.size(), taskId);
+
+        StreamingResponseBody body = out -> submissionArchiveService.writeArchive(entries, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8).build().toString())
+            .body(body);
+    }
+
     @PutMapping("/{submissionId}/evaluate")
     public ResponseEntity<?> evaluateSubmission(
         @PathVariable Long submissionId,
@@ -170,15 +214,19 @@ public class SubmissionController {
                 }
             }
 
+            // Bloquear novo envio se já existir submissão para o aluno/tarefa
+            Submission existing = submissionRepository.findByTaskIdAndStudentId(task.getId(), student.getId());
+            if (existing != null) {
+                return ResponseEntity.badRequest().body("Você já enviou essa atividade. Não é possível enviar novamente.");
+            }
+
             String fileUrl = null;
             if (!file.isEmpty()) {
                 try {
-                    String uploadDir = "uploads/";
-                    String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-                    Path path = Paths.get(uploadDir + fileName);
-                    Files.createDirectories(path.getParent());
-                    Files.write(path, file.getBytes());
-                    fileUrl = "/files/" + fileName;
+                    fileUrl = contentAddressedStorageService.store(file, MAX_FILE_SIZE, student.getEmail()).url();
+                } catch (FileTooLargeException e) {
+                    logger.warn("Arquivo muito grande: limite de {} bytes excedido durante a cópia", e.getMaxSize());
+                    return ResponseEntity.badRequest().body("O arquivo é muito grande. Tamanho máximo permitido: 8MB");
                 } catch (Exception e) {
                     logger.error("Erro ao salvar arquivo: {}", e.getMessage(), e);
                     return ResponseEntity.status(500).body("Erro ao salvar arquivo: " + e.getMessage());
@@ -198,13 +246,8 @@ public class SubmissionController {
                 f.set(submission, fileUrl);
             } catch (Exception ignore) {}
 
-            // Bloquear novo envio se já existir submissão para o aluno/tarefa
-            Submission existing = submissionRepository.findByTaskIdAndStudentId(task.getId(), student.getId());
-            if (existing != null) {
-                return ResponseEntity.badRequest().body("Você já enviou essa atividade. Não é possível enviar novamente.");
-            }
-
             submission = submissionRepository.save(submission);
+            contentAddressedStorageService.retain(fileUrl);
 
             // Enviar notificação por e-mail para o professor
             if (teacher != null && teacher.getEmail() != null) {
@@ -307,10 +350,12 @@ public class SubmissionController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER')")
     public ResponseEntity<?> deleteSubmission(@PathVariable Long id) {
-        if (!submissionRepository.existsById(id)) {
+        Submission submission = submissionRepository.findById(id).orElse(null);
+        if (submission == null) {
             return ResponseEntity.notFound().build();
         }
-        submissionRepository.deleteById(id);
+        submissionRepository.delete(submission);
+        contentAddressedStorageService.release(submission.getFileUrl());
         return ResponseEntity.ok().build();
     }
 
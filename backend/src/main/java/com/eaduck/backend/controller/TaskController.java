@@ -7,6 +7,10 @@ import com.eaduck.backend.model.task.dto.TaskAttachmentDTO;
 import com.eaduck.backend.repository.TaskRepository;
 import com.eaduck.backend.repository.TaskAttachmentRepository;
 import com.eaduck.backend.service.TaskService;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.DerivativeService;
+import com.eaduck.backend.service.storage.UploadedFile;
+import com.eaduck.backend.exceptions.FileTooLargeException;
 import com.eaduck.backend.repository.UserRepository;
 import com.eaduck.backend.model.user.User;
 import com.eaduck.backend.model.enums.Role;
@@ -28,9 +32,6 @@ import java.util.ArrayList;
 import com.eaduck.backend.model.task.dto.TaskSimpleDTO;
 import java.util.Map;
 import com.eaduck.backend.repository.SubmissionRepository;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.io.IOException;
 
 @RestController
@@ -58,7 +59,13 @@ public class TaskController {
     @Autowired
     private TaskAttachmentRepository taskAttachmentRepository;
 
-    private static final List<String> ALLOWED_FILE_TYPES = List.of(
+    @Autowired
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @Autowired
+    private DerivativeService derivativeService;
+
+    static final List<String> ALLOWED_FILE_TYPES = List.of(
         "application/pdf", // PDF
         "application/msword", // DOC
         "application/vnd.openxmlformats-officedocument.wordprocessingml.document", // DOCX
@@ -78,7 +85,7 @@ public class TaskController {
         "application/x-rar-compressed" // RAR
     );
 
-    private static final long MAX_FILE_SIZE = 8 * 1024 * 1024; // 8MB
+    static final long MAX_FILE_SIZE = 8 * 1024 * 1024; // 8MB
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -316,7 +323,10 @@ public class TaskController {
             }
         }
 
+        // Anexos são removidos em cascata; libera as referências aos arquivos
+        List<TaskAttachment> attachments = taskAttachmentRepository.findByTaskId(id);
         taskRepository.delete(task);
+        attachments.forEach(attachment -> contentAddressedStorageService.release(attachment.getFileUrl()));
         return ResponseEntity.ok().build();
     }
 
@@ -403,25 +413,22 @@ public class TaskController {
                 return ResponseEntity.badRequest().body(null);
             }
 
-            // Salvar arquivo
-            String uploadDir = "uploads/";
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(uploadDir + fileName);
-            Files.createDirectories(path.getParent());
-            Files.write(path, file.getBytes());
-            String fileUrl = "/files/" + fileName;
+            // Salvar arquivo em streaming (deduplicado pelo hash do conteúdo)
+            UploadedFile stored = contentAddressedStorageService.store(file, MAX_FILE_SIZE, user.getEmail());
 
             // Criar anexo
             TaskAttachment attachment = TaskAttachment.builder()
                 .task(task)
                 .fileName(file.getOriginalFilename())
-                .fileSize(file.getSize())
+                .fileSize(stored.size())
                 .fileType(file.getContentType())
-                .fileUrl(fileUrl)
+                .fileUrl(stored.url())
                 .uploadedAt(LocalDateTime.now())
                 .build();
 
             TaskAttachment savedAttachment = taskAttachmentRepository.save(attachment);
+            contentAddressedStorageService.retain(savedAttachment.getFileUrl());
+            derivativeService.requestDerivatives(savedAttachment.getFileUrl());
 
             TaskAttachmentDTO dto = new TaskAttachmentDTO(
                 savedAttachment.getId(),
@@ -429,11 +436,14 @@ public class TaskController {
                 savedAttachment.getFileSize(),
                 savedAttachment.getFileType(),
                 savedAttachment.getFileUrl(),
+                savedAttachment.getPreviewUrl(),
                 savedAttachment.getUploadedAt().toString()
             );
 
             return ResponseEntity.ok(dto);
 
+        } catch (FileTooLargeException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (IOException e) {
             return ResponseEntity.status(500).build();
         }
@@ -478,6 +488,7 @@ public class TaskController {
                 attachment.getFileSize(),
                 attachment.getFileType(),
                 attachment.getFileUrl(),
+                attachment.getPreviewUrl(),
                 attachment.getUploadedAt().toString()
             ))
             .collect(java.util.stream.Collectors.toList());
@@ -515,6 +526,7 @@ public class TaskController {
         }
 
         taskAttachmentRepository.delete(attachment);
+        contentAddressedStorageService.release(attachment.getFileUrl());
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
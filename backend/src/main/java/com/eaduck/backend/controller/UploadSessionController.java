@@ -0,0 +1,142 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.exceptions.FileTooLargeException;
+import com.eaduck.backend.model.upload.dto.UploadSessionCreateDTO;
+import com.eaduck.backend.model.upload.dto.UploadSessionDTO;
+import com.eaduck.backend.service.storage.UploadSession;
+import com.eaduck.backend.service.storage.UploadSessionService;
+import com.eaduck.backend.service.storage.UploadedFile;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Upload em partes (resumable) para mídias grandes do chat e anexos de tarefa.
+ * Fluxo: POST /api/uploads cria a sessão, PUT /api/uploads/{id}/chunks?offset=N envia cada parte
+ * (em qualquer ordem), GET /api/uploads/{id} mostra o progresso e POST /api/uploads/{id}/complete
+ * finaliza, devolvendo os mesmos dados de /api/chat/upload ou de /api/tasks/{taskId}/attachments.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadSessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionController.class);
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private UploadSupport uploadSupport;
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> createSession(@RequestBody UploadSessionCreateDTO dto, Authentication authentication) {
+        if (dto.getFileName() == null || dto.getTotalSize() == null || dto.getPurpose() == null) {
+            return ResponseEntity.badRequest().body("fileName, totalSize e purpose são obrigatórios");
+        }
+
+        UploadSession.Purpose purpose;
+        try {
+            purpose = UploadSession.Purpose.valueOf(dto.getPurpose().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Finalidade de upload inválida: " + dto.getPurpose());
+        }
+
+        ResponseEntity<?> denied = uploadSupport.checkPolicy(purpose, dto.getContentType(), dto.getTotalSize(),
+                dto.getTaskId(), authentication);
+        if (denied != null) {
+            return denied;
+        }
+
+        try {
+            UploadSession session = uploadSessionService.create(authentication.getName(), purpose, dto.getTaskId(),
+                    dto.getFileName(), dto.getContentType(), dto.getTotalSize(), uploadSupport.maxSize(purpose));
+            return ResponseEntity.status(201).body(toDTO(session));
+        } catch (FileTooLargeException e) {
+            return ResponseEntity.badRequest().body("Arquivo muito grande. Tamanho máximo: " + e.getMaxSize() + " bytes");
+        } catch (IOException e) {
+            logger.error("Erro ao criar sessão de upload: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao criar sessão de upload: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{sessionId}/chunks")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String sessionId,
+            @RequestParam long offset,
+            HttpServletRequest request,
+            Authentication authentication) {
+        try (InputStream body = request.getInputStream()) {
+            UploadSession session = uploadSessionService.writeChunk(sessionId, authentication.getName(), offset, body);
+            return ResponseEntity.ok(toDTO(session));
+        } catch (IOException e) {
+            logger.error("Erro ao gravar parte da sessão {}: {}", sessionId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao gravar parte: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionDTO> getProgress(@PathVariable String sessionId, Authentication authentication) {
+        UploadSession session = uploadSessionService.get(sessionId, authentication.getName());
+        session.touch();
+        return ResponseEntity.ok(toDTO(session));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> completeSession(@PathVariable String sessionId, Authentication authentication) {
+        UploadSession session = uploadSessionService.get(sessionId, authentication.getName());
+        if (session.getPurpose() == UploadSession.Purpose.TASK_ATTACHMENT) {
+            // O acesso pode ter mudado desde a criação da sessão
+            ResponseEntity<?> denied = uploadSupport.checkTaskAccess(session.getTaskId(), authentication);
+            if (denied != null) {
+                return denied;
+            }
+        }
+        try {
+            UploadedFile stored = uploadSessionService.complete(sessionId, authentication.getName());
+            return uploadSupport.finish(session.getPurpose(), session.getTaskId(), session.getFileName(),
+                    session.getContentType(), stored, authentication);
+        } catch (IOException e) {
+            logger.error("Erro ao finalizar sessão de upload {}: {}", sessionId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Erro ao finalizar upload: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> abortSession(@PathVariable String sessionId, Authentication authentication) {
+        try {
+            uploadSessionService.abort(sessionId, authentication.getName());
+            return ResponseEntity.noContent().build();
+        } catch (IOException e) {
+            logger.error("Erro ao cancelar sessão de upload {}: {}", sessionId, e.getMessage(), e);
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        return new UploadSessionDTO(
+            session.getId(),
+            session.getPurpose().name(),
+            session.getFileName(),
+            session.getTotalSize(),
+            session.getChunkSize(),
+            session.getTotalChunks(),
+            session.getReceivedCount(),
+            session.getReceivedBytes(),
+            session.getMissingChunks(),
+            session.getCreatedAt().toString()
+        );
+    }
+}
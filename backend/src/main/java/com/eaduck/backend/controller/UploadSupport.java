@@ -0,0 +1,149 @@
+package com.eaduck.backend.controller;
+
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.task.Task;
+import com.eaduck.backend.model.task.TaskAttachment;
+import com.eaduck.backend.model.task.dto.TaskAttachmentDTO;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.TaskAttachmentRepository;
+import com.eaduck.backend.repository.TaskRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.DerivativeService;
+import com.eaduck.backend.service.storage.UploadSession;
+import com.eaduck.backend.service.storage.UploadedFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Regras compartilhadas pelos fluxos de upload fora do multipart (sessões em partes e URLs
+ * pré-assinadas): tipos e limites de /api/chat/upload e /api/tasks/{taskId}/attachments,
+ * controle de acesso à tarefa e a resposta final de cada finalidade.
+ */
+@Component
+class UploadSupport {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskAttachmentRepository taskAttachmentRepository;
+
+    @Autowired
+    private ContentAddressedStorageService contentAddressedStorageService;
+
+    @Autowired
+    private DerivativeService derivativeService;
+
+    long maxSize(UploadSession.Purpose purpose) {
+        return purpose == UploadSession.Purpose.CHAT ? ChatFileController.MAX_FILE_SIZE : TaskController.MAX_FILE_SIZE;
+    }
+
+    /**
+     * Valida tipo, tamanho e acesso. Retorna null quando o upload é permitido.
+     */
+    ResponseEntity<?> checkPolicy(UploadSession.Purpose purpose, String contentType, long size, Long taskId,
+                                  Authentication authentication) {
+        if (purpose == UploadSession.Purpose.CHAT) {
+            if (!ChatFileController.ALLOWED_IMAGE_TYPES.contains(contentType)
+                    && !ChatFileController.ALLOWED_AUDIO_TYPES.contains(contentType)) {
+                return ResponseEntity.badRequest().body("Tipo de arquivo não permitido. Apenas imagens e áudios são aceitos.");
+            }
+        } else {
+            if (!TaskController.ALLOWED_FILE_TYPES.contains(contentType)) {
+                return ResponseEntity.badRequest().body("Tipo de arquivo não permitido");
+            }
+            ResponseEntity<?> denied = checkTaskAccess(taskId, authentication);
+            if (denied != null) {
+                return denied;
+            }
+        }
+        if (size > maxSize(purpose)) {
+            return ResponseEntity.badRequest().body("Arquivo muito grande. Tamanho máximo: " + maxSize(purpose) + " bytes");
+        }
+        return null;
+    }
+
+    /**
+     * Conclui o upload conforme a finalidade: para o chat devolve o mesmo corpo de /api/chat/upload,
+     * para tarefas cria o TaskAttachment como /api/tasks/{taskId}/attachments.
+     */
+    ResponseEntity<?> finish(UploadSession.Purpose purpose, Long taskId, String fileName, String contentType,
+                             UploadedFile stored, Authentication authentication) {
+        if (purpose == UploadSession.Purpose.CHAT) {
+            derivativeService.requestDerivatives(stored.url());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("fileUrl", stored.url());
+            response.put("fileName", fileName);
+            response.put("fileType", contentType);
+            response.put("fileSize", stored.size());
+            response.put("messageType", ChatFileController.ALLOWED_IMAGE_TYPES.contains(contentType) ? "IMAGE" : "AUDIO");
+            return ResponseEntity.ok(response);
+        }
+
+        ResponseEntity<?> denied = checkTaskAccess(taskId, authentication);
+        if (denied != null) {
+            return denied;
+        }
+        Task task = taskRepository.findById(taskId).orElseThrow();
+
+        TaskAttachment attachment = TaskAttachment.builder()
+            .task(task)
+            .fileName(fileName)
+            .fileSize(stored.size())
+            .fileType(contentType)
+            .fileUrl(stored.url())
+            .uploadedAt(LocalDateTime.now())
+            .build();
+        TaskAttachment saved = taskAttachmentRepository.save(attachment);
+        contentAddressedStorageService.retain(saved.getFileUrl());
+        derivativeService.requestDerivatives(saved.getFileUrl());
+
+        return ResponseEntity.ok(new TaskAttachmentDTO(
+            saved.getId(),
+            saved.getFileName(),
+            saved.getFileSize(),
+            saved.getFileType(),
+            saved.getFileUrl(),
+            saved.getPreviewUrl(),
+            saved.getUploadedAt().toString()
+        ));
+    }
+
+    /**
+     * Mesma regra de acesso de TaskController.uploadTaskAttachment: ADMIN ou professor da turma da tarefa.
+     * Retorna null quando o acesso é permitido.
+     */
+    ResponseEntity<?> checkTaskAccess(Long taskId, Authentication authentication) {
+        if (taskId == null) {
+            return ResponseEntity.badRequest().body("taskId é obrigatório para anexos de tarefa");
+        }
+        User user = userRepository.findByEmail(authentication.getName()).orElse(null);
+        if (user == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Task task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean hasAccess = false;
+        if (user.getRole() == Role.ADMIN) {
+            hasAccess = true;
+        } else if (user.getRole() == Role.TEACHER) {
+            hasAccess = user.getClassroomsAsTeacher().stream()
+                .anyMatch(classroom -> classroom.getTasks().contains(task));
+        }
+        return hasAccess ? null : ResponseEntity.status(403).build();
+    }
+}
@@ -3,6 +3,10 @@ package com.eaduck.backend.controller;
 import com.eaduck.backend.model.enums.Role;
 import com.eaduck.backend.model.user.User;
 import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.ClassroomListingService;
+import com.eaduck.backend.service.report.PdfResponses;
+import com.eaduck.backend.service.report.ReportStyles;
+import com.eaduck.backend.service.report.ReportTable;
 import com.eaduck.backend.model.auth.dto.UserRegisterDTO;
 import com.eaduck.backend.model.auth.dto.ResponseMessage;
 import com.eaduck.backend.model.user.dto.UserDTO;
@@ -20,20 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.io.ByteArrayOutputStream;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.HttpStatus;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
 
 @RestController
 @RequestMapping("/api/users")
@@ -47,6 +38,9 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ClassroomListingService classroomListingService;
+
     private UserDTO toDTO(User user) {
         return UserDTO.builder()
             .id(user.getId())
@@ -109,15 +103,7 @@ public class UserController {
         String email = authentication.getName();
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isPresent()) {
-            List<ClassroomSimpleDTO> dtos = userOpt.get().getClassrooms().stream()
-                .map(c -> ClassroomSimpleDTO.builder()
-                    .id(c.getId())
-                    .name(c.getName())
-                    .academicYear(c.getAcademicYear())
-                    .studentCount(c.getStudents() != null ? c.getStudents().size() : 0)
-                    .teacherNames(c.getTeachers().stream().map(t -> t.getName() != null ? t.getName() : t.getEmail()).toList())
-                    .build())
-                .toList();
+            List<ClassroomSimpleDTO> dtos = classroomListingService.findSimpleByStudentId(userOpt.get().getId());
             return ResponseEntity.ok(dtos);
         }
         return ResponseEntity.notFound().build();
@@ -501,6 +487,34 @@ public class UserController {
         }
     }
 
+    private static final ReportTable<User> STUDENT_TABLE = ReportTable.<User>builder()
+            .column("ID", 20, user -> String.valueOf(user.getId()))
+            .column("E-MAIL", 60, user -> ReportStyles.truncate(user.getEmail(), 25, 22))
+            .column("NOME COMPLETO", 100, user -> ReportStyles.truncate(user.getNomeCompleto(), 28, 28))
+            .column("CPF", 60, user -> ReportStyles.orDash(user.getCpf()))
+            .column("DATA NASC.", 50, user -> ReportStyles.orDash(user.getDataNascimento()))
+            .column("NOME MÃE", 90, user -> ReportStyles.truncate(user.getNomeMae(), 25, 25))
+            .column("NOME PAI", 90, user -> ReportStyles.truncate(user.getNomePai(), 25, 25))
+            .column("TELEFONE", 65, user -> ReportStyles.orDash(user.getTelefone()))
+            .column("ENDEREÇO", 120, user -> ReportStyles.truncate(user.getEndereco(), 30, 30))
+            .column("STATUS", 35, user -> user.isActive() ? "Ativo" : "Inativo")
+            .build();
+
+    private static final ReportTable<User> NON_STUDENT_TABLE = ReportTable.<User>builder()
+            .column("ID", 20, user -> String.valueOf(user.getId()))
+            .column("E-MAIL", 55, user -> ReportStyles.truncate(user.getEmail(), 22, 19))
+            .column("NOME COMPLETO", 100, user -> ReportStyles.truncate(user.getNomeCompleto(), 28, 28))
+            .column("CPF", 55, user -> ReportStyles.orDash(user.getCpf()))
+            .column("ENDEREÇO", 120, user -> ReportStyles.truncate(user.getEndereco(), 30, 30))
+            .column("TITULAÇÃO", 70, user -> ReportStyles.truncate(user.getTitulacao(), 18, 18))
+            .column("TIPO", 35, user -> switch (user.getRole()) {
+                case ADMIN -> "Admin";
+                case TEACHER -> "Prof.";
+                default -> user.getRole().toString();
+            })
+            .column("STATUS", 30, user -> user.isActive() ? "Ativo" : "Inativo")
+            .build();
+
     @GetMapping("/export/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<?> exportUsersToPdf() {
@@ -511,171 +525,23 @@ public class UserController {
             List<User> students = users.stream().filter(u -> u.getRole() == Role.STUDENT).collect(java.util.stream.Collectors.toList());
             List<User> nonStudents = users.stream().filter(u -> u.getRole() != Role.STUDENT).collect(java.util.stream.Collectors.toList());
             
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            // Configurar página em modo landscape (horizontal)
-            Document document = new Document(pdf, PageSize.A4.rotate());
-
-            // Título
-            Paragraph title = new Paragraph("Relatório de Usuários - EaDuck")
-                    .setFontSize(18)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(title);
-
-            // Data de geração
-            Paragraph date = new Paragraph("Data de geração: " + java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")))
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(date);
-
-            // Tabela para ALUNOS (sem APELIDO e TITULAÇÃO)
-            if (!students.isEmpty()) {
-                Paragraph studentsTitle = new Paragraph("ALUNOS")
-                        .setFontSize(14)
-                        .setBold()
-                        .setMarginBottom(10);
-                document.add(studentsTitle);
-                
-                UnitValue[] studentColumnWidths = {
-                    UnitValue.createPointValue(20),   // ID
-                    UnitValue.createPointValue(60),   // E-MAIL (reduzido)
-                    UnitValue.createPointValue(100),  // NOME COMPLETO (aumentado)
-                    UnitValue.createPointValue(60),   // CPF
-                    UnitValue.createPointValue(50),   // DATA NASC.
-                    UnitValue.createPointValue(90),   // NOME MÃE (aumentado)
-                    UnitValue.createPointValue(90),   // NOME PAI (aumentado)
-                    UnitValue.createPointValue(65),   // TELEFONE
-                    UnitValue.createPointValue(120),  // ENDEREÇO (aumentado)
-                    UnitValue.createPointValue(35),   // STATUS
-                };
-                Table studentTable = new Table(studentColumnWidths);
-                studentTable.setWidth(UnitValue.createPercentValue(100));
-                
-                // Cabeçalho da tabela de alunos
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("ID").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("E-MAIL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME COMPLETO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("CPF").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("DATA NASC.").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME MÃE").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("NOME PAI").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("TELEFONE").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("ENDEREÇO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                studentTable.addHeaderCell(new Cell().add(new Paragraph("STATUS").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-                // Dados dos alunos
-                for (User user : students) {
-                    studentTable.addCell(new Cell().add(new Paragraph(String.valueOf(user.getId()))).setFontSize(6).setPadding(3));
-                    
-                    String email = user.getEmail() != null ? user.getEmail() : "-";
-                    if (!email.equals("-") && email.length() > 25) {
-                        email = email.substring(0, 22) + "...";
-                    }
-                    studentTable.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
-                    
-                    String nomeCompleto = user.getNomeCompleto() != null ? (user.getNomeCompleto().length() > 28 ? user.getNomeCompleto().substring(0, 28) + "..." : user.getNomeCompleto()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomeCompleto)).setFontSize(6).setPadding(3));
-                    
-                    studentTable.addCell(new Cell().add(new Paragraph(user.getCpf() != null ? user.getCpf() : "-")).setFontSize(6).setPadding(3));
-                    studentTable.addCell(new Cell().add(new Paragraph(user.getDataNascimento() != null ? user.getDataNascimento() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String nomeMae = user.getNomeMae() != null ? (user.getNomeMae().length() > 25 ? user.getNomeMae().substring(0, 25) + "..." : user.getNomeMae()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomeMae)).setFontSize(6).setPadding(3));
-                    
-                    String nomePai = user.getNomePai() != null ? (user.getNomePai().length() > 25 ? user.getNomePai().substring(0, 25) + "..." : user.getNomePai()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(nomePai)).setFontSize(6).setPadding(3));
-                    
-                    studentTable.addCell(new Cell().add(new Paragraph(user.getTelefone() != null ? user.getTelefone() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String endereco = user.getEndereco() != null ? (user.getEndereco().length() > 30 ? user.getEndereco().substring(0, 30) + "..." : user.getEndereco()) : "-";
-                    studentTable.addCell(new Cell().add(new Paragraph(endereco)).setFontSize(6).setPadding(3));
-                    
-                    String statusLabel = user.isActive() ? "Ativo" : "Inativo";
-                    studentTable.addCell(new Cell().add(new Paragraph(statusLabel)).setFontSize(6).setPadding(3));
+            return PdfResponses.stream("usuarios_eaduck.pdf", document -> {
+                document.add(ReportStyles.title("Relatório de Usuários - EaDuck", 18, 20));
+                document.add(ReportStyles.generatedAt(20));
+
+                // Tabela para ALUNOS (sem APELIDO e TITULAÇÃO)
+                if (!students.isEmpty()) {
+                    document.add(ReportStyles.sectionTitle("ALUNOS"));
+                    STUDENT_TABLE.write(document, students);
+                    document.add(new Paragraph(" ").setMarginBottom(15)); // Espaço entre tabelas
                 }
 
-                document.add(studentTable);
-                document.add(new Paragraph(" ").setMarginBottom(15)); // Espaço entre tabelas
-            }
-
-            // Tabela para PROFESSORES e ADMINS (com APELIDO e TITULAÇÃO)
-            if (!nonStudents.isEmpty()) {
-                Paragraph nonStudentsTitle = new Paragraph("PROFESSORES E ADMINISTRADORES")
-                        .setFontSize(14)
-                        .setBold()
-                        .setMarginBottom(10);
-                document.add(nonStudentsTitle);
-                
-                UnitValue[] nonStudentColumnWidths = {
-                    UnitValue.createPointValue(20),   // ID
-                    UnitValue.createPointValue(55),   // E-MAIL (reduzido)
-                    UnitValue.createPointValue(100),  // NOME COMPLETO (aumentado)
-                    UnitValue.createPointValue(55),   // CPF
-                    UnitValue.createPointValue(120),  // ENDEREÇO (aumentado)
-                    UnitValue.createPointValue(70),   // TITULAÇÃO
-                    UnitValue.createPointValue(35),   // TIPO
-                    UnitValue.createPointValue(30)    // STATUS
-                };
-                Table nonStudentTable = new Table(nonStudentColumnWidths);
-                nonStudentTable.setWidth(UnitValue.createPercentValue(100));
-                
-                // Cabeçalho da tabela de professores/admins (sem APELIDO)
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("ID").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("E-MAIL").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("NOME COMPLETO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("CPF").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("ENDEREÇO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("TITULAÇÃO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("TIPO").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-                nonStudentTable.addHeaderCell(new Cell().add(new Paragraph("STATUS").setBold().setFontSize(7)).setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
-
-                // Dados dos professores e admins (sem APELIDO)
-                for (User user : nonStudents) {
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(String.valueOf(user.getId()))).setFontSize(6).setPadding(3));
-                    
-                    String email = user.getEmail() != null ? user.getEmail() : "-";
-                    if (!email.equals("-") && email.length() > 22) {
-                        email = email.substring(0, 19) + "...";
-                    }
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
-                    
-                    String nomeCompleto = user.getNomeCompleto() != null ? (user.getNomeCompleto().length() > 28 ? user.getNomeCompleto().substring(0, 28) + "..." : user.getNomeCompleto()) : "-";
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(nomeCompleto)).setFontSize(6).setPadding(3));
-                    
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(user.getCpf() != null ? user.getCpf() : "-")).setFontSize(6).setPadding(3));
-                    
-                    String endereco = user.getEndereco() != null ? (user.getEndereco().length() > 30 ? user.getEndereco().substring(0, 30) + "..." : user.getEndereco()) : "-";
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(endereco)).setFontSize(6).setPadding(3));
-                    
-                    String titulacao = user.getTitulacao() != null ? (user.getTitulacao().length() > 18 ? user.getTitulacao().substring(0, 18) + "..." : user.getTitulacao()) : "-";
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(titulacao)).setFontSize(6).setPadding(3));
-                    
-                    String roleLabel = switch (user.getRole()) {
-                        case ADMIN -> "Admin";
-                        case TEACHER -> "Prof.";
-                        default -> user.getRole().toString();
-                    };
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(roleLabel)).setFontSize(6).setPadding(3));
-                    
-                    String statusLabel = user.isActive() ? "Ativo" : "Inativo";
-                    nonStudentTable.addCell(new Cell().add(new Paragraph(statusLabel)).setFontSize(6).setPadding(3));
+                // Tabela para PROFESSORES e ADMINS (com TITULAÇÃO)
+                if (!nonStudents.isEmpty()) {
+                    document.add(ReportStyles.sectionTitle("PROFESSORES E ADMINISTRADORES"));
+                    NON_STUDENT_TABLE.write(document, nonStudents);
                 }
-
-                document.add(nonStudentTable);
-            }
-
-            document.close();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "usuarios_eaduck.pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
+            });
         } catch (Exception e) {
             logger.error("Erro ao gerar PDF de usuários: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Erro ao gerar PDF: " + e.getMessage());
@@ -0,0 +1,24 @@
+package com.eaduck.backend.exceptions;
+
+/**
+ * Exceção lançada quando um upload ultrapassa o tamanho máximo permitido.
+ * O limite é verificado enquanto os bytes são copiados, então o arquivo nunca é carregado inteiro em memória.
+ */
+public class FileTooLargeException extends RuntimeException {
+
+    private final long maxSize;
+
+    /**
+     * Construtor que recebe o limite que foi ultrapassado.
+     *
+     * @param maxSize Tamanho máximo permitido, em bytes.
+     */
+    public FileTooLargeException(long maxSize) {
+        super("Arquivo excede o tamanho máximo de " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
@@ -27,6 +27,7 @@ public class ChatMessage {
     private String fileType;
     private String fileName;
     private Long fileSize;
+    private String thumbnailUrl;
     
     // Mensagem respondida
     private String repliedToMessageId;
@@ -11,7 +11,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = @Index(name = "idx_chat_messages_file_url", columnList = "file_url"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -52,6 +52,10 @@ public class ChatMessageEntity {
     
     @Column(name = "file_size")
     private Long fileSize;
+
+    // Miniatura gerada em segundo plano (null até ficar pronta)
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
     
     @Column(name = "replied_to_message_id")
     private Long repliedToMessageId;
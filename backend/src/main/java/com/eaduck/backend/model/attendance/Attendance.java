@@ -11,11 +11,15 @@ import lombok.NoArgsConstructor;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "attendances", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"classroom_id", "student_id", "date"})
+}, indexes = {
+    @Index(name = "idx_attendances_student_date", columnList = "student_id, date"),
+    @Index(name = "idx_attendances_updated_at", columnList = "updated_at")
 })
 @Data
 @Builder
@@ -57,5 +61,14 @@ public class Attendance {
     @ManyToOne
     @JoinColumn(name = "teacher_id")
     private User teacher; // Professor responsável
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt; // Última alteração (versão dos relatórios em cache)
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
 
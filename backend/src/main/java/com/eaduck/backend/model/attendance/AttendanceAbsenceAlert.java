@@ -0,0 +1,48 @@
+package com.eaduck.backend.model.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Alerta de faltas já enviado: no máximo um por aluno, disciplina e período letivo.
+ */
+@Entity
+@Table(name = "attendance_absence_alerts", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"classroom_id", "student_id", "period_start", "discipline"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceAbsenceAlert {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "classroom_id", nullable = false)
+    private Long classroomId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private String discipline;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private int absent;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
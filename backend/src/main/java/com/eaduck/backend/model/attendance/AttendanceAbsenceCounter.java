@@ -0,0 +1,52 @@
+package com.eaduck.backend.model.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Faltas e total de registros do aluno em uma disciplina no período letivo (disciplina vazia quando
+ * não informada). Recalculada pelo ChronicAbsenceDetector a cada alteração de frequência do aluno no período.
+ */
+@Entity
+@Table(name = "attendance_absence_counters", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"classroom_id", "student_id", "period_start", "discipline"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceAbsenceCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "classroom_id", nullable = false)
+    private Long classroomId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private String discipline;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Column(nullable = false)
+    private int absent;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.eaduck.backend.model.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Totais diários de frequência por sala e disciplina (disciplina vazia quando não informada).
+ * Mantida pelo AttendanceRollupService na mesma transação que grava as frequências.
+ */
+@Entity
+@Table(name = "attendance_daily_rollup", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"classroom_id", "date", "discipline"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "classroom_id", nullable = false)
+    private Long classroomId;
+
+    @Column(nullable = false)
+    private String discipline;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private int present;
+
+    @Column(nullable = false)
+    private int absent;
+
+    @Column(nullable = false)
+    private int late;
+}
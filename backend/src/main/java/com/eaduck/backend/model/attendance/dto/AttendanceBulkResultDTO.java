@@ -0,0 +1,36 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resultado da chamada em lote: totais e a situação de cada aluno enviado.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceBulkResultDTO {
+    private String message;
+    private Long classroomId;
+    private LocalDate date;
+    private int created;
+    private int updated;
+    private int rejected;
+    private List<StudentResultDTO> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentResultDTO {
+        private Long studentId;
+        private String outcome; // CREATED, UPDATED, NOT_IN_CLASSROOM, INVALID_STATUS, DUPLICATE
+        private String message;
+    }
+}
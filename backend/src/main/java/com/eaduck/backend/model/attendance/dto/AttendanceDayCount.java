@@ -0,0 +1,8 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Presenças, faltas e atrasos de um dia em uma disciplina (disciplina vazia quando não informada).
+ */
+public record AttendanceDayCount(LocalDate date, String discipline, Long present, Long absent, Long late) {}
@@ -0,0 +1,27 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página do histórico de frequência do aluno. Os totais consideram todos os registros dos filtros,
+ * não só a página; nextCursor é null na última página.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceHistoryDTO {
+    private List<AttendanceDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private long present;
+    private long absent;
+    private long late;
+    private long total;
+    private Double presenceRate;
+}
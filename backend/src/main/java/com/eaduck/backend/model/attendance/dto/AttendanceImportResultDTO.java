@@ -0,0 +1,34 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado da importação de frequências (CSV): totais e os erros por linha do arquivo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceImportResultDTO {
+    private String message;
+    private int processed;
+    private int imported;
+    private int rejected;
+    private List<RowErrorDTO> errors;
+    private boolean errorsTruncated; // true quando há mais erros do que attendance.import.max-errors
+    private long elapsedMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowErrorDTO {
+        private int line;
+        private String message;
+    }
+}
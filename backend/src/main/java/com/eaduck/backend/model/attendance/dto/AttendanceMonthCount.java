@@ -0,0 +1,6 @@
+package com.eaduck.backend.model.attendance.dto;
+
+/**
+ * Frequência agregada no banco por aluno, disciplina e mês: presenças e total de registros.
+ */
+public record AttendanceMonthCount(Long studentId, String discipline, Integer month, Long present, Long total) {}
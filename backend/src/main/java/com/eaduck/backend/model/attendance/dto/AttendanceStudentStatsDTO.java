@@ -0,0 +1,24 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estatísticas de frequência de um aluno no intervalo, calculadas na matriz em memória.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceStudentStatsDTO {
+    private Long studentId;
+    private String studentName;
+    private int present;
+    private int absent;
+    private int late;
+    private int recorded;
+    private Double presenceRate;
+    private int longestAbsenceStreak;
+}
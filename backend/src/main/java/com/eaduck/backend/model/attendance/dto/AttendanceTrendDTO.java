@@ -0,0 +1,43 @@
+package com.eaduck.backend.model.attendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Evolução da taxa de presença no intervalo: totais do intervalo e um ponto por dia, semana ou mês.
+ * A taxa considera apenas PRESENT sobre o total de registros, como nos boletins.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceTrendDTO {
+    private Long classroomId;
+    private Long studentId;
+    private String discipline;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String granularity; // DAY, WEEK, MONTH
+    private long present;
+    private long absent;
+    private long late;
+    private Double presenceRate;
+    private List<PointDTO> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PointDTO {
+        private LocalDate periodStart;
+        private long present;
+        private long absent;
+        private long late;
+        private Double presenceRate;
+    }
+}
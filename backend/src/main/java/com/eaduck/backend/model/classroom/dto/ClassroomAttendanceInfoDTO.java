@@ -0,0 +1,26 @@
+package com.eaduck.backend.model.classroom.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sala na lista de seleção da frequência: nome, ano letivo, quantidade de alunos e professor principal
+ * (o primeiro vinculado). Preenchida direto pela consulta de projeção.
+ */
+@Data
+@NoArgsConstructor
+public class ClassroomAttendanceInfoDTO {
+    private Long id;
+    private String name;
+    private String academicYear;
+    private Long studentCount;
+    private String teacherName;
+
+    public ClassroomAttendanceInfoDTO(Long id, String name, String academicYear, Long studentCount, String teacherName) {
+        this.id = id;
+        this.name = name != null ? name : "Sem nome";
+        this.academicYear = academicYear != null ? academicYear : "-";
+        this.studentCount = studentCount != null ? studentCount : 0L;
+        this.teacherName = teacherName != null && !teacherName.isEmpty() ? teacherName : "-";
+    }
+}
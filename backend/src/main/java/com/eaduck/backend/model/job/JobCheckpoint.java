@@ -0,0 +1,27 @@
+package com.eaduck.backend.model.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ponto até onde uma tarefa agendada incremental já processou os dados.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "checkpoint_at", nullable = false)
+    private LocalDateTime checkpointAt;
+}
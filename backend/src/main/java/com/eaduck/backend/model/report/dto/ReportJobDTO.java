@@ -0,0 +1,19 @@
+package com.eaduck.backend.model.report.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ReportJobDTO {
+    private String id;
+    private String type;
+    private String status; // PENDING, RUNNING, DONE ou FAILED
+    private String filename;
+    private String error;
+    private String downloadUrl; // Preenchido quando o relatório está pronto
+    private Instant createdAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,57 @@
+package com.eaduck.backend.model.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Arquivo armazenado uma única vez, identificado pelo SHA-256 do conteúdo.
+ * refCount conta quantos anexos de tarefa, submissões e mensagens de chat apontam para ele.
+ * É também o índice usado para servir os arquivos: a URL traz o hash e storagePath diz onde ele está.
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sha256", nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    // Caminho relativo a uploads/
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    // Usuário que enviou o conteúdo pela primeira vez (nulo para arquivos migrados)
+    @Column(name = "owner_email")
+    private String ownerEmail;
+
+    // Nome do arquivo no primeiro envio, usado no download quando quem pede não informa outro
+    @Column(name = "original_filename")
+    private String originalFilename;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Último upload ou deduplicação que devolveu o arquivo; base do período de carência da coleta de órfãos
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+}
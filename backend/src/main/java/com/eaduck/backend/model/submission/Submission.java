@@ -11,7 +11,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = @Index(name = "idx_submissions_file_url", columnList = "file_url"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,8 @@
+package com.eaduck.backend.model.submission.dto;
+
+/**
+ * Notas agregadas no banco por aluno e grupo de tarefas (título): média, quantidade e as três notas
+ * mais recentes (nota1 = mais recente; null se não houver).
+ */
+public record GradeSummary(Long studentId, String group, Double average, Long count,
+                           Double grade1, Double grade2, Double grade3) {}
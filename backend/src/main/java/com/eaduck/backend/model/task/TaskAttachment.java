@@ -9,7 +9,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "task_attachments")
+@Table(name = "task_attachments", indexes = @Index(name = "idx_task_attachments_file_url", columnList = "file_url"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -35,6 +35,10 @@ public class TaskAttachment {
     @Column(name = "file_url", nullable = false)
     private String fileUrl;
 
+    // Miniatura (imagens) ou prévia da primeira página (PDF), preenchida quando ficar pronta
+    @Column(name = "preview_url", length = 500)
+    private String previewUrl;
+
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt;
 }
\ No newline at end of file
@@ -6,5 +6,6 @@ public record TaskAttachmentDTO(
     Long fileSize,
     String fileType,
     String fileUrl,
+    String previewUrl,
     String uploadedAt
 ) {}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.eaduck.backend.model.upload.dto;
+
+import lombok.Data;
+
+@Data
+public class DirectUploadDTO {
+    private String fileName;
+    private String contentType;
+    private Long size;
+    // SHA-256 (hex) do conteúdo, calculado pelo cliente
+    private String sha256;
+    // CHAT ou TASK_ATTACHMENT
+    private String purpose;
+    // Obrigatório quando purpose = TASK_ATTACHMENT
+    private Long taskId;
+}
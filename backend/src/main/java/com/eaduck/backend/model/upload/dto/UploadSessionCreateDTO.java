@@ -0,0 +1,14 @@
+package com.eaduck.backend.model.upload.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadSessionCreateDTO {
+    private String fileName;
+    private String contentType;
+    private Long totalSize;
+    // CHAT ou TASK_ATTACHMENT
+    private String purpose;
+    // Obrigatório quando purpose = TASK_ATTACHMENT
+    private Long taskId;
+}
@@ -0,0 +1,14 @@
+package com.eaduck.backend.model.upload.dto;
+
+public record UploadSessionDTO(
+    String id,
+    String purpose,
+    String fileName,
+    long totalSize,
+    int chunkSize,
+    int totalChunks,
+    int receivedChunks,
+    long receivedBytes,
+    int[] missingChunks,
+    String createdAt
+) {}
@@ -0,0 +1,24 @@
+package com.eaduck.backend.repository;
+
+import com.eaduck.backend.model.attendance.AttendanceDailyRollup;
+import com.eaduck.backend.model.attendance.dto.AttendanceDayCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+
+    // Uma linha por dia e disciplina da sala no intervalo (lido pela restrição única classroom_id, date, discipline)
+    @Query("SELECT new com.eaduck.backend.model.attendance.dto.AttendanceDayCount(r.date, r.discipline, " +
+           "CAST(r.present AS Long), CAST(r.absent AS Long), CAST(r.late AS Long)) " +
+           "FROM AttendanceDailyRollup r WHERE r.classroomId = :classroomId AND r.date BETWEEN :startDate AND :endDate " +
+           "ORDER BY r.date, r.discipline")
+    List<AttendanceDayCount> findDayCounts(@Param("classroomId") Long classroomId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+}
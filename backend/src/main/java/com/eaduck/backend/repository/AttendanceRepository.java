@@ -1,14 +1,25 @@
 package com.eaduck.backend.repository;
 
 import com.eaduck.backend.model.attendance.Attendance;
+import com.eaduck.backend.model.attendance.dto.AttendanceDTO;
+import com.eaduck.backend.model.attendance.dto.AttendanceDayCount;
+import com.eaduck.backend.model.attendance.dto.AttendanceMonthCount;
 import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.AttendanceStatus;
 import com.eaduck.backend.model.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -23,5 +34,139 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByStudent(User student);
     
     List<Attendance> findByClassroomAndStudent(Classroom classroom, User student);
-}
 
+    // Leitura da chamada direto em AttendanceDTO (sem carregar entidades): nome do aluno com o mesmo
+    // fallback nomeCompleto → name → email e nome do professor nomeCompleto → name
+    String ATTENDANCE_DTO_SELECT = "SELECT new com.eaduck.backend.model.attendance.dto.AttendanceDTO(a.id, c.id, c.name, s.id, " +
+            "COALESCE(s.nomeCompleto, s.name, s.email), a.date, a.status, a.arrivalTime, a.observations, a.discipline, " +
+            "a.period, t.id, COALESCE(t.nomeCompleto, t.name)) ";
+
+    // Todos os alunos da sala com a frequência da data, se houver (uma linha por aluno)
+    @Query(ATTENDANCE_DTO_SELECT +
+           "FROM Classroom c JOIN c.students s " +
+           "LEFT JOIN Attendance a ON a.classroom = c AND a.student = s AND a.date = :date " +
+           "LEFT JOIN a.teacher t " +
+           "WHERE c.id = :classroomId ORDER BY COALESCE(s.nomeCompleto, s.name, s.email), s.id")
+    List<AttendanceDTO> findRollCallRows(@Param("classroomId") Long classroomId, @Param("date") LocalDate date);
+
+    /**
+     * Chamada da sala na data: alunos sem frequência registrada vêm sem id, com a data pedida e status PRESENT.
+     */
+    default List<AttendanceDTO> findRollCall(Long classroomId, LocalDate date) {
+        List<AttendanceDTO> rows = findRollCallRows(classroomId, date);
+        for (AttendanceDTO dto : rows) {
+            if (dto.getId() == null) {
+                dto.setDate(date);
+                dto.setStatus(AttendanceStatus.PRESENT); // Default
+            }
+        }
+        return rows;
+    }
+
+    @Query(ATTENDANCE_DTO_SELECT +
+           "FROM Attendance a JOIN a.classroom c JOIN a.student s LEFT JOIN a.teacher t " +
+           "WHERE c.id = :classroomId ORDER BY a.date, s.id")
+    List<AttendanceDTO> findDTOsByClassroomId(@Param("classroomId") Long classroomId);
+
+    // Histórico do aluno do mais recente para o mais antigo, paginado por (date, id) a partir do cursor
+    // (índice idx_attendances_student_date); sala, disciplina e status são filtros opcionais
+    @Query(ATTENDANCE_DTO_SELECT +
+           "FROM Attendance a JOIN a.classroom c JOIN a.student s LEFT JOIN a.teacher t " +
+           "WHERE s.id = :studentId " +
+           "AND (:startDate IS NULL OR a.date >= :startDate) " +
+           "AND (:endDate IS NULL OR a.date <= :endDate) " +
+           "AND (:classroomId IS NULL OR c.id = :classroomId) " +
+           "AND (:discipline IS NULL OR a.discipline = :discipline) " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "AND (:beforeDate IS NULL OR a.date < :beforeDate OR (a.date = :beforeDate AND a.id < :beforeId)) " +
+           "ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceDTO> findHistoryPage(@Param("studentId") Long studentId,
+                                        @Param("classroomId") Long classroomId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("discipline") String discipline,
+                                        @Param("status") AttendanceStatus status,
+                                        @Param("beforeDate") LocalDate beforeDate,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    // Totais por status do histórico filtrado (sem o cursor)
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a " +
+           "WHERE a.student.id = :studentId " +
+           "AND (:startDate IS NULL OR a.date >= :startDate) " +
+           "AND (:endDate IS NULL OR a.date <= :endDate) " +
+           "AND (:classroomId IS NULL OR a.classroom.id = :classroomId) " +
+           "AND (:discipline IS NULL OR a.discipline = :discipline) " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "GROUP BY a.status")
+    List<Object[]> countHistoryByStatus(@Param("studentId") Long studentId,
+                                        @Param("classroomId") Long classroomId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("discipline") String discipline,
+                                        @Param("status") AttendanceStatus status);
+
+    // Alunos que já têm frequência na sala e data (distingue criação de atualização na chamada em lote)
+    @Query("SELECT a.student.id FROM Attendance a WHERE a.classroom.id = :classroomId AND a.date = :date")
+    List<Long> findStudentIdsByClassroomIdAndDate(@Param("classroomId") Long classroomId, @Param("date") LocalDate date);
+
+    // Versão dos dados de frequência da sala (quantidade, soma dos ids, última alteração) para o cache de relatórios
+    @Query("SELECT COUNT(a), COALESCE(SUM(a.id), 0), MAX(a.updatedAt) FROM Attendance a WHERE a.classroom.id = :classroomId")
+    List<Object[]> findVersionByClassroomId(@Param("classroomId") Long classroomId);
+
+    @Query("SELECT COUNT(a), COALESCE(SUM(a.id), 0), MAX(a.updatedAt) FROM Attendance a WHERE a.classroom.id = :classroomId AND a.date = :date")
+    List<Object[]> findVersionByClassroomIdAndDate(@Param("classroomId") Long classroomId, @Param("date") LocalDate date);
+
+    // Presenças e total por aluno, disciplina e mês da sala (os meses são agrupados em períodos pelo AcademicCalendar)
+    @Query("SELECT new com.eaduck.backend.model.attendance.dto.AttendanceMonthCount(a.student.id, a.discipline, EXTRACT(MONTH FROM a.date), " +
+           "SUM(CASE WHEN a.status = com.eaduck.backend.model.enums.AttendanceStatus.PRESENT THEN 1L ELSE 0L END), COUNT(a)) " +
+           "FROM Attendance a WHERE a.classroom.id = :classroomId AND a.discipline IS NOT NULL AND a.discipline <> '' " +
+           "GROUP BY a.student.id, a.discipline, EXTRACT(MONTH FROM a.date)")
+    List<AttendanceMonthCount> countByStudentDisciplineAndMonth(@Param("classroomId") Long classroomId);
+
+    @Query("SELECT new com.eaduck.backend.model.attendance.dto.AttendanceMonthCount(a.student.id, a.discipline, EXTRACT(MONTH FROM a.date), " +
+           "SUM(CASE WHEN a.status = com.eaduck.backend.model.enums.AttendanceStatus.PRESENT THEN 1L ELSE 0L END), COUNT(a)) " +
+           "FROM Attendance a WHERE a.classroom.id = :classroomId AND a.student.id = :studentId " +
+           "AND a.discipline IS NOT NULL AND a.discipline <> '' " +
+           "GROUP BY a.student.id, a.discipline, EXTRACT(MONTH FROM a.date)")
+    List<AttendanceMonthCount> countByDisciplineAndMonth(@Param("classroomId") Long classroomId,
+                                                         @Param("studentId") Long studentId);
+
+    // Presenças, faltas e atrasos do aluno por dia e disciplina (tendência do aluno; o histórico de um aluno é pequeno)
+    String STUDENT_DAY_COUNT_SELECT = "SELECT new com.eaduck.backend.model.attendance.dto.AttendanceDayCount(a.date, COALESCE(a.discipline, ''), " +
+            "SUM(CASE WHEN a.status = com.eaduck.backend.model.enums.AttendanceStatus.PRESENT THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.status = com.eaduck.backend.model.enums.AttendanceStatus.ABSENT THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.status = com.eaduck.backend.model.enums.AttendanceStatus.LATE THEN 1L ELSE 0L END)) ";
+
+    @Query(STUDENT_DAY_COUNT_SELECT +
+           "FROM Attendance a WHERE a.student.id = :studentId AND a.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY a.date, COALESCE(a.discipline, '') ORDER BY a.date")
+    List<AttendanceDayCount> countByStudentAndDay(@Param("studentId") Long studentId,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @Query(STUDENT_DAY_COUNT_SELECT +
+           "FROM Attendance a WHERE a.student.id = :studentId AND a.classroom.id = :classroomId " +
+           "AND a.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY a.date, COALESCE(a.discipline, '') ORDER BY a.date")
+    List<AttendanceDayCount> countByStudentAndClassroomAndDay(@Param("studentId") Long studentId,
+                                                              @Param("classroomId") Long classroomId,
+                                                              @Param("startDate") LocalDate startDate,
+                                                              @Param("endDate") LocalDate endDate);
+
+    // Células da matriz de frequência em memória (aluno, dia, status) da sala no intervalo
+    @Query("SELECT a.student.id, a.date, a.status FROM Attendance a " +
+           "WHERE a.classroom.id = :classroomId AND a.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findMatrixRows(@Param("classroomId") Long classroomId,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
+
+    // Exportação (CSV/XLSX): linhas do período em ordem, lidas com cursor; deve ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a.date, s.id, s.nomeCompleto, s.name, s.email, a.status, a.arrivalTime, a.discipline, a.period, a.observations " +
+           "FROM Attendance a JOIN a.student s " +
+           "WHERE a.classroom.id = :classroomId AND a.date BETWEEN :startDate AND :endDate ORDER BY a.date, s.id")
+    Stream<Object[]> streamExportRows(@Param("classroomId") Long classroomId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+}
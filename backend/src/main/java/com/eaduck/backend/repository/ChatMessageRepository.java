@@ -4,9 +4,11 @@ import com.eaduck.backend.model.ChatMessageEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -62,4 +64,20 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessageEntity,
      * Conta mensagens do chat geral
      */
     long countByClassroomIdIsNull();
+
+    /**
+     * Preenche a miniatura de todas as mensagens que apontam para o arquivo
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatMessageEntity cm SET cm.thumbnailUrl = :thumbnailUrl WHERE cm.fileUrl = :fileUrl AND cm.thumbnailUrl IS NULL")
+    int updateThumbnailUrl(@Param("fileUrl") String fileUrl, @Param("thumbnailUrl") String thumbnailUrl);
+
+    /**
+     * Troca a URL do arquivo (migração de armazenamento); a miniatura é preenchida de novo pelo DerivativeService
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatMessageEntity cm SET cm.fileUrl = :newUrl, cm.thumbnailUrl = NULL WHERE cm.fileUrl = :oldUrl")
+    int replaceFileUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
@@ -1,11 +1,13 @@
 package com.eaduck.backend.repository;
 
 import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.classroom.dto.ClassroomAttendanceInfoDTO;
 import com.eaduck.backend.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -19,4 +21,85 @@ public interface ClassroomRepository extends JpaRepository<Classroom, Long> {
     
     @Query("SELECT DISTINCT c FROM Classroom c LEFT JOIN FETCH c.students LEFT JOIN FETCH c.teachers WHERE :teacher MEMBER OF c.teachers")
     List<Classroom> findByTeacherWithRelations(@Param("teacher") User teacher);
-}
\ No newline at end of file
+
+    // Versão da lista de alunos (quantidade e soma dos ids) para o cache de relatórios
+    @Query("SELECT COUNT(s), COALESCE(SUM(s.id), 0) FROM Classroom c JOIN c.students s WHERE c.id = :classroomId")
+    List<Object[]> findStudentsVersionById(@Param("classroomId") Long classroomId);
+
+    // Nome e ano da sala e nomes dos alunos impressos nos relatórios (entram na versão do cache por hash)
+    @Query("SELECT c.name, c.academicYear, s.id, s.nomeCompleto, s.name, s.email FROM Classroom c " +
+           "LEFT JOIN c.students s WHERE c.id = :classroomId ORDER BY s.id")
+    List<Object[]> findReportNamesById(@Param("classroomId") Long classroomId);
+
+    // Quais dos ids informados são alunos da sala (uma consulta para toda a chamada)
+    @Query("SELECT s.id FROM Classroom c JOIN c.students s WHERE c.id = :classroomId AND s.id IN :studentIds")
+    List<Long> findStudentIdsIn(@Param("classroomId") Long classroomId, @Param("studentIds") Collection<Long> studentIds);
+
+    // Id e nome de exibição (nomeCompleto → name → email) dos alunos da sala
+    @Query("SELECT s.id, COALESCE(s.nomeCompleto, s.name, s.email) FROM Classroom c JOIN c.students s " +
+           "WHERE c.id = :classroomId ORDER BY COALESCE(s.nomeCompleto, s.name, s.email), s.id")
+    List<Object[]> findStudentNames(@Param("classroomId") Long classroomId);
+
+    // Ids dos professores da sala (destinatários dos alertas de faltas)
+    @Query("SELECT t.id FROM Classroom c JOIN c.teachers t WHERE c.id = :classroomId")
+    List<Long> findTeacherIds(@Param("classroomId") Long classroomId);
+
+    // Lista de salas da frequência: contagem de alunos e professor principal (menor id) em subconsultas,
+    // sem carregar as coleções; nome do professor com fallback nomeCompleto → name → email
+    String ATTENDANCE_INFO_SELECT = "SELECT new com.eaduck.backend.model.classroom.dto.ClassroomAttendanceInfoDTO(" +
+            "c.id, c.name, c.academicYear, " +
+            "(SELECT COUNT(s) FROM Classroom cs JOIN cs.students s WHERE cs.id = c.id), " +
+            "(SELECT COALESCE(NULLIF(t.nomeCompleto, ''), NULLIF(t.name, ''), t.email) FROM Classroom ct JOIN ct.teachers t " +
+            "WHERE ct.id = c.id AND t.id = (SELECT MIN(t2.id) FROM Classroom ct2 JOIN ct2.teachers t2 WHERE ct2.id = c.id))) ";
+
+    @Query(ATTENDANCE_INFO_SELECT + "FROM Classroom c WHERE c.isActive = true ORDER BY c.name, c.id")
+    List<ClassroomAttendanceInfoDTO> findActiveAttendanceInfo();
+
+    @Query(ATTENDANCE_INFO_SELECT + "FROM Classroom c JOIN c.teachers me " +
+           "WHERE me.id = :teacherId AND (c.isActive IS NULL OR c.isActive = true) ORDER BY c.name, c.id")
+    List<ClassroomAttendanceInfoDTO> findAttendanceInfoByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Mapas de consulta da importação de frequências
+    @Query("SELECT c.id, c.name FROM Classroom c")
+    List<Object[]> findAllIdsAndNames();
+
+    @Query("SELECT c.id, s.id FROM Classroom c JOIN c.students s")
+    List<Object[]> findAllStudentMemberships();
+
+    @Query("SELECT c.id FROM Classroom c JOIN c.teachers t WHERE t.id = :teacherId")
+    List<Long> findIdsByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Listagem de salas (ClassroomDTO) sem percorrer as coleções: linhas das salas e, em seguida,
+    // professores e alunos de todas elas em uma consulta cada; nome com fallback name → email
+    @Query("SELECT c.id, c.name, c.academicYear, c.isActive FROM Classroom c ORDER BY c.id")
+    List<Object[]> findListingRows();
+
+    @Query("SELECT c.id, c.name, c.academicYear, c.isActive FROM Classroom c WHERE c.id = :classroomId")
+    List<Object[]> findListingRowsById(@Param("classroomId") Long classroomId);
+
+    @Query("SELECT c.id, c.name, c.academicYear, c.isActive FROM Classroom c JOIN c.teachers t " +
+           "WHERE t.id = :teacherId ORDER BY c.id")
+    List<Object[]> findListingRowsByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT c.id, c.name, c.academicYear, c.isActive FROM Classroom c JOIN c.students s " +
+           "WHERE s.id = :studentId ORDER BY c.id")
+    List<Object[]> findListingRowsByStudentId(@Param("studentId") Long studentId);
+
+    @Query("SELECT c.id, t.id, COALESCE(t.name, t.email) FROM Classroom c JOIN c.teachers t " +
+           "WHERE c.id IN :classroomIds ORDER BY c.id, t.id")
+    List<Object[]> findTeacherRowsIn(@Param("classroomIds") Collection<Long> classroomIds);
+
+    @Query("SELECT c.id, s.id, COALESCE(s.name, s.email) FROM Classroom c JOIN c.students s " +
+           "WHERE c.id IN :classroomIds ORDER BY c.id, s.id")
+    List<Object[]> findStudentRowsIn(@Param("classroomIds") Collection<Long> classroomIds);
+
+    @Query("SELECT c.id, COUNT(s) FROM Classroom c JOIN c.students s WHERE c.id IN :classroomIds GROUP BY c.id")
+    List<Object[]> findStudentCountsIn(@Param("classroomIds") Collection<Long> classroomIds);
+
+    // Acesso à sala sem carregar as salas do usuário
+    @Query("SELECT COUNT(c) > 0 FROM Classroom c JOIN c.teachers t WHERE c.id = :classroomId AND t.id = :userId")
+    boolean isTeacherOf(@Param("classroomId") Long classroomId, @Param("userId") Long userId);
+
+    @Query("SELECT COUNT(c) > 0 FROM Classroom c JOIN c.students s WHERE c.id = :classroomId AND s.id = :userId")
+    boolean isStudentOf(@Param("classroomId") Long classroomId, @Param("userId") Long userId);
+}
@@ -0,0 +1,85 @@
+package com.eaduck.backend.repository;
+
+import com.eaduck.backend.model.storage.StoredFile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+    /**
+     * Busca um arquivo pelo hash do conteúdo
+     */
+    Optional<StoredFile> findBySha256(String sha256);
+
+    /**
+     * Incrementa o contador de referências (atômico no banco) e registra o uso, para que a remoção
+     * condicional da coleta de órfãos não apague um arquivo que acabou de ganhar uma referência
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile sf SET sf.refCount = sf.refCount + 1, sf.lastUsedAt = :now WHERE sf.sha256 = :sha256")
+    int incrementRefCount(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    /**
+     * Decrementa o contador de referências sem deixá-lo negativo
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile sf SET sf.refCount = sf.refCount - 1 WHERE sf.sha256 = :sha256 AND sf.refCount > 0")
+    int decrementRefCount(@Param("sha256") String sha256);
+
+    /**
+     * Soma referências de uma vez (ex.: arquivos migrados já referenciados por várias linhas)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile sf SET sf.refCount = sf.refCount + :delta WHERE sf.sha256 = :sha256")
+    int addRefCount(@Param("sha256") String sha256, @Param("delta") int delta);
+
+    /**
+     * Atualiza o caminho do arquivo no armazenamento após realocação
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile sf SET sf.storagePath = :storagePath WHERE sf.sha256 = :sha256")
+    int updateStoragePath(@Param("sha256") String sha256, @Param("storagePath") String storagePath);
+
+    /**
+     * Registra o uso do arquivo (upload ou deduplicação)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile sf SET sf.lastUsedAt = :now WHERE sf.sha256 = :sha256")
+    int touch(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    /**
+     * Próximo lote da varredura da coleta de órfãos (paginação por id)
+     */
+    @Query("SELECT sf FROM StoredFile sf WHERE sf.id > :afterId ORDER BY sf.id")
+    List<StoredFile> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Hashes do lote que estão registrados
+     */
+    @Query("SELECT sf.sha256 FROM StoredFile sf WHERE sf.sha256 IN :hashes")
+    List<String> findExistingHashes(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * Remove o registro somente se ele não foi usado desde o limite informado
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredFile sf WHERE sf.id = :id AND sf.lastUsedAt < :unusedSince")
+    int deleteIfUnusedSince(@Param("id") Long id, @Param("unusedSince") LocalDateTime unusedSince);
+}
@@ -2,10 +2,58 @@ package com.eaduck.backend.repository;
 
 import com.eaduck.backend.model.submission.Submission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     List<Submission> findByTaskId(Long taskId);
     Submission findByTaskIdAndStudentId(Long taskId, Long studentId);
     List<Submission> findByStudentId(Long studentId);
-} 
\ No newline at end of file
+
+    // Exportação da matriz de notas: alunos da turma em ordem, com as notas de cada um (ou uma linha sem nota),
+    // lidas com cursor; deve ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT st.id, st.nomeCompleto, st.name, st.email, s.task.id, s.grade " +
+           "FROM Classroom c JOIN c.students st " +
+           "LEFT JOIN Submission s ON s.student = st AND s.grade IS NOT NULL " +
+           "AND s.task.id IN (SELECT t.id FROM Task t WHERE t.classroom.id = :classroomId) " +
+           "WHERE c.id = :classroomId ORDER BY st.id")
+    Stream<Object[]> streamGradeExportRows(@Param("classroomId") Long classroomId);
+
+    // Média, quantidade e as três notas mais recentes por aluno e título de tarefa (grupo dos relatórios).
+    // SQL nativo por causa da função de janela; colunas na ordem de GradeSummary
+    String GRADE_SUMMARY_SQL =
+            "SELECT g.student_id, g.title, AVG(g.grade), COUNT(*), " +
+            "MAX(CASE WHEN g.rn = 1 THEN g.grade END), MAX(CASE WHEN g.rn = 2 THEN g.grade END), " +
+            "MAX(CASE WHEN g.rn = 3 THEN g.grade END) " +
+            "FROM (SELECT s.student_id, t.title, s.grade, ROW_NUMBER() OVER (" +
+            "PARTITION BY s.student_id, t.title ORDER BY s.evaluated_at DESC NULLS LAST, s.id DESC) AS rn " +
+            "FROM submissions s JOIN tasks t ON t.id = s.task_id " +
+            "WHERE t.classroom_id = :classroomId AND s.grade IS NOT NULL";
+
+    @Query(value = GRADE_SUMMARY_SQL + ") g GROUP BY g.student_id, g.title", nativeQuery = true)
+    List<Object[]> summarizeGradesByClassroomId(@Param("classroomId") Long classroomId);
+
+    @Query(value = GRADE_SUMMARY_SQL + " AND s.student_id = :studentId) g GROUP BY g.student_id, g.title", nativeQuery = true)
+    List<Object[]> summarizeGradesByClassroomIdAndStudentId(@Param("classroomId") Long classroomId,
+                                                             @Param("studentId") Long studentId);
+
+    // Versão das notas da turma (quantidade, soma dos ids, última avaliação) para o cache de relatórios
+    @Query("SELECT COUNT(s), COALESCE(SUM(s.id), 0), MAX(s.evaluatedAt) " +
+           "FROM Submission s WHERE s.task.classroom.id = :classroomId AND s.grade IS NOT NULL")
+    List<Object[]> findGradeVersionByClassroomId(@Param("classroomId") Long classroomId);
+
+    // Troca a URL do arquivo (migração de armazenamento)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Submission s SET s.fileUrl = :newUrl WHERE s.fileUrl = :oldUrl")
+    int replaceFileUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
+}
@@ -2,10 +2,26 @@ package com.eaduck.backend.repository;
 
 import com.eaduck.backend.model.task.TaskAttachment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment, Long> {
     List<TaskAttachment> findByTaskId(Long taskId);
     void deleteByTaskId(Long taskId);
-}
\ No newline at end of file
+
+    // Preenche a prévia de todos os anexos que apontam para o arquivo
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaskAttachment ta SET ta.previewUrl = :previewUrl WHERE ta.fileUrl = :fileUrl AND ta.previewUrl IS NULL")
+    int updatePreviewUrl(@Param("fileUrl") String fileUrl, @Param("previewUrl") String previewUrl);
+
+    // Troca a URL do arquivo (migração de armazenamento); a prévia é preenchida de novo pelo DerivativeService
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaskAttachment ta SET ta.fileUrl = :newUrl, ta.previewUrl = NULL WHERE ta.fileUrl = :oldUrl")
+    int replaceFileUrl(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
+}
@@ -3,10 +3,20 @@ package com.eaduck.backend.repository;
 import com.eaduck.backend.model.task.Task;
 import com.eaduck.backend.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByClassroomId(Long classroomId);
     List<Task> findByCreatedBy(User createdBy);
+
+    // Versão das tarefas da turma (quantidade e soma dos ids) para o cache de relatórios
+    @Query("SELECT COUNT(t), COALESCE(SUM(t.id), 0) FROM Task t WHERE t.classroom.id = :classroomId")
+    List<Object[]> findVersionByClassroomId(@Param("classroomId") Long classroomId);
+
+    // Títulos e disciplinas impressos nos relatórios (entram na versão do cache por hash)
+    @Query("SELECT t.id, t.title, t.discipline FROM Task t WHERE t.classroom.id = :classroomId ORDER BY t.id")
+    List<Object[]> findReportNamesByClassroomId(@Param("classroomId") Long classroomId);
 }
\ No newline at end of file
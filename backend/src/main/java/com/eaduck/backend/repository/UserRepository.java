@@ -2,12 +2,17 @@ package com.eaduck.backend.repository;
 
 import com.eaduck.backend.model.enums.Role;
 import com.eaduck.backend.model.user.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -18,4 +23,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findById(@NonNull Long id);
 
     List<User> findByRole(Role role);
-}
\ No newline at end of file
+
+    // Id e e-mail dos alunos (mapa de consulta da importação de frequências)
+    @Query("SELECT u.id, u.email FROM User u WHERE u.role = com.eaduck.backend.model.enums.Role.STUDENT")
+    List<Object[]> findStudentIdsAndEmails();
+
+    // Exportação do cadastro (CSV/XLSX), lida com cursor; deve ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.id, u.email, u.nomeCompleto, u.name, u.role, u.isActive, u.cpf, u.dataNascimento, " +
+           "u.telefone, u.endereco, u.nomeMae, u.nomePai, u.titulacao FROM User u ORDER BY u.role, u.id")
+    Stream<Object[]> streamExportRows();
+}
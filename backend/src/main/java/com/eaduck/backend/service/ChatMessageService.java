@@ -7,6 +7,8 @@ import com.eaduck.backend.model.MessageView;
 import com.eaduck.backend.repository.ChatMessageRepository;
 import com.eaduck.backend.repository.MessageReactionRepository;
 import com.eaduck.backend.repository.MessageViewRepository;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import com.eaduck.backend.service.storage.DerivativeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -27,6 +29,8 @@ public class ChatMessageService {
     private final ChatMessageRepository chatMessageRepository;
     private final MessageReactionRepository messageReactionRepository;
     private final MessageViewRepository messageViewRepository;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+    private final DerivativeService derivativeService;
     
     /**
      * Salva uma mensagem de chat
@@ -50,7 +54,8 @@ public class ChatMessageService {
             builder.fileUrl(chatMessage.getFileUrl())
                    .fileType(chatMessage.getFileType())
                    .fileName(chatMessage.getFileName())
-                   .fileSize(chatMessage.getFileSize());
+                   .fileSize(chatMessage.getFileSize())
+                   .thumbnailUrl(derivativeService.readyThumbnailUrl(chatMessage.getFileUrl()).orElse(null));
         }
         
         // Adicionar mensagem respondida se existir
@@ -60,6 +65,11 @@ public class ChatMessageService {
         }
         
         ChatMessageEntity saved = chatMessageRepository.save(builder.build());
+        contentAddressedStorageService.retain(saved.getFileUrl());
+        if (saved.getFileUrl() != null && saved.getThumbnailUrl() == null) {
+            // A miniatura é preenchida quando a geração em segundo plano terminar
+            derivativeService.requestDerivatives(saved.getFileUrl());
+        }
         log.info("Mensagem salva com ID: {}", saved.getId());
         
         return saved;
@@ -305,6 +315,7 @@ public class ChatMessageService {
             chatMessage.setFileType(entity.getFileType());
             chatMessage.setFileName(entity.getFileName());
             chatMessage.setFileSize(entity.getFileSize());
+            chatMessage.setThumbnailUrl(entity.getThumbnailUrl());
         }
         
         // Mensagem respondida (sem recursão - apenas dados básicos)
@@ -0,0 +1,121 @@
+package com.eaduck.backend.service;
+
+import com.eaduck.backend.model.classroom.dto.ClassroomDTO;
+import com.eaduck.backend.model.classroom.dto.ClassroomSimpleDTO;
+import com.eaduck.backend.repository.ClassroomRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Listagens de salas (ClassroomDTO e ClassroomSimpleDTO) montadas por consultas de projeção.
+ *
+ * Em vez de carregar as entidades e percorrer teachers/students de cada sala (uma carga lazy por
+ * coleção), cada listagem faz três consultas independentes da quantidade de salas: as linhas das
+ * salas, os professores e os alunos de todas elas (id e nome), agrupados aqui por sala.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ClassroomListingService {
+
+    private final ClassroomRepository classroomRepository;
+
+    public ClassroomListingService(ClassroomRepository classroomRepository) {
+        this.classroomRepository = classroomRepository;
+    }
+
+    // Ids e nomes dos membros de uma sala, na ordem dos ids
+    private record Members(List<Long> ids, List<String> names) {
+        Members() {
+            this(new ArrayList<>(), new ArrayList<>());
+        }
+    }
+
+    public List<ClassroomDTO> findAll() {
+        return toDTOs(classroomRepository.findListingRows());
+    }
+
+    public List<ClassroomDTO> findByTeacherId(Long teacherId) {
+        return toDTOs(classroomRepository.findListingRowsByTeacherId(teacherId));
+    }
+
+    public List<ClassroomDTO> findByStudentId(Long studentId) {
+        return toDTOs(classroomRepository.findListingRowsByStudentId(studentId));
+    }
+
+    public Optional<ClassroomDTO> findById(Long classroomId) {
+        return toDTOs(classroomRepository.findListingRowsById(classroomId)).stream().findFirst();
+    }
+
+    /**
+     * Salas do aluno no formato resumido (contagem de alunos e nomes dos professores).
+     */
+    public List<ClassroomSimpleDTO> findSimpleByStudentId(Long studentId) {
+        List<Object[]> rows = classroomRepository.findListingRowsByStudentId(studentId);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = classroomIds(rows);
+        Map<Long, Members> teachers = group(classroomRepository.findTeacherRowsIn(ids));
+        Map<Long, Long> studentCounts = new HashMap<>();
+        for (Object[] row : classroomRepository.findStudentCountsIn(ids)) {
+            studentCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return rows.stream().map(row -> {
+            Long id = (Long) row[0];
+            return ClassroomSimpleDTO.builder()
+                    .id(id)
+                    .name((String) row[1])
+                    .academicYear((String) row[2])
+                    .studentCount(studentCounts.getOrDefault(id, 0L).intValue())
+                    .teacherNames(teachers.getOrDefault(id, new Members()).names())
+                    .build();
+        }).toList();
+    }
+
+    private List<ClassroomDTO> toDTOs(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = classroomIds(rows);
+        Map<Long, Members> teachers = group(classroomRepository.findTeacherRowsIn(ids));
+        Map<Long, Members> students = group(classroomRepository.findStudentRowsIn(ids));
+        return rows.stream().map(row -> {
+            Long id = (Long) row[0];
+            Members classroomTeachers = teachers.getOrDefault(id, new Members());
+            Members classroomStudents = students.getOrDefault(id, new Members());
+            return ClassroomDTO.builder()
+                    .id(id)
+                    .name((String) row[1])
+                    .academicYear((String) row[2])
+                    .teacherIds(classroomTeachers.ids())
+                    .teacherNames(classroomTeachers.names())
+                    .studentIds(classroomStudents.ids())
+                    .studentNames(classroomStudents.names())
+                    .studentCount(classroomStudents.ids().size())
+                    .active(!classroomStudents.ids().isEmpty())
+                    .isActive(row[3] == null || (Boolean) row[3])
+                    .build();
+        }).toList();
+    }
+
+    private static List<Long> classroomIds(List<Object[]> rows) {
+        return rows.stream().map(row -> (Long) row[0]).distinct().toList();
+    }
+
+    // Linhas (sala, membro, nome) agrupadas por sala
+    private static Map<Long, Members> group(List<Object[]> rows) {
+        Map<Long, Members> members = new HashMap<>();
+        for (Object[] row : rows) {
+            Members classroomMembers = members.computeIfAbsent((Long) row[0], id -> new Members());
+            classroomMembers.ids().add((Long) row[1]);
+            classroomMembers.names().add((String) row[2]);
+        }
+        return members;
+    }
+}
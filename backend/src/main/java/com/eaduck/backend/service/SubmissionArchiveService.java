@@ -0,0 +1,160 @@
+package com.eaduck.backend.service;
+
+import com.eaduck.backend.model.submission.Submission;
+import com.eaduck.backend.service.export.CsvCells;
+import com.eaduck.backend.service.storage.BlobStorage;
+import com.eaduck.backend.service.storage.ContentAddressedStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Monta o ZIP com todas as submissões de uma tarefa direto no stream da resposta:
+ * cada arquivo é copiado do armazenamento para a entrada do ZIP com um buffer fixo,
+ * sem arquivos temporários, e ao final é gravado o manifest.csv com as notas.
+ */
+@Service
+public class SubmissionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionArchiveService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final BlobStorage blobStorage;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+
+    public SubmissionArchiveService(BlobStorage blobStorage, ContentAddressedStorageService contentAddressedStorageService) {
+        this.blobStorage = blobStorage;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+    }
+
+    /**
+     * Dados de uma submissão já copiados da entidade, para que o stream não dependa da sessão JPA.
+     */
+    public record Entry(Long studentId, String studentName, String studentEmail, String fileUrl,
+                        String content, LocalDateTime submittedAt, Double grade, String feedback,
+                        LocalDateTime evaluatedAt) {
+
+        public static Entry of(Submission submission) {
+            return new Entry(
+                submission.getStudent().getId(),
+                submission.getStudent().getName(),
+                submission.getStudent().getEmail(),
+                submission.getFileUrl(),
+                submission.getContent(),
+                submission.getSubmittedAt(),
+                submission.getGrade(),
+                submission.getFeedback(),
+                submission.getEvaluatedAt()
+            );
+        }
+    }
+
+    /**
+     * Nome do arquivo ZIP para a tarefa.
+     */
+    public static String archiveName(Long taskId, String taskTitle) {
+        String title = safeName(taskTitle);
+        return "submissoes-" + taskId + (title.isEmpty() ? "" : "-" + title) + ".zip";
+    }
+
+    /**
+     * Escreve o ZIP no stream informado. Arquivos ausentes no armazenamento não interrompem
+     * o download: ficam marcados no manifesto.
+     */
+    public void writeArchive(List<Entry> entries, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // A maioria dos envios (PDF, DOCX, JPG, ZIP) já é comprimida; priorizar velocidade
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        List<String> archived = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            archived.add(copyFile(zip, entry, buffer));
+        }
+
+        zip.putNextEntry(new ZipEntry("manifest.csv"));
+        Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        // BOM para o Excel reconhecer UTF-8
+        writer.write('\uFEFF');
+        writer.write("aluno;email;enviado_em;arquivo;nota;feedback;avaliado_em;comentario\r\n");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            writer.write(String.join(";",
+                CsvCells.text(entry.studentName()),
+                CsvCells.text(entry.studentEmail()),
+                CsvCells.quote(entry.submittedAt() != null ? entry.submittedAt().format(DATE_TIME) : ""),
+                CsvCells.text(archived.get(i)),
+                CsvCells.quote(entry.grade() != null ? String.format(Locale.forLanguageTag("pt-BR"), "%.2f", entry.grade()) : ""),
+                CsvCells.text(entry.feedback()),
+                CsvCells.quote(entry.evaluatedAt() != null ? entry.evaluatedAt().format(DATE_TIME) : ""),
+                CsvCells.text(entry.content())));
+            writer.write("\r\n");
+        }
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    /**
+     * Copia o arquivo da submissão para o ZIP. Retorna o nome da entrada (ou a situação) para o manifesto.
+     */
+    private String copyFile(ZipOutputStream zip, Entry entry, byte[] buffer) throws IOException {
+        if (entry.fileUrl() == null || entry.fileUrl().isBlank()) {
+            return "";
+        }
+        String key = keyOf(entry.fileUrl());
+        if (key == null) {
+            logger.warn("Arquivo da submissão fora do índice: {}", entry.fileUrl());
+            return "arquivo não encontrado";
+        }
+        String name = safeName(entry.studentName()) + "_" + entry.studentId()
+                + ContentAddressedStorageService.extensionOf(key);
+        try (InputStream in = blobStorage.open(key)) {
+            zip.putNextEntry(new ZipEntry(name));
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+            zip.closeEntry();
+            return name;
+        } catch (FileNotFoundException e) {
+            logger.warn("Arquivo da submissão não encontrado: {}", entry.fileUrl());
+            return "arquivo não encontrado";
+        }
+    }
+
+    // Chave pelo índice stored_files, como no FileController (arquivos realocados pela migração mantêm a URL)
+    private String keyOf(String fileUrl) {
+        if (fileUrl == null || fileUrl.contains("..")) {
+            return null;
+        }
+        return contentAddressedStorageService.resolveKey(fileUrl).orElse(null);
+    }
+
+    private static String safeName(String value) {
+        if (value == null) {
+            return "";
+        }
+        String ascii = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return ascii.trim().replaceAll("[^A-Za-z0-9._-]+", "_").replaceAll("^_+|_+$", "");
+    }
+}
@@ -0,0 +1,208 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.attendance.dto.AttendanceDayCount;
+import com.eaduck.backend.model.attendance.dto.AttendanceStudentStatsDTO;
+import com.eaduck.backend.model.attendance.dto.AttendanceTrendDTO;
+import com.eaduck.backend.repository.AttendanceDailyRollupRepository;
+import com.eaduck.backend.repository.AttendanceRepository;
+import com.eaduck.backend.repository.ClassroomRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Tendência da taxa de presença por sala, disciplina e aluno em qualquer intervalo.
+ *
+ * Sala e disciplina leem a attendance_daily_rollup (no máximo uma linha por dia e disciplina da sala),
+ * então o custo depende do intervalo pedido e não do número de alunos ou do histórico. O aluno é
+ * agregado com GROUP BY direto em attendances, limitado às linhas do próprio aluno.
+ *
+ * As estatísticas por aluno no ano (faltas, maior sequência de faltas, % de presença) vêm da
+ * {@link AttendanceMatrix} em cache, sem consultar as frequências.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AttendanceAnalyticsService {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        public static Granularity fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return DAY;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        LocalDate periodStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(DayOfWeek.MONDAY);
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    private final AttendanceDailyRollupRepository rollupRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final ClassroomRepository classroomRepository;
+    private final AttendanceMatrixCache matrixCache;
+
+    public AttendanceAnalyticsService(AttendanceDailyRollupRepository rollupRepository,
+                                      AttendanceRepository attendanceRepository,
+                                      ClassroomRepository classroomRepository,
+                                      AttendanceMatrixCache matrixCache) {
+        this.rollupRepository = rollupRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.classroomRepository = classroomRepository;
+        this.matrixCache = matrixCache;
+    }
+
+    /**
+     * Tendência da sala (todas as disciplinas, ou só a informada).
+     */
+    public AttendanceTrendDTO classroomTrend(Long classroomId, LocalDate startDate, LocalDate endDate,
+                                             Granularity granularity, String discipline) {
+        List<AttendanceDayCount> counts = rollupRepository.findDayCounts(classroomId, startDate, endDate);
+        AttendanceTrendDTO trend = build(counts, disciplineFilter(discipline), startDate, endDate, granularity);
+        trend.setClassroomId(classroomId);
+        trend.setDiscipline(discipline);
+        return trend;
+    }
+
+    /**
+     * Uma tendência por disciplina da sala, a partir da mesma leitura dos totais diários.
+     */
+    public List<AttendanceTrendDTO> disciplineTrends(Long classroomId, LocalDate startDate, LocalDate endDate,
+                                                     Granularity granularity) {
+        List<AttendanceDayCount> counts = rollupRepository.findDayCounts(classroomId, startDate, endDate);
+        Map<String, List<AttendanceDayCount>> byDiscipline = new TreeMap<>();
+        for (AttendanceDayCount count : counts) {
+            byDiscipline.computeIfAbsent(count.discipline(), k -> new ArrayList<>()).add(count);
+        }
+        List<AttendanceTrendDTO> trends = new ArrayList<>(byDiscipline.size());
+        for (Map.Entry<String, List<AttendanceDayCount>> entry : byDiscipline.entrySet()) {
+            AttendanceTrendDTO trend = build(entry.getValue(), c -> true, startDate, endDate, granularity);
+            trend.setClassroomId(classroomId);
+            trend.setDiscipline(entry.getKey().isEmpty() ? null : entry.getKey());
+            trends.add(trend);
+        }
+        return trends;
+    }
+
+    /**
+     * Tendência do aluno (em uma sala, ou em todas se classroomId for null).
+     */
+    public AttendanceTrendDTO studentTrend(Long studentId, Long classroomId, LocalDate startDate, LocalDate endDate,
+                                           Granularity granularity, String discipline) {
+        List<AttendanceDayCount> counts = classroomId != null
+                ? attendanceRepository.countByStudentAndClassroomAndDay(studentId, classroomId, startDate, endDate)
+                : attendanceRepository.countByStudentAndDay(studentId, startDate, endDate);
+        AttendanceTrendDTO trend = build(counts, disciplineFilter(discipline), startDate, endDate, granularity);
+        trend.setStudentId(studentId);
+        trend.setClassroomId(classroomId);
+        trend.setDiscipline(discipline);
+        return trend;
+    }
+
+    /**
+     * Presenças, faltas, atrasos, taxa de presença e maior sequência de faltas de cada aluno da sala
+     * no ano (ou no intervalo dentro do ano), calculados na matriz em memória.
+     */
+    public List<AttendanceStudentStatsDTO> classroomStudentStats(Long classroomId, int year,
+                                                                 LocalDate startDate, LocalDate endDate) {
+        Map<Long, AttendanceMatrix.Stats> stats = matrixCache.get(classroomId, year).statsByStudent(startDate, endDate);
+        List<Object[]> students = classroomRepository.findStudentNames(classroomId);
+        List<AttendanceStudentStatsDTO> result = new ArrayList<>(students.size());
+        for (Object[] student : students) {
+            Long studentId = (Long) student[0];
+            result.add(toStatsDTO(studentId, (String) student[1], stats.get(studentId)));
+        }
+        return result;
+    }
+
+    public AttendanceStudentStatsDTO studentStats(Long classroomId, Long studentId, int year,
+                                                  LocalDate startDate, LocalDate endDate) {
+        AttendanceMatrix.Stats stats = matrixCache.get(classroomId, year).stats(studentId, startDate, endDate);
+        return toStatsDTO(studentId, null, stats);
+    }
+
+    private static AttendanceStudentStatsDTO toStatsDTO(Long studentId, String name, AttendanceMatrix.Stats stats) {
+        AttendanceMatrix.Stats s = stats != null ? stats : new AttendanceMatrix.Stats(0, 0, 0, 0);
+        return AttendanceStudentStatsDTO.builder()
+                .studentId(studentId)
+                .studentName(name)
+                .present(s.present())
+                .absent(s.absent())
+                .late(s.late())
+                .recorded(s.recorded())
+                .presenceRate(s.presenceRate())
+                .longestAbsenceStreak(s.longestAbsenceStreak())
+                .build();
+    }
+
+    private static Predicate<AttendanceDayCount> disciplineFilter(String discipline) {
+        if (discipline == null || discipline.isBlank()) {
+            return c -> true;
+        }
+        return c -> discipline.equalsIgnoreCase(c.discipline());
+    }
+
+    // Os dias chegam ordenados; cada um é somado no início do seu período (dia, segunda-feira ou dia 1)
+    private static AttendanceTrendDTO build(List<AttendanceDayCount> counts, Predicate<AttendanceDayCount> filter,
+                                            LocalDate startDate, LocalDate endDate, Granularity granularity) {
+        Map<LocalDate, long[]> buckets = new TreeMap<>();
+        long[] total = new long[3];
+        for (AttendanceDayCount count : counts) {
+            if (!filter.test(count)) {
+                continue;
+            }
+            long[] bucket = buckets.computeIfAbsent(granularity.periodStart(count.date()), k -> new long[3]);
+            add(bucket, count);
+            add(total, count);
+        }
+        List<AttendanceTrendDTO.PointDTO> points = new ArrayList<>(buckets.size());
+        for (Map.Entry<LocalDate, long[]> entry : buckets.entrySet()) {
+            long[] bucket = entry.getValue();
+            points.add(AttendanceTrendDTO.PointDTO.builder()
+                    .periodStart(entry.getKey())
+                    .present(bucket[0])
+                    .absent(bucket[1])
+                    .late(bucket[2])
+                    .presenceRate(rate(bucket))
+                    .build());
+        }
+        return AttendanceTrendDTO.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .granularity(granularity.name())
+                .present(total[0])
+                .absent(total[1])
+                .late(total[2])
+                .presenceRate(rate(total))
+                .points(points)
+                .build();
+    }
+
+    private static void add(long[] bucket, AttendanceDayCount count) {
+        bucket[0] += count.present() != null ? count.present() : 0;
+        bucket[1] += count.absent() != null ? count.absent() : 0;
+        bucket[2] += count.late() != null ? count.late() : 0;
+    }
+
+    private static Double rate(long[] bucket) {
+        long total = bucket[0] + bucket[1] + bucket[2];
+        return total > 0 ? (double) bucket[0] / total : null;
+    }
+}
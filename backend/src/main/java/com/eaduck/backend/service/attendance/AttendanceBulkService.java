@@ -0,0 +1,291 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.attendance.dto.AttendanceBulkDTO;
+import com.eaduck.backend.model.attendance.dto.AttendanceBulkResultDTO;
+import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.model.enums.Period;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.AttendanceRepository;
+import com.eaduck.backend.repository.ClassroomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chamada em lote (POST /api/attendances/bulk) com número fixo de consultas, independente do
+ * tamanho da turma: uma para a matrícula dos alunos enviados, uma para as frequências já
+ * existentes na data e um único batch JDBC de upsert na restrição única
+ * (classroom_id, student_id, date), tudo na mesma transação (junto com os totais diários
+ * da attendance_daily_rollup).
+ *
+ * Regras mantidas da versão anterior: o professor só é gravado na criação, um período inválido
+ * não altera o período já salvo, e o horário de chegada é limpo quando o aluno deixa de estar
+ * atrasado (ou mantido se não informado para um aluno atrasado).
+ */
+@Service
+public class AttendanceBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceBulkService.class);
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_IN_CLASSROOM = "NOT_IN_CLASSROOM";
+    public static final String INVALID_STATUS = "INVALID_STATUS";
+    public static final String DUPLICATE = "DUPLICATE";
+
+    // PostgreSQL: upsert na restrição unique_attendance
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO attendances (classroom_id, student_id, date, status, arrival_time, observations, " +
+            "discipline, period, teacher_id, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (classroom_id, student_id, date) DO UPDATE SET " +
+            "status = EXCLUDED.status, " +
+            "arrival_time = CASE WHEN ? THEN attendances.arrival_time ELSE EXCLUDED.arrival_time END, " +
+            "observations = EXCLUDED.observations, " +
+            "discipline = EXCLUDED.discipline, " +
+            "period = COALESCE(EXCLUDED.period, attendances.period), " +
+            "updated_at = EXCLUDED.updated_at";
+
+    // Outros bancos (H2 no perfil dev): MERGE padrão SQL com as mesmas regras e a mesma ordem de parâmetros
+    private static final String UPSERT_MERGE =
+            "MERGE INTO attendances a USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DATE), " +
+            "CAST(? AS VARCHAR(20)), CAST(? AS TIME), CAST(? AS VARCHAR), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS BOOLEAN))) " +
+            "AS s(classroom_id, student_id, date, status, arrival_time, observations, discipline, period, " +
+            "teacher_id, updated_at, keep_arrival) " +
+            "ON a.classroom_id = s.classroom_id AND a.student_id = s.student_id AND a.date = s.date " +
+            "WHEN MATCHED THEN UPDATE SET status = s.status, " +
+            "arrival_time = CASE WHEN s.keep_arrival THEN a.arrival_time ELSE s.arrival_time END, " +
+            "observations = s.observations, discipline = s.discipline, " +
+            "period = COALESCE(s.period, a.period), updated_at = s.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (classroom_id, student_id, date, status, arrival_time, observations, " +
+            "discipline, period, teacher_id, updated_at) VALUES (s.classroom_id, s.student_id, s.date, s.status, " +
+            "s.arrival_time, s.observations, s.discipline, s.period, s.teacher_id, s.updated_at)";
+
+    /**
+     * Linha validada, pronta para o upsert (chamada em lote ou importação).
+     * keepArrivalTime mantém o horário já salvo; period null mantém o período já salvo.
+     */
+    public record AttendanceRow(Long classroomId, Long studentId, LocalDate date, AttendanceStatus status,
+                                LocalTime arrivalTime, boolean keepArrivalTime, String observations,
+                                String discipline, Period period, Long teacherId) {}
+
+    private final AttendanceRepository attendanceRepository;
+    private final ClassroomRepository classroomRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceMatrixCache attendanceMatrixCache;
+
+    private volatile String upsertSql;
+
+    public AttendanceBulkService(AttendanceRepository attendanceRepository,
+                                 ClassroomRepository classroomRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 AttendanceRollupService attendanceRollupService,
+                                 AttendanceMatrixCache attendanceMatrixCache) {
+        this.attendanceRepository = attendanceRepository;
+        this.classroomRepository = classroomRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceMatrixCache = attendanceMatrixCache;
+    }
+
+    @Transactional
+    public AttendanceBulkResultDTO save(Classroom classroom, AttendanceBulkDTO bulkDTO, User teacher) {
+        Map<Long, AttendanceBulkResultDTO.StudentResultDTO> results = new LinkedHashMap<>();
+        Map<Long, AttendanceRow> rows = new LinkedHashMap<>();
+
+        // Validação do payload (sem banco); o último registro de um aluno repetido prevalece
+        List<AttendanceBulkDTO.StudentAttendanceDTO> students =
+                bulkDTO.getStudents() != null ? bulkDTO.getStudents() : List.of();
+        List<AttendanceBulkResultDTO.StudentResultDTO> rejected = new ArrayList<>();
+        Period period = parsePeriod(bulkDTO.getPeriod());
+        Long teacherId = teacher != null ? teacher.getId() : null;
+        for (AttendanceBulkDTO.StudentAttendanceDTO studentDTO : students) {
+            Long studentId = studentDTO.getStudentId();
+            if (studentId == null) {
+                rejected.add(result(null, NOT_IN_CLASSROOM, "Aluno não informado"));
+                continue;
+            }
+            AttendanceStatus status = parseStatus(studentDTO.getStatus());
+            if (status == null) {
+                logger.warn("Status inválido para aluno {}: {}", studentId, studentDTO.getStatus());
+                results.put(studentId, result(studentId, INVALID_STATUS, "Status inválido: " + studentDTO.getStatus()));
+                rows.remove(studentId);
+                continue;
+            }
+            if (rows.containsKey(studentId)) {
+                rejected.add(result(studentId, DUPLICATE, "Aluno repetido na chamada; valeu o último registro"));
+            }
+            rows.put(studentId, toRow(classroom.getId(), bulkDTO, studentId, status, studentDTO, period, teacherId));
+            results.remove(studentId);
+        }
+
+        // Uma consulta para a matrícula de todos os alunos enviados
+        Set<Long> enrolled = rows.isEmpty() ? Set.of()
+                : new HashSet<>(classroomRepository.findStudentIdsIn(classroom.getId(), rows.keySet()));
+        rows.keySet().removeIf(studentId -> {
+            if (enrolled.contains(studentId)) {
+                return false;
+            }
+            logger.warn("Aluno {} não pertence à sala {}", studentId, classroom.getId());
+            results.put(studentId, result(studentId, NOT_IN_CLASSROOM, "Aluno não pertence à sala"));
+            return true;
+        });
+
+        // Uma consulta para saber quais alunos já têm frequência na data
+        Set<Long> existing = rows.isEmpty() ? Set.of()
+                : new HashSet<>(attendanceRepository.findStudentIdsByClassroomIdAndDate(classroom.getId(), bulkDTO.getDate()));
+
+        upsert(new ArrayList<>(rows.values()));
+        if (!rows.isEmpty()) {
+            // Totais diários dos indicadores, na mesma transação
+            attendanceRollupService.refreshDay(classroom.getId(), bulkDTO.getDate());
+            // Matriz em memória das estatísticas, atualizada após o commit
+            Map<Long, AttendanceStatus> statusByStudent = new HashMap<>();
+            rows.forEach((studentId, row) -> statusByStudent.put(studentId, row.status()));
+            attendanceMatrixCache.onSaved(classroom.getId(), bulkDTO.getDate(), statusByStudent);
+        }
+
+        int created = 0;
+        int updated = 0;
+        for (Long studentId : rows.keySet()) {
+            boolean exists = existing.contains(studentId);
+            results.put(studentId, result(studentId, exists ? UPDATED : CREATED, null));
+            if (exists) {
+                updated++;
+            } else {
+                created++;
+            }
+        }
+
+        List<AttendanceBulkResultDTO.StudentResultDTO> all = new ArrayList<>(results.values());
+        all.addAll(rejected);
+        int rejectedCount = (int) all.stream()
+                .filter(r -> !CREATED.equals(r.getOutcome()) && !UPDATED.equals(r.getOutcome()))
+                .count();
+        logger.info("Chamada da sala {} em {}: {} criadas, {} atualizadas, {} recusadas",
+                classroom.getId(), bulkDTO.getDate(), created, updated, rejectedCount);
+
+        return AttendanceBulkResultDTO.builder()
+                .message("Frequência salva com sucesso")
+                .classroomId(classroom.getId())
+                .date(bulkDTO.getDate())
+                .created(created)
+                .updated(updated)
+                .rejected(rejectedCount)
+                .results(all)
+                .build();
+    }
+
+    /**
+     * Upsert das linhas em um único batch JDBC. Deve rodar dentro de uma transação.
+     */
+    public void upsert(List<AttendanceRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(upsertSql(), rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.classroomId());
+            ps.setLong(2, row.studentId());
+            ps.setDate(3, Date.valueOf(row.date()));
+            ps.setString(4, row.status().name());
+            if (row.arrivalTime() != null) {
+                ps.setTime(5, Time.valueOf(row.arrivalTime()));
+            } else {
+                ps.setNull(5, Types.TIME);
+            }
+            ps.setString(6, row.observations());
+            ps.setString(7, row.discipline());
+            ps.setString(8, row.period() != null ? row.period().name() : null);
+            if (row.teacherId() != null) {
+                ps.setLong(9, row.teacherId());
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+            ps.setTimestamp(10, now);
+            ps.setBoolean(11, row.keepArrivalTime());
+        });
+    }
+
+    private AttendanceRow toRow(Long classroomId, AttendanceBulkDTO bulkDTO, Long studentId, AttendanceStatus status,
+                                AttendanceBulkDTO.StudentAttendanceDTO studentDTO, Period period, Long teacherId) {
+        LocalTime arrivalTime = null;
+        boolean keepArrivalTime;
+        if (studentDTO.getArrivalTime() != null && !studentDTO.getArrivalTime().isEmpty()) {
+            try {
+                arrivalTime = LocalTime.parse(studentDTO.getArrivalTime());
+                keepArrivalTime = false;
+            } catch (Exception e) {
+                logger.warn("Erro ao parsear horário: {}", studentDTO.getArrivalTime());
+                keepArrivalTime = true;
+            }
+        } else {
+            // Sem horário: mantém o salvo se o aluno continua atrasado, senão limpa
+            keepArrivalTime = status == AttendanceStatus.LATE;
+        }
+        return new AttendanceRow(classroomId, studentId, bulkDTO.getDate(), status, arrivalTime, keepArrivalTime,
+                studentDTO.getObservations(), bulkDTO.getDiscipline(), period, teacherId);
+    }
+
+    private static AttendanceStatus parseStatus(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return AttendanceStatus.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Period parsePeriod(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Period.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Período inválido: {}", value);
+            return null;
+        }
+    }
+
+    private static AttendanceBulkResultDTO.StudentResultDTO result(Long studentId, String outcome, String message) {
+        return AttendanceBulkResultDTO.StudentResultDTO.builder()
+                .studentId(studentId)
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            sql = product != null && product.toLowerCase().contains("postgres") ? UPSERT_POSTGRES : UPSERT_MERGE;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,111 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.attendance.dto.AttendanceDTO;
+import com.eaduck.backend.model.attendance.dto.AttendanceHistoryDTO;
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.repository.AttendanceRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Histórico de frequência do aluno com filtros e paginação por cursor (date, id), do mais recente
+ * para o mais antigo. Cada página é uma leitura do índice (student_id, date) a partir do cursor,
+ * então o custo não cresce com o tamanho do histórico; os totais são um GROUP BY por status.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AttendanceHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final AttendanceRepository attendanceRepository;
+
+    public AttendanceHistoryService(AttendanceRepository attendanceRepository) {
+        this.attendanceRepository = attendanceRepository;
+    }
+
+    /**
+     * Filtros do histórico; todos opcionais. cursor é o nextCursor da página anterior.
+     */
+    public record Filter(Long classroomId, LocalDate startDate, LocalDate endDate, String discipline,
+                         AttendanceStatus status, String cursor, Integer size) {}
+
+    public AttendanceHistoryDTO findHistory(Long studentId, Filter filter) {
+        String discipline = filter.discipline() != null && !filter.discipline().isBlank() ? filter.discipline() : null;
+        int size = filter.size() != null ? Math.min(Math.max(filter.size(), 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+
+        // Sem cursor (primeira página) a condição de posição não se aplica
+        LocalDate beforeDate = null;
+        Long beforeId = null;
+        if (filter.cursor() != null && !filter.cursor().isBlank()) {
+            Cursor cursor = Cursor.parse(filter.cursor());
+            beforeDate = cursor.date();
+            beforeId = cursor.id();
+        }
+
+        // Uma linha a mais indica se há próxima página
+        List<AttendanceDTO> rows = attendanceRepository.findHistoryPage(studentId, filter.classroomId(),
+                filter.startDate(), filter.endDate(), discipline, filter.status(), beforeDate, beforeId, PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<AttendanceDTO> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            AttendanceDTO last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.getDate(), last.getId()).toString();
+        }
+
+        long present = 0;
+        long absent = 0;
+        long late = 0;
+        for (Object[] row : attendanceRepository.countHistoryByStatus(studentId, filter.classroomId(),
+                filter.startDate(), filter.endDate(), discipline, filter.status())) {
+            long count = ((Number) row[1]).longValue();
+            switch ((AttendanceStatus) row[0]) {
+                case PRESENT -> present = count;
+                case ABSENT -> absent = count;
+                case LATE -> late = count;
+            }
+        }
+        long total = present + absent + late;
+
+        return AttendanceHistoryDTO.builder()
+                .items(List.copyOf(items))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .present(present)
+                .absent(absent)
+                .late(late)
+                .total(total)
+                .presenceRate(total > 0 ? (double) present / total : null)
+                .build();
+    }
+
+    /**
+     * Posição do último item da página, no formato yyyy-MM-dd_id.
+     */
+    private record Cursor(LocalDate date, Long id) {
+
+        @Override
+        public String toString() {
+            return date + "_" + id;
+        }
+
+        static Cursor parse(String value) {
+            int separator = value.indexOf('_');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + value);
+            }
+            try {
+                return new Cursor(LocalDate.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + value);
+            }
+        }
+    }
+}
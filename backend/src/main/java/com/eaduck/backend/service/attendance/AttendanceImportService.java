@@ -0,0 +1,420 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.attendance.dto.AttendanceImportResultDTO;
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.model.enums.Period;
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.attendance.AttendanceBulkService.AttendanceRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Importação de frequências por CSV (POST /api/attendances/import), para carregar o histórico de
+ * escolas vindas do papel ou de outro sistema.
+ *
+ * O arquivo é lido em streaming, linha a linha. Salas, alunos e matrículas são resolvidos por mapas
+ * em memória montados uma vez no início (três consultas de projeção), então a validação não consulta
+ * o banco por linha. As linhas válidas são gravadas pelo mesmo upsert da chamada em lote, em lotes de
+ * attendance.import.batch-size, cada lote na sua transação junto com os totais diários das salas
+ * afetadas. Um lote com falha é descartado inteiro (suas linhas voltam como erro) e a importação segue.
+ *
+ * Colunas (cabeçalho obrigatório, separador ';' ou ','): sala (id ou nome), aluno (id ou e-mail),
+ * data (yyyy-MM-dd ou dd/MM/yyyy), status, disciplina e período; horário de chegada e observações
+ * são opcionais.
+ */
+@Service
+public class AttendanceImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceImportService.class);
+
+    private static final DateTimeFormatter BR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Nome normalizado do cabeçalho -> coluna
+    private static final Map<String, String> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("classroom", "classroom"), Map.entry("classroom_id", "classroom"), Map.entry("sala", "classroom"),
+            Map.entry("turma", "classroom"),
+            Map.entry("student", "student"), Map.entry("student_id", "student"), Map.entry("aluno", "student"),
+            Map.entry("email", "student"), Map.entry("e_mail", "student"),
+            Map.entry("date", "date"), Map.entry("data", "date"),
+            Map.entry("status", "status"), Map.entry("situacao", "status"),
+            Map.entry("discipline", "discipline"), Map.entry("disciplina", "discipline"),
+            Map.entry("period", "period"), Map.entry("periodo", "period"), Map.entry("turno", "period"),
+            Map.entry("arrival_time", "arrivalTime"), Map.entry("horario_chegada", "arrivalTime"),
+            Map.entry("chegada", "arrivalTime"),
+            Map.entry("observations", "observations"), Map.entry("observacoes", "observations"));
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("classroom", "student", "date", "status");
+
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+    private final AttendanceBulkService attendanceBulkService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceMatrixCache attendanceMatrixCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${attendance.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${attendance.import.max-errors:1000}")
+    private int maxErrors;
+
+    public AttendanceImportService(ClassroomRepository classroomRepository,
+                                   UserRepository userRepository,
+                                   AttendanceBulkService attendanceBulkService,
+                                   AttendanceRollupService attendanceRollupService,
+                                   AttendanceMatrixCache attendanceMatrixCache,
+                                   PlatformTransactionManager transactionManager) {
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+        this.attendanceBulkService = attendanceBulkService;
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceMatrixCache = attendanceMatrixCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa o CSV. Lança IllegalArgumentException se o cabeçalho for inválido; erros de linha
+     * voltam no resultado.
+     */
+    public AttendanceImportResultDTO importCsv(InputStream input, User currentUser) throws IOException {
+        long start = System.currentTimeMillis();
+        Import state = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        if (headerLine.charAt(0) == '\uFEFF') {
+            headerLine = headerLine.substring(1);
+        }
+        char separator = headerLine.indexOf(';') >= 0 ? ';' : ',';
+        Map<String, Integer> columns = parseHeader(split(headerLine, separator));
+
+        Lookups lookups = loadLookups(currentUser);
+        Long teacherId = currentUser.getId();
+        List<AttendanceRow> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkLines = new ArrayList<>(batchSize);
+
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            state.processed++;
+            try {
+                chunk.add(toRow(split(line, separator), columns, lookups, teacherId));
+                chunkLines.add(lineNumber);
+            } catch (IllegalArgumentException e) {
+                state.reject(lineNumber, e.getMessage());
+            }
+            if (chunk.size() >= batchSize) {
+                flush(chunk, chunkLines, state);
+            }
+        }
+        flush(chunk, chunkLines, state);
+
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Importação de frequências por {}: {} linhas, {} gravadas, {} rejeitadas em {} ms",
+                currentUser.getEmail(), state.processed, state.imported, state.rejected, elapsed);
+        return AttendanceImportResultDTO.builder()
+                .message(state.rejected == 0 ? "Frequências importadas com sucesso"
+                        : "Importação concluída com " + state.rejected + " linha(s) rejeitada(s)")
+                .processed(state.processed)
+                .imported(state.imported)
+                .rejected(state.rejected)
+                .errors(state.errors)
+                .errorsTruncated(state.errorsTruncated)
+                .elapsedMs(elapsed)
+                .build();
+    }
+
+    // Grava o lote em uma transação: upsert, totais diários das salas no intervalo do lote e cache das matrizes
+    private void flush(List<AttendanceRow> chunk, List<Integer> chunkLines, Import state) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                attendanceBulkService.upsert(chunk);
+                // Ordenado por sala: as travas de cada sala (totais diários) são tomadas sempre na mesma ordem
+                Map<Long, LocalDate[]> ranges = new TreeMap<>();
+                for (AttendanceRow row : chunk) {
+                    LocalDate[] range = ranges.computeIfAbsent(row.classroomId(), id -> new LocalDate[]{row.date(), row.date()});
+                    if (row.date().isBefore(range[0])) {
+                        range[0] = row.date();
+                    }
+                    if (row.date().isAfter(range[1])) {
+                        range[1] = row.date();
+                    }
+                }
+                ranges.forEach((classroomId, range) -> attendanceRollupService.refreshRange(classroomId, range[0], range[1]));
+                attendanceMatrixCache.invalidate(Set.copyOf(ranges.keySet()));
+            });
+            state.imported += chunk.size();
+        } catch (Exception e) {
+            logger.error("Erro ao gravar lote da importação de frequências (linhas {} a {}): {}",
+                    chunkLines.get(0), chunkLines.get(chunkLines.size() - 1), e.getMessage(), e);
+            for (Integer line : chunkLines) {
+                state.reject(line, "Erro ao gravar o lote: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private AttendanceRow toRow(List<String> fields, Map<String, Integer> columns, Lookups lookups, Long teacherId) {
+        Long classroomId = resolveClassroom(field(fields, columns, "classroom"), lookups);
+        if (lookups.allowedClassroomIds != null && !lookups.allowedClassroomIds.contains(classroomId)) {
+            throw new IllegalArgumentException("Sem acesso à sala " + classroomId);
+        }
+        Long studentId = resolveStudent(field(fields, columns, "student"), lookups);
+        if (!lookups.studentsByClassroom.getOrDefault(classroomId, Set.of()).contains(studentId)) {
+            throw new IllegalArgumentException("Aluno " + studentId + " não está matriculado na sala " + classroomId);
+        }
+        LocalDate date = parseDate(field(fields, columns, "date"));
+        AttendanceStatus status = parseStatus(field(fields, columns, "status"));
+
+        String arrival = field(fields, columns, "arrivalTime");
+        LocalTime arrivalTime = null;
+        boolean keepArrivalTime;
+        if (arrival != null) {
+            try {
+                arrivalTime = LocalTime.parse(arrival);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Horário de chegada inválido: " + arrival);
+            }
+            keepArrivalTime = false;
+        } else {
+            // Mesma regra da chamada em lote: sem horário, mantém o salvo se o aluno continua atrasado
+            keepArrivalTime = status == AttendanceStatus.LATE;
+        }
+        return new AttendanceRow(classroomId, studentId, date, status, arrivalTime, keepArrivalTime,
+                field(fields, columns, "observations"), field(fields, columns, "discipline"),
+                parsePeriod(field(fields, columns, "period")), teacherId);
+    }
+
+    private Lookups loadLookups(User currentUser) {
+        Lookups lookups = new Lookups();
+        for (Object[] row : classroomRepository.findAllIdsAndNames()) {
+            Long id = (Long) row[0];
+            lookups.classroomIds.add(id);
+            if (row[1] != null) {
+                String name = normalize((String) row[1]);
+                if (lookups.classroomsByName.putIfAbsent(name, id) != null) {
+                    lookups.ambiguousNames.add(name);
+                }
+            }
+        }
+        for (Object[] row : userRepository.findStudentIdsAndEmails()) {
+            lookups.studentIds.add((Long) row[0]);
+            if (row[1] != null) {
+                lookups.studentsByEmail.put(((String) row[1]).trim().toLowerCase(), (Long) row[0]);
+            }
+        }
+        for (Object[] row : classroomRepository.findAllStudentMemberships()) {
+            lookups.studentsByClassroom.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+        }
+        if (currentUser.getRole() != Role.ADMIN) {
+            lookups.allowedClassroomIds = new HashSet<>(classroomRepository.findIdsByTeacherId(currentUser.getId()));
+        }
+        return lookups;
+    }
+
+    private static Long resolveClassroom(String value, Lookups lookups) {
+        if (value == null) {
+            throw new IllegalArgumentException("Sala não informada");
+        }
+        Long id = parseId(value);
+        if (id != null) {
+            if (!lookups.classroomIds.contains(id)) {
+                throw new IllegalArgumentException("Sala não encontrada: " + value);
+            }
+            return id;
+        }
+        String name = normalize(value);
+        if (lookups.ambiguousNames.contains(name)) {
+            throw new IllegalArgumentException("Há mais de uma sala com o nome " + value + "; informe o id");
+        }
+        id = lookups.classroomsByName.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Sala não encontrada: " + value);
+        }
+        return id;
+    }
+
+    private static Long resolveStudent(String value, Lookups lookups) {
+        if (value == null) {
+            throw new IllegalArgumentException("Aluno não informado");
+        }
+        Long id = parseId(value);
+        if (id == null) {
+            id = lookups.studentsByEmail.get(value.toLowerCase());
+        } else if (!lookups.studentIds.contains(id)) {
+            id = null;
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Aluno não encontrado: " + value);
+        }
+        return id;
+    }
+
+    private static Long parseId(String value) {
+        if (value.chars().allMatch(Character::isDigit)) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Data não informada");
+        }
+        try {
+            return value.contains("/") ? LocalDate.parse(value, BR_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida: " + value);
+        }
+    }
+
+    private static AttendanceStatus parseStatus(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Status não informado");
+        }
+        return switch (normalize(value)) {
+            case "present", "presente", "p" -> AttendanceStatus.PRESENT;
+            case "absent", "ausente", "falta", "f" -> AttendanceStatus.ABSENT;
+            case "late", "atrasado", "atraso" -> AttendanceStatus.LATE;
+            default -> throw new IllegalArgumentException("Status inválido: " + value);
+        };
+    }
+
+    // Período vazio mantém o já salvo, como na chamada em lote
+    private static Period parsePeriod(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Period.valueOf(normalize(value).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Período inválido: " + value);
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = HEADER_ALIASES.get(normalize(header.get(i)).replaceAll("[\\s-]+", "_"));
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Colunas obrigatórias ausentes no cabeçalho: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    // Valor da coluna sem espaços nas pontas; null se a coluna não existe ou está vazia
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Divide a linha respeitando campos entre aspas ("" dentro das aspas é uma aspa)
+    private static List<String> split(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // Minúsculas e sem acentos (cabeçalhos, nomes de sala, status e período)
+    private static String normalize(String value) {
+        return Normalizer.normalize(value.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase();
+    }
+
+    private static final class Lookups {
+        final Set<Long> classroomIds = new HashSet<>();
+        final Map<String, Long> classroomsByName = new HashMap<>();
+        final Set<String> ambiguousNames = new HashSet<>();
+        final Set<Long> studentIds = new HashSet<>();
+        final Map<String, Long> studentsByEmail = new HashMap<>();
+        final Map<Long, Set<Long>> studentsByClassroom = new HashMap<>();
+        Set<Long> allowedClassroomIds; // null para administradores
+    }
+
+    private final class Import {
+        int processed;
+        int imported;
+        int rejected;
+        boolean errorsTruncated;
+        final List<AttendanceImportResultDTO.RowErrorDTO> errors = new ArrayList<>();
+
+        void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(AttendanceImportResultDTO.RowErrorDTO.builder().line(line).message(message).build());
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
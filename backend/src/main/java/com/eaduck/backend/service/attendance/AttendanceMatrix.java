@@ -0,0 +1,237 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.enums.AttendanceStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Frequência de uma sala em um ano: aluno × dia do ano, 2 bits por célula em um long[]
+ * (00 = sem registro, 01 = PRESENT, 10 = ABSENT, 11 = LATE).
+ *
+ * Cada aluno ocupa uma faixa contígua de words (32 dias por long, 12 longs ≈ 96 bytes por aluno no
+ * ano), e as contagens por intervalo usam máscaras e Long.bitCount sobre a faixa, sem ir ao banco.
+ * Dias sem registro (fins de semana, feriados) não contam em nenhuma estatística.
+ *
+ * Thread-safe: leituras e escritas são sincronizadas na instância.
+ */
+public class AttendanceMatrix {
+
+    private static final long LOW_BITS = 0x5555555555555555L;
+    private static final int CELLS_PER_WORD = 32;
+
+    static final int NONE = 0;
+    static final int PRESENT = 1;
+    static final int ABSENT = 2;
+    static final int LATE = 3;
+
+    private final int year;
+    private final LocalDate firstDay;
+    private final int days;
+    private final int wordsPerRow;
+    private final Map<Long, Integer> studentIndex = new HashMap<>();
+    private long[] cells;
+
+    public AttendanceMatrix(int year, int expectedStudents) {
+        this.year = year;
+        this.firstDay = LocalDate.of(year, 1, 1);
+        this.days = firstDay.lengthOfYear();
+        this.wordsPerRow = (days + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+        this.cells = new long[Math.max(expectedStudents, 1) * wordsPerRow];
+    }
+
+    /**
+     * Estatísticas de um aluno no intervalo.
+     */
+    public record Stats(int present, int absent, int late, int longestAbsenceStreak) {
+
+        public int recorded() {
+            return present + absent + late;
+        }
+
+        /**
+         * Fração de presenças (PRESENT) sobre os dias com registro, ou null sem registros.
+         */
+        public Double presenceRate() {
+            int recorded = recorded();
+            return recorded > 0 ? (double) present / recorded : null;
+        }
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public synchronized void set(Long studentId, LocalDate date, AttendanceStatus status) {
+        int day = dayOf(date);
+        if (day < 0) {
+            return;
+        }
+        int row = studentIndex.computeIfAbsent(studentId, k -> {
+            int index = studentIndex.size();
+            if ((index + 1) * wordsPerRow > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, (index + 1) * wordsPerRow));
+            }
+            return index;
+        });
+        int word = row * wordsPerRow + day / CELLS_PER_WORD;
+        int shift = (day % CELLS_PER_WORD) * 2;
+        cells[word] = (cells[word] & ~(3L << shift)) | ((long) code(status) << shift);
+    }
+
+    public synchronized AttendanceStatus get(Long studentId, LocalDate date) {
+        Integer row = studentIndex.get(studentId);
+        int day = dayOf(date);
+        if (row == null || day < 0) {
+            return null;
+        }
+        int word = row * wordsPerRow + day / CELLS_PER_WORD;
+        return status((int) (cells[word] >>> ((day % CELLS_PER_WORD) * 2)) & 3);
+    }
+
+    /**
+     * Quantidade de dias com o status no intervalo [from, to].
+     */
+    public synchronized int count(Long studentId, LocalDate from, LocalDate to, AttendanceStatus status) {
+        Integer row = studentIndex.get(studentId);
+        int[] range = range(from, to);
+        if (row == null || range == null) {
+            return 0;
+        }
+        return count(row, range[0], range[1], code(status));
+    }
+
+    public synchronized Stats stats(Long studentId, LocalDate from, LocalDate to) {
+        Integer row = studentIndex.get(studentId);
+        int[] range = range(from, to);
+        if (row == null || range == null) {
+            return new Stats(0, 0, 0, 0);
+        }
+        return stats(row, range[0], range[1]);
+    }
+
+    /**
+     * Estatísticas de todos os alunos com registro no ano, por id do aluno.
+     */
+    public synchronized Map<Long, Stats> statsByStudent(LocalDate from, LocalDate to) {
+        int[] range = range(from, to);
+        Map<Long, Stats> result = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : studentIndex.entrySet()) {
+            result.put(entry.getKey(), range != null ? stats(entry.getValue(), range[0], range[1]) : new Stats(0, 0, 0, 0));
+        }
+        return result;
+    }
+
+    public synchronized int studentCount() {
+        return studentIndex.size();
+    }
+
+    /**
+     * Estimativa de memória ocupada (células e índice de alunos), usada no limite do cache.
+     */
+    public synchronized long memoryBytes() {
+        return 64L + cells.length * 8L + studentIndex.size() * 64L;
+    }
+
+    private Stats stats(int row, int from, int to) {
+        return new Stats(count(row, from, to, PRESENT), count(row, from, to, ABSENT), count(row, from, to, LATE),
+                longestStreak(row, from, to, ABSENT));
+    }
+
+    private int count(int row, int from, int to, int code) {
+        int total = 0;
+        int base = row * wordsPerRow;
+        for (int w = from / CELLS_PER_WORD; w <= to / CELLS_PER_WORD; w++) {
+            total += Long.bitCount(matches(cells[base + w], code) & rangeMask(w, from, to));
+        }
+        return total;
+    }
+
+    /**
+     * Maior sequência de dias com registro iguais ao status; dias sem registro não interrompem a sequência.
+     */
+    private int longestStreak(int row, int from, int to, int code) {
+        int base = row * wordsPerRow;
+        int longest = 0;
+        int current = 0;
+        for (int w = from / CELLS_PER_WORD; w <= to / CELLS_PER_WORD; w++) {
+            long mask = rangeMask(w, from, to);
+            long recorded = matches(cells[base + w], -1) & mask;
+            long hits = matches(cells[base + w], code) & mask;
+            // Palavra inteira igual ao status (ou sem registros): soma direto sem percorrer as células
+            if (recorded == hits) {
+                current += Long.bitCount(hits);
+                longest = Math.max(longest, current);
+                continue;
+            }
+            while (recorded != 0) {
+                long bit = Long.lowestOneBit(recorded);
+                if ((hits & bit) != 0) {
+                    current++;
+                    longest = Math.max(longest, current);
+                } else {
+                    current = 0;
+                }
+                recorded ^= bit;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Um bit (na posição par da célula) para cada célula com o código; -1 = qualquer registro.
+     */
+    private static long matches(long word, int code) {
+        long low = word & LOW_BITS;
+        long high = (word >>> 1) & LOW_BITS;
+        return switch (code) {
+            case PRESENT -> low & ~high;
+            case ABSENT -> high & ~low;
+            case LATE -> low & high;
+            default -> low | high;
+        };
+    }
+
+    // Bits pares da word w que estão dentro de [from, to]
+    private static long rangeMask(int w, int from, int to) {
+        int first = Math.max(from - w * CELLS_PER_WORD, 0);
+        int last = Math.min(to - w * CELLS_PER_WORD, CELLS_PER_WORD - 1);
+        long mask = LOW_BITS;
+        mask &= -1L << (first * 2);
+        mask &= -1L >>> ((CELLS_PER_WORD - 1 - last) * 2);
+        return mask;
+    }
+
+    private int[] range(LocalDate from, LocalDate to) {
+        int start = from != null ? (int) Math.max(ChronoUnit.DAYS.between(firstDay, from), 0) : 0;
+        int end = to != null ? (int) Math.min(ChronoUnit.DAYS.between(firstDay, to), days - 1) : days - 1;
+        return start <= end ? new int[] {start, end} : null;
+    }
+
+    private int dayOf(LocalDate date) {
+        return date != null && date.getYear() == year ? date.getDayOfYear() - 1 : -1;
+    }
+
+    private static int code(AttendanceStatus status) {
+        if (status == null) {
+            return NONE;
+        }
+        return switch (status) {
+            case PRESENT -> PRESENT;
+            case ABSENT -> ABSENT;
+            case LATE -> LATE;
+        };
+    }
+
+    private static AttendanceStatus status(int code) {
+        return switch (code) {
+            case PRESENT -> AttendanceStatus.PRESENT;
+            case ABSENT -> AttendanceStatus.ABSENT;
+            case LATE -> AttendanceStatus.LATE;
+            default -> null;
+        };
+    }
+}
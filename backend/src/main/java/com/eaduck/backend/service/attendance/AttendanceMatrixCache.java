@@ -0,0 +1,146 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.repository.AttendanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de {@link AttendanceMatrix} por sala e ano, limitado por memória
+ * (attendance.matrix.cache-budget-bytes).
+ *
+ * A matriz é montada do banco no primeiro acesso (uma consulta de projeção por sala e ano) e
+ * atualizada pela chamada em lote depois do commit, então as estatísticas não voltam ao banco.
+ * Se houver gravação enquanto uma matriz é montada, ela é usada só naquela consulta e não entra
+ * no cache (poderia ter sido lida antes da gravação).
+ */
+@Service
+public class AttendanceMatrixCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceMatrixCache.class);
+
+    private record Key(Long classroomId, int year) {}
+
+    private final AttendanceRepository attendanceRepository;
+    private final LinkedHashMap<Key, AttendanceMatrix> matrices = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong writes = new AtomicLong();
+
+    @Value("${attendance.matrix.cache-budget-bytes:33554432}")
+    private long budgetBytes;
+
+    public AttendanceMatrixCache(AttendanceRepository attendanceRepository) {
+        this.attendanceRepository = attendanceRepository;
+    }
+
+    public AttendanceMatrix get(Long classroomId, int year) {
+        Key key = new Key(classroomId, year);
+        synchronized (this) {
+            AttendanceMatrix cached = matrices.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long writesBefore = writes.get();
+        AttendanceMatrix matrix = load(classroomId, year);
+        synchronized (this) {
+            AttendanceMatrix cached = matrices.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (writes.get() == writesBefore) {
+                matrices.put(key, matrix);
+                evict();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Aplica as frequências gravadas às matrizes em cache quando a transação atual confirmar
+     * (ou imediatamente, fora de transação). Matrizes fora do cache são montadas depois, já com os dados novos.
+     */
+    public void onSaved(Long classroomId, LocalDate date, Map<Long, AttendanceStatus> statusByStudent) {
+        writes.incrementAndGet();
+        Runnable apply = () -> {
+            writes.incrementAndGet();
+            AttendanceMatrix matrix;
+            synchronized (this) {
+                matrix = matrices.get(new Key(classroomId, date.getYear()));
+            }
+            if (matrix != null) {
+                statusByStudent.forEach((studentId, status) -> matrix.set(studentId, date, status));
+                synchronized (this) {
+                    evict();
+                }
+            }
+        };
+        afterCommit(apply);
+    }
+
+    /**
+     * Descarta as matrizes das salas quando a transação atual confirmar (importação de frequências);
+     * elas são montadas de novo no próximo acesso.
+     */
+    public void invalidate(Collection<Long> classroomIds) {
+        writes.incrementAndGet();
+        afterCommit(() -> {
+            writes.incrementAndGet();
+            synchronized (this) {
+                matrices.keySet().removeIf(key -> classroomIds.contains(key.classroomId()));
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private AttendanceMatrix load(Long classroomId, int year) {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = attendanceRepository.findMatrixRows(classroomId,
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        AttendanceMatrix matrix = new AttendanceMatrix(year, 0);
+        for (Object[] row : rows) {
+            matrix.set((Long) row[0], (LocalDate) row[1], (AttendanceStatus) row[2]);
+        }
+        logger.debug("Matriz de frequência da sala {} ({}) montada: {} alunos, {} registros em {} ms",
+                classroomId, year, matrix.studentCount(), rows.size(), System.currentTimeMillis() - start);
+        return matrix;
+    }
+
+    // Remove as menos usadas até caber no limite (a mais recente sempre fica)
+    private void evict() {
+        long total = 0;
+        for (AttendanceMatrix matrix : matrices.values()) {
+            total += matrix.memoryBytes();
+        }
+        Iterator<Map.Entry<Key, AttendanceMatrix>> iterator = matrices.entrySet().iterator();
+        while (total > budgetBytes && matrices.size() > 1 && iterator.hasNext()) {
+            Map.Entry<Key, AttendanceMatrix> eldest = iterator.next();
+            total -= eldest.getValue().memoryBytes();
+            iterator.remove();
+            logger.debug("Matriz de frequência da sala {} ({}) removida do cache", eldest.getKey().classroomId(), eldest.getKey().year());
+        }
+    }
+}
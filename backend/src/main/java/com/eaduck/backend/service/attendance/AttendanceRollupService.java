@@ -0,0 +1,167 @@
+package com.eaduck.backend.service.attendance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Manutenção da tabela attendance_daily_rollup (totais por sala, disciplina e dia).
+ *
+ * Cada gravação de frequência recalcula, na mesma transação, os totais do dia da sala a partir das
+ * linhas daquele dia (custo proporcional ao tamanho da turma, não ao histórico). Recalcular o dia
+ * inteiro, em vez de somar diferenças, mantém a tabela correta também quando a disciplina de uma
+ * frequência muda. A reconstrução completa (backfill ou reparo) roda em segundo plano, uma sala
+ * por transação.
+ *
+ * Todo recálculo trava antes a linha da sala (SELECT ... FOR UPDATE): sem isso, duas gravações
+ * simultâneas na mesma sala e dia (chamadas com alunos diferentes, importação ou reconstrução)
+ * podiam apagar e inserir a mesma chave e a segunda falhava na restrição única, desfazendo a
+ * chamada inteira. Com a trava, a segunda espera o commit da primeira e recalcula com os dados dela.
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceRollupService.class);
+
+    private static final String ROLLUP_SELECT =
+            "SELECT classroom_id, COALESCE(discipline, ''), date, " +
+            "SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status = 'LATE' THEN 1 ELSE 0 END) FROM attendances ";
+    private static final String ROLLUP_INSERT =
+            "INSERT INTO attendance_daily_rollup (classroom_id, discipline, date, present, absent, late) ";
+    private static final String ROLLUP_GROUP_BY = " GROUP BY classroom_id, COALESCE(discipline, ''), date";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Value("${attendance.rollup.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    public AttendanceRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recalcula os totais da sala no dia. Deve ser chamado na transação que alterou as frequências.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshDay(Long classroomId, LocalDate date) {
+        Date day = Date.valueOf(date);
+        lockClassroom(classroomId);
+        jdbcTemplate.update("DELETE FROM attendance_daily_rollup WHERE classroom_id = ? AND date = ?", classroomId, day);
+        jdbcTemplate.update(ROLLUP_INSERT + ROLLUP_SELECT + "WHERE classroom_id = ? AND date = ?" + ROLLUP_GROUP_BY,
+                classroomId, day);
+    }
+
+    /**
+     * Recalcula os totais da sala no intervalo de datas (importação). Mesma regra de {@link #refreshDay}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshRange(Long classroomId, LocalDate startDate, LocalDate endDate) {
+        Date start = Date.valueOf(startDate);
+        Date end = Date.valueOf(endDate);
+        lockClassroom(classroomId);
+        jdbcTemplate.update("DELETE FROM attendance_daily_rollup WHERE classroom_id = ? AND date BETWEEN ? AND ?",
+                classroomId, start, end);
+        jdbcTemplate.update(ROLLUP_INSERT + ROLLUP_SELECT + "WHERE classroom_id = ? AND date BETWEEN ? AND ?" + ROLLUP_GROUP_BY,
+                classroomId, start, end);
+    }
+
+    /**
+     * Recalcula todo o histórico da sala em uma transação.
+     */
+    public void rebuildClassroom(Long classroomId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lockClassroom(classroomId);
+            jdbcTemplate.update("DELETE FROM attendance_daily_rollup WHERE classroom_id = ?", classroomId);
+            jdbcTemplate.update(ROLLUP_INSERT + ROLLUP_SELECT + "WHERE classroom_id = ?" + ROLLUP_GROUP_BY, classroomId);
+        });
+    }
+
+    /**
+     * Inicia a reconstrução em segundo plano (uma sala ou todas, se classroomId for null).
+     * Retorna false se já houver uma reconstrução em andamento.
+     */
+    public boolean startRebuild(Long classroomId) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild(classroomId);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "attendance-rollup-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Backfill na inicialização: só reconstrói se há frequências e a tabela de totais está vazia
+     * (banco criado sem a migração, como no perfil dev).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            boolean hasAttendances = !jdbcTemplate.queryForList("SELECT id FROM attendances FETCH FIRST 1 ROWS ONLY").isEmpty();
+            boolean hasRollup = !jdbcTemplate.queryForList("SELECT id FROM attendance_daily_rollup FETCH FIRST 1 ROWS ONLY").isEmpty();
+            if (hasAttendances && !hasRollup) {
+                logger.info("Tabela de totais de frequência vazia; iniciando reconstrução");
+                startRebuild(null);
+            }
+        } catch (Exception e) {
+            logger.warn("Não foi possível verificar os totais de frequência: {}", e.getMessage());
+        }
+    }
+
+    // Serializa os recálculos da sala até o fim da transação atual
+    private void lockClassroom(Long classroomId) {
+        jdbcTemplate.queryForList("SELECT id FROM classrooms WHERE id = ? FOR UPDATE", Long.class, classroomId);
+    }
+
+    void rebuild(Long classroomId) {
+        long start = System.currentTimeMillis();
+        List<Long> classroomIds = classroomId != null ? List.of(classroomId)
+                : jdbcTemplate.queryForList("SELECT DISTINCT classroom_id FROM attendances", Long.class);
+        int done = 0;
+        for (Long id : classroomIds) {
+            try {
+                rebuildClassroom(id);
+                done++;
+            } catch (Exception e) {
+                logger.error("Erro ao reconstruir totais de frequência da sala {}: {}", id, e.getMessage(), e);
+            }
+        }
+        if (classroomId == null) {
+            // Salas sem frequência (ou removidas) não podem manter totais antigos
+            jdbcTemplate.update("DELETE FROM attendance_daily_rollup WHERE classroom_id NOT IN (SELECT DISTINCT classroom_id FROM attendances)");
+        }
+        logger.info("Totais de frequência reconstruídos: {} de {} salas em {} ms",
+                done, classroomIds.size(), System.currentTimeMillis() - start);
+    }
+}
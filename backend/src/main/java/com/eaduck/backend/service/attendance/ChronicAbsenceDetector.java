@@ -0,0 +1,214 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.notification.Notification;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.NotificationRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.eaduck.backend.service.report.AcademicCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detecção de faltas recorrentes: avisa professores da sala e administradores quando a taxa de faltas
+ * de um aluno em uma disciplina passa do limite no período letivo (bimestre do {@link AcademicCalendar}).
+ *
+ * Incremental: cada execução lê só as frequências alteradas desde o último checkpoint (updated_at,
+ * com uma margem para transações que confirmaram depois), recalcula os contadores dos alunos e
+ * períodos afetados a partir das linhas do próprio aluno no período e grava o novo checkpoint na
+ * mesma transação. O custo de cada execução acompanha as chamadas feitas desde a anterior, não o
+ * histórico. Cada aluno, disciplina e período gera no máximo um alerta (attendance_absence_alerts).
+ */
+@Service
+public class ChronicAbsenceDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChronicAbsenceDetector.class);
+
+    static final String CHECKPOINT_NAME = "chronic-absence";
+    static final String NOTIFICATION_TYPE = "CHRONIC_ABSENCE";
+
+    private record PeriodKey(Long classroomId, Long studentId, LocalDate periodStart, LocalDate periodEnd, int term) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AcademicCalendar calendar;
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+    private final NotificationRepository notificationRepository;
+
+    @Value("${attendance.absence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${attendance.absence.threshold:0.25}")
+    private double threshold;
+
+    @Value("${attendance.absence.min-records:8}")
+    private int minRecords;
+
+    @Value("${attendance.absence.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    @Value("${attendance.absence.initial-lookback-days:1}")
+    private long initialLookbackDays;
+
+    public ChronicAbsenceDetector(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  AcademicCalendar calendar,
+                                  ClassroomRepository classroomRepository,
+                                  UserRepository userRepository,
+                                  NotificationRepository notificationRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.calendar = calendar;
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+        this.notificationRepository = notificationRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.absence.interval-ms:900000}",
+               initialDelayString = "${attendance.absence.initial-delay-ms:120000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (Exception e) {
+            logger.error("Erro na detecção de faltas recorrentes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Processa as frequências alteradas desde o checkpoint; retorna a quantidade de alertas criados.
+     */
+    public int run() {
+        long start = System.currentTimeMillis();
+        Integer alerts = transactionTemplate.execute(status -> {
+            LocalDateTime upTo = LocalDateTime.now();
+            LocalDateTime checkpoint = readCheckpoint();
+            LocalDateTime since = checkpoint != null ? checkpoint.minusSeconds(overlapSeconds)
+                    : upTo.minusDays(initialLookbackDays);
+
+            Set<PeriodKey> keys = new LinkedHashSet<>();
+            jdbcTemplate.query("SELECT DISTINCT classroom_id, student_id, date FROM attendances " +
+                            "WHERE updated_at > ? AND updated_at <= ?",
+                    rs -> {
+                        LocalDate date = rs.getDate(3).toLocalDate();
+                        int term = calendar.termOf(date.getMonthValue());
+                        if (term >= 0) {
+                            keys.add(new PeriodKey(rs.getLong(1), rs.getLong(2),
+                                    calendar.termStart(date.getYear(), term), calendar.termEnd(date.getYear(), term), term));
+                        }
+                    },
+                    Timestamp.valueOf(since), Timestamp.valueOf(upTo));
+
+            int created = 0;
+            List<Long> adminIds = null;
+            for (PeriodKey key : keys) {
+                refreshCounters(key);
+                List<Map<String, Object>> crossed = findNewCrossings(key);
+                if (crossed.isEmpty()) {
+                    continue;
+                }
+                if (adminIds == null) {
+                    adminIds = userRepository.findByRole(Role.ADMIN).stream().map(User::getId).toList();
+                }
+                for (Map<String, Object> counter : crossed) {
+                    alert(key, (String) counter.get("discipline"), ((Number) counter.get("absent")).intValue(),
+                            ((Number) counter.get("total")).intValue(), adminIds);
+                    created++;
+                }
+            }
+            saveCheckpoint(checkpoint != null, upTo);
+            logger.info("Detecção de faltas: {} alunos/períodos recalculados, {} alertas em {} ms",
+                    keys.size(), created, System.currentTimeMillis() - start);
+            return created;
+        });
+        return alerts != null ? alerts : 0;
+    }
+
+    // Recalcula os contadores do aluno no período (todas as disciplinas), pelo índice (classroom_id, student_id, date)
+    private void refreshCounters(PeriodKey key) {
+        Date periodStart = Date.valueOf(key.periodStart());
+        jdbcTemplate.update("DELETE FROM attendance_absence_counters WHERE classroom_id = ? AND student_id = ? AND period_start = ?",
+                key.classroomId(), key.studentId(), periodStart);
+        jdbcTemplate.update("INSERT INTO attendance_absence_counters " +
+                        "(classroom_id, student_id, discipline, period_start, period_end, absent, total, updated_at) " +
+                        "SELECT classroom_id, student_id, COALESCE(discipline, ''), CAST(? AS DATE), CAST(? AS DATE), " +
+                        "SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END), COUNT(*), CAST(? AS TIMESTAMP) " +
+                        "FROM attendances WHERE classroom_id = ? AND student_id = ? AND date BETWEEN ? AND ? " +
+                        "GROUP BY classroom_id, student_id, COALESCE(discipline, '')",
+                periodStart, Date.valueOf(key.periodEnd()), Timestamp.valueOf(LocalDateTime.now()),
+                key.classroomId(), key.studentId(), periodStart, Date.valueOf(key.periodEnd()));
+    }
+
+    // Contadores acima do limite que ainda não geraram alerta no período
+    private List<Map<String, Object>> findNewCrossings(PeriodKey key) {
+        return jdbcTemplate.queryForList("SELECT c.discipline AS discipline, c.absent AS absent, c.total AS total " +
+                        "FROM attendance_absence_counters c " +
+                        "WHERE c.classroom_id = ? AND c.student_id = ? AND c.period_start = ? " +
+                        "AND c.total >= ? AND c.absent >= c.total * ? " +
+                        "AND NOT EXISTS (SELECT 1 FROM attendance_absence_alerts a WHERE a.classroom_id = c.classroom_id " +
+                        "AND a.student_id = c.student_id AND a.period_start = c.period_start AND a.discipline = c.discipline)",
+                key.classroomId(), key.studentId(), Date.valueOf(key.periodStart()), minRecords, threshold);
+    }
+
+    private void alert(PeriodKey key, String discipline, int absent, int total, List<Long> adminIds) {
+        jdbcTemplate.update("INSERT INTO attendance_absence_alerts " +
+                        "(classroom_id, student_id, discipline, period_start, absent, total, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                key.classroomId(), key.studentId(), discipline, Date.valueOf(key.periodStart()), absent, total,
+                Timestamp.valueOf(LocalDateTime.now()));
+
+        Map<String, Object> names = jdbcTemplate.queryForMap("SELECT COALESCE(u.nome_completo, u.name, u.email) AS student, " +
+                        "c.name AS classroom FROM users u, classrooms c WHERE u.id = ? AND c.id = ?",
+                key.studentId(), key.classroomId());
+        String message = String.format("%s (%s) faltou em %d de %d aulas%s no %s (%.0f%%).",
+                names.get("student"), names.get("classroom"), absent, total,
+                discipline.isEmpty() ? "" : " de " + discipline, calendar.label(key.term()), 100.0 * absent / total);
+
+        Set<Long> recipients = new LinkedHashSet<>(classroomRepository.findTeacherIds(key.classroomId()));
+        recipients.addAll(adminIds);
+        LocalDateTime now = LocalDateTime.now();
+        for (Long userId : recipients) {
+            notificationRepository.save(Notification.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .title("Alerta de faltas")
+                    .message(message)
+                    .notificationType(NOTIFICATION_TYPE)
+                    .createdAt(now)
+                    .build());
+        }
+        logger.info("Alerta de faltas: aluno {} na sala {} ({}), {} de {}; {} destinatários",
+                key.studentId(), key.classroomId(), discipline, absent, total, recipients.size());
+    }
+
+    private LocalDateTime readCheckpoint() {
+        List<Timestamp> rows = jdbcTemplate.queryForList("SELECT checkpoint_at FROM job_checkpoints WHERE name = ?",
+                Timestamp.class, CHECKPOINT_NAME);
+        return rows.isEmpty() ? null : rows.get(0).toLocalDateTime();
+    }
+
+    private void saveCheckpoint(boolean exists, LocalDateTime upTo) {
+        if (exists) {
+            jdbcTemplate.update("UPDATE job_checkpoints SET checkpoint_at = ? WHERE name = ?", Timestamp.valueOf(upTo), CHECKPOINT_NAME);
+        } else {
+            jdbcTemplate.update("INSERT INTO job_checkpoints (name, checkpoint_at) VALUES (?, ?)", CHECKPOINT_NAME, Timestamp.valueOf(upTo));
+        }
+    }
+}
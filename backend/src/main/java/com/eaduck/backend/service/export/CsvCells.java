@@ -0,0 +1,39 @@
+package com.eaduck.backend.service.export;
+
+/**
+ * Escape das células dos CSVs gerados (exportações e manifest.csv das submissões), no formato
+ * separado por ";".
+ */
+public final class CsvCells {
+
+    private CsvCells() {
+    }
+
+    /**
+     * Texto livre: além das aspas, neutraliza valores que o Excel/LibreOffice interpretariam como
+     * fórmula (iniciados por =, +, -, @, tabulação ou CR) prefixando um apóstrofo.
+     */
+    public static String text(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+        return quote(value);
+    }
+
+    /**
+     * Valor já formatado pelo próprio sistema (números, datas): só as aspas.
+     */
+    public static String quote(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (value.contains(";") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
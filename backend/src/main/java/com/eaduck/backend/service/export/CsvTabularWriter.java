@@ -0,0 +1,78 @@
+package com.eaduck.backend.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * CSV no formato já usado no manifest.csv das submissões: UTF-8 com BOM (para o Excel),
+ * separador ";", quebras de linha CRLF e números com vírgula decimal.
+ */
+class CsvTabularWriter implements TabularWriter {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private final Writer writer;
+
+    CsvTabularWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void header(String... columns) throws IOException {
+        // BOM para o Excel reconhecer UTF-8
+        writer.write('\uFEFF');
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(';');
+            }
+            // Números e datas são formatados aqui; o restante é texto livre do usuário
+            String cell = format(values[i]);
+            writer.write(values[i] instanceof String ? CsvCells.text(cell) : CsvCells.quote(cell));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        // O stream pertence a quem chamou; nada a liberar
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof LocalDate date) {
+            return date.format(DATE);
+        }
+        if (value instanceof LocalTime time) {
+            return time.format(TIME);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(PT_BR, "%.2f", ((Number) value).doubleValue());
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? "Sim" : "Não";
+        }
+        return value.toString();
+    }
+}
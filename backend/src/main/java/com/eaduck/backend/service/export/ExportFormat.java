@@ -0,0 +1,46 @@
+package com.eaduck.backend.service.export;
+
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+
+/**
+ * Formatos de planilha das exportações.
+ */
+public enum ExportFormat {
+
+    CSV("csv", MediaType.parseMediaType("text/csv; charset=UTF-8")),
+    XLSX("xlsx", MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Formato pelo parâmetro da requisição ("csv" ou "xlsx"); null se não for suportado.
+     */
+    public static ExportFormat fromParam(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    TabularWriter open(OutputStream out, String sheetName) {
+        return this == CSV ? new CsvTabularWriter(out) : new XlsxTabularWriter(out, sheetName);
+    }
+}
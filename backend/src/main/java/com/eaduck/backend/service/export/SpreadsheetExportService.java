@@ -0,0 +1,198 @@
+package com.eaduck.backend.service.export;
+
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.model.enums.Role;
+import com.eaduck.backend.model.task.Task;
+import com.eaduck.backend.repository.AttendanceRepository;
+import com.eaduck.backend.repository.SubmissionRepository;
+import com.eaduck.backend.repository.TaskRepository;
+import com.eaduck.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exportações em planilha (CSV/XLSX) de frequência, notas e usuários.
+ *
+ * As linhas são lidas com cursor (consultas de projeção com fetch size, sem carregar entidades) e
+ * escritas uma a uma no stream da resposta, então a memória não depende do tamanho da exportação.
+ * Os métodos rodam na thread do streaming, fora do OSIV, por isso abrem sua própria transação
+ * somente leitura (necessária para consumir os streams do Spring Data).
+ */
+@Service
+public class SpreadsheetExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpreadsheetExportService.class);
+
+    private final AttendanceRepository attendanceRepository;
+    private final SubmissionRepository submissionRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SpreadsheetExportService(AttendanceRepository attendanceRepository,
+                                    SubmissionRepository submissionRepository,
+                                    TaskRepository taskRepository,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.attendanceRepository = attendanceRepository;
+        this.submissionRepository = submissionRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long write(TabularWriter writer) throws IOException;
+    }
+
+    /**
+     * Frequências da sala no período, uma linha por aluno × dia.
+     */
+    public void writeAttendance(Long classroomId, LocalDate startDate, LocalDate endDate,
+                                ExportFormat format, OutputStream out) throws IOException {
+        run(format, out, "Frequência", "frequência da sala " + classroomId, writer -> {
+            writer.header("Data", "ID Aluno", "Aluno", "E-mail", "Status", "Horário Chegada",
+                    "Disciplina", "Período", "Observações");
+            long count = 0;
+            try (Stream<Object[]> rows = attendanceRepository.streamExportRows(classroomId, startDate, endDate)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    writer.row(row[0], row[1], displayName(row[2], row[3], row[4]), row[4],
+                            statusLabel((AttendanceStatus) row[5]), row[6], row[7], row[8], row[9]);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Matriz de notas da sala: uma linha por aluno e uma coluna por tarefa.
+     */
+    public void writeGrades(Long classroomId, ExportFormat format, OutputStream out) throws IOException {
+        run(format, out, "Notas", "notas da sala " + classroomId, writer -> {
+            List<Task> tasks = taskRepository.findByClassroomId(classroomId).stream()
+                    .sorted(Comparator.comparing(Task::getId))
+                    .toList();
+            Map<Long, Integer> columnByTask = new HashMap<>();
+            String[] header = new String[3 + tasks.size()];
+            header[0] = "ID Aluno";
+            header[1] = "Aluno";
+            header[2] = "E-mail";
+            for (int i = 0; i < tasks.size(); i++) {
+                columnByTask.put(tasks.get(i).getId(), 3 + i);
+                header[3 + i] = tasks.get(i).getTitle();
+            }
+            writer.header(header);
+
+            // As linhas chegam ordenadas por aluno: acumula as notas do aluno atual e grava ao trocar de aluno
+            long count = 0;
+            Object[] current = null;
+            try (Stream<Object[]> rows = submissionRepository.streamGradeExportRows(classroomId)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    if (current == null || !current[0].equals(row[0])) {
+                        if (current != null) {
+                            writer.row(current);
+                            count++;
+                        }
+                        current = new Object[header.length];
+                        current[0] = row[0];
+                        current[1] = displayName(row[1], row[2], row[3]);
+                        current[2] = row[3];
+                    }
+                    Integer column = row[4] != null ? columnByTask.get((Long) row[4]) : null;
+                    if (column != null) {
+                        current[column] = row[5];
+                    }
+                }
+            }
+            if (current != null) {
+                writer.row(current);
+                count++;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Cadastro de usuários (alunos, professores e administradores).
+     */
+    public void writeUsers(ExportFormat format, OutputStream out) throws IOException {
+        run(format, out, "Usuários", "usuários", writer -> {
+            writer.header("ID", "E-mail", "Nome Completo", "Apelido", "Tipo", "Ativo", "CPF", "Data Nasc.",
+                    "Telefone", "Endereço", "Nome Mãe", "Nome Pai", "Titulação");
+            long count = 0;
+            try (Stream<Object[]> rows = userRepository.streamExportRows()) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    writer.row(row[0], row[1], row[2], row[3], roleLabel((Role) row[4]), row[5], row[6], row[7],
+                            row[8], row[9], row[10], row[11], row[12]);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private void run(ExportFormat format, OutputStream out, String sheetName, String description, Export export)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            Long rows = transactionTemplate.execute(status -> {
+                try (TabularWriter writer = format.open(out, sheetName)) {
+                    long count = export.write(writer);
+                    writer.finish();
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Exportação {} ({}) concluída: {} linhas em {} ms",
+                    description, format, rows, System.currentTimeMillis() - start);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String displayName(Object nomeCompleto, Object name, Object email) {
+        if (nomeCompleto != null) {
+            return nomeCompleto.toString();
+        }
+        return name != null ? name.toString() : (email != null ? email.toString() : null);
+    }
+
+    private static String statusLabel(AttendanceStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return switch (status) {
+            case PRESENT -> "Presente";
+            case ABSENT -> "Ausente";
+            case LATE -> "Atrasado";
+        };
+    }
+
+    private static String roleLabel(Role role) {
+        if (role == null) {
+            return null;
+        }
+        return switch (role) {
+            case STUDENT -> "Aluno";
+            case TEACHER -> "Professor";
+            case ADMIN -> "Administrador";
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.eaduck.backend.service.export;
+
+import java.io.IOException;
+
+/**
+ * Escrita de linhas de planilha em streaming: cada linha é gravada (ou enviada ao buffer do formato)
+ * assim que recebida, sem manter o arquivo inteiro em memória.
+ *
+ * Valores aceitos: texto, números, datas ({@code LocalDate}, {@code LocalTime}), booleanos, enums e null (célula vazia).
+ */
+interface TabularWriter extends AutoCloseable {
+
+    void header(String... columns) throws IOException;
+
+    void row(Object... values) throws IOException;
+
+    /**
+     * Conclui o arquivo. O stream de saída não é fechado.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Libera recursos (ex.: arquivos temporários do XLSX), mesmo que {@link #finish()} não tenha sido chamado.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,124 @@
+package com.eaduck.backend.service.export;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * XLSX com o SXSSF do Apache POI: só as últimas {@link #WINDOW_ROWS} linhas ficam em memória,
+ * as anteriores vão para um arquivo temporário compactado e são copiadas para a saída em {@link #finish()}.
+ */
+class XlsxTabularWriter implements TabularWriter {
+
+    private static final int WINDOW_ROWS = 100;
+    // Limite de linhas de uma planilha do Excel
+    private static final int MAX_ROWS = 1_048_576;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final String sheetName;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle decimalStyle;
+    private Sheet sheet;
+    private String[] columns;
+    private int sheetCount;
+    private int rowIndex;
+
+    XlsxTabularWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(WINDOW_ROWS);
+        this.workbook.setCompressTempFiles(true);
+        this.sheetName = sheetName;
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        this.headerStyle.setFont(bold);
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+        this.decimalStyle = workbook.createCellStyle();
+        this.decimalStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+    }
+
+    @Override
+    public void header(String... columns) {
+        this.columns = columns;
+        newSheet();
+    }
+
+    @Override
+    public void row(Object... values) {
+        if (sheet == null) {
+            newSheet();
+        } else if (rowIndex >= MAX_ROWS) {
+            // Continua em outra aba, repetindo o cabeçalho
+            newSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+                if (value instanceof Double || value instanceof Float) {
+                    cell.setCellStyle(decimalStyle);
+                }
+            } else if (value instanceof LocalDate date) {
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+            } else if (value instanceof LocalTime time) {
+                cell.setCellValue(time.format(TIME));
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool ? "Sim" : "Não");
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheet == null) {
+            newSheet();
+        }
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.dispose();
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private void newSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+        rowIndex = 0;
+        if (columns != null) {
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < columns.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(columns[i]);
+                cell.setCellStyle(headerStyle);
+            }
+        }
+    }
+}
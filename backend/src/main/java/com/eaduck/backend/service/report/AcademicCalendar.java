@@ -0,0 +1,85 @@
+package com.eaduck.backend.service.report;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Calendário letivo usado para separar as frequências por período nos relatórios.
+ *
+ * Configurado em {@code academic-calendar.terms} como faixas de meses separadas por vírgula
+ * (padrão "2-4,5-7,8-11": 1º bimestre fevereiro a abril, 2º maio a julho, 3º agosto a novembro).
+ * Meses fora das faixas não entram em nenhum período.
+ */
+@Component
+public class AcademicCalendar {
+
+    // Período (0, 1, ...) de cada mês (índice 1 a 12); -1 fora do período letivo
+    private final int[] termByMonth = new int[13];
+    // Primeiro e último mês de cada período
+    private final int[] firstMonth;
+    private final int[] lastMonth;
+    private final int termCount;
+    private final String termLabel;
+
+    public AcademicCalendar(@Value("${academic-calendar.terms:2-4,5-7,8-11}") String terms,
+                            @Value("${academic-calendar.term-label:BIM}") String termLabel) {
+        Arrays.fill(termByMonth, -1);
+        String[] ranges = terms.split(",");
+        firstMonth = new int[ranges.length];
+        lastMonth = new int[ranges.length];
+        for (int term = 0; term < ranges.length; term++) {
+            String[] bounds = ranges[term].trim().split("-");
+            int from = Integer.parseInt(bounds[0].trim());
+            int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+            if (from < 1 || to > 12 || from > to) {
+                throw new IllegalArgumentException("Faixa de meses inválida em academic-calendar.terms: " + ranges[term]);
+            }
+            firstMonth[term] = from;
+            lastMonth[term] = to;
+            for (int month = from; month <= to; month++) {
+                if (termByMonth[month] != -1) {
+                    throw new IllegalArgumentException("Mês " + month + " em mais de um período em academic-calendar.terms");
+                }
+                termByMonth[month] = term;
+            }
+        }
+        this.termCount = ranges.length;
+        this.termLabel = termLabel;
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    /**
+     * Período (a partir de 0) do mês (1 a 12), ou -1 se o mês está fora do período letivo.
+     */
+    public int termOf(int month) {
+        return month >= 1 && month <= 12 ? termByMonth[month] : -1;
+    }
+
+    /**
+     * Primeiro dia do período no ano.
+     */
+    public LocalDate termStart(int year, int term) {
+        return LocalDate.of(year, firstMonth[term], 1);
+    }
+
+    /**
+     * Último dia do período no ano.
+     */
+    public LocalDate termEnd(int year, int term) {
+        return YearMonth.of(year, lastMonth[term]).atEndOfMonth();
+    }
+
+    /**
+     * Rótulo do período no cabeçalho dos relatórios (ex.: "1º BIM").
+     */
+    public String label(int term) {
+        return (term + 1) + "º " + termLabel;
+    }
+}
@@ -0,0 +1,428 @@
+package com.eaduck.backend.service.report;
+
+import com.eaduck.backend.model.attendance.Attendance;
+import com.eaduck.backend.model.classroom.Classroom;
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import com.eaduck.backend.model.enums.Period;
+import com.eaduck.backend.model.submission.dto.GradeSummary;
+import com.eaduck.backend.model.task.Task;
+import com.eaduck.backend.model.user.User;
+import com.eaduck.backend.repository.AttendanceRepository;
+import com.eaduck.backend.repository.ClassroomRepository;
+import com.eaduck.backend.repository.SubmissionRepository;
+import com.eaduck.backend.repository.TaskRepository;
+import com.eaduck.backend.repository.UserRepository;
+import com.itextpdf.layout.element.Paragraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relatórios PDF de notas e frequência de uma sala. Cada método carrega os dados e devolve o
+ * conteúdo pronto para ser escrito, tanto na resposta (exportação direta) quanto em arquivo
+ * (relatórios em segundo plano, ver {@link ReportJobService}).
+ */
+@Service
+public class ClassroomReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassroomReportService.class);
+
+    private final ClassroomRepository classroomRepository;
+    private final UserRepository userRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final SubmissionRepository submissionRepository;
+    private final TaskRepository taskRepository;
+    private final ReportAggregateService reportAggregateService;
+    private final AcademicCalendar calendar;
+    private final ReportTable<GradeRow> studentGradesTable;
+
+    public ClassroomReportService(ClassroomRepository classroomRepository,
+                                  UserRepository userRepository,
+                                  AttendanceRepository attendanceRepository,
+                                  SubmissionRepository submissionRepository,
+                                  TaskRepository taskRepository,
+                                  ReportAggregateService reportAggregateService) {
+        this.classroomRepository = classroomRepository;
+        this.userRepository = userRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.submissionRepository = submissionRepository;
+        this.taskRepository = taskRepository;
+        this.reportAggregateService = reportAggregateService;
+        this.calendar = reportAggregateService.calendar();
+        this.studentGradesTable = studentGradesTable(calendar);
+    }
+
+    /**
+     * Carrega sala (e aluno) pelos ids da requisição. Deve rodar dentro de uma transação,
+     * pois os relatórios percorrem as coleções lazy da sala.
+     */
+    public PreparedReport prepare(ReportRequest request) {
+        Classroom classroom = classroomRepository.findById(request.classroomId())
+                .orElseThrow(() -> new IllegalArgumentException("Sala não encontrada: " + request.classroomId()));
+        return switch (request.type()) {
+            case CLASSROOM_GRADES -> allStudentsGrades(classroom);
+            case STUDENT_GRADES -> studentGrades(classroom, userRepository.findById(request.studentId())
+                    .orElseThrow(() -> new IllegalArgumentException("Aluno não encontrado: " + request.studentId())));
+            case ATTENDANCE_SHEET -> attendanceSheet(classroom, request.date());
+        };
+    }
+
+    /**
+     * Versão dos dados de entrada do relatório: muda quando alunos da sala, tarefas, notas ou
+     * frequências usadas por ele mudam (consultas agregadas) e quando os textos impressos mudam:
+     * nome e ano da sala, nomes dos alunos e títulos/disciplinas das tarefas entram como um hash.
+     */
+    public String dataVersion(ReportRequest request) {
+        Long classroomId = request.classroomId();
+        StringBuilder version = new StringBuilder();
+        append(version, classroomRepository.findStudentsVersionById(classroomId));
+        appendHash(version, classroomRepository.findReportNamesById(classroomId));
+        switch (request.type()) {
+            case CLASSROOM_GRADES -> {
+                append(version, taskRepository.findVersionByClassroomId(classroomId));
+                appendHash(version, taskRepository.findReportNamesByClassroomId(classroomId));
+                append(version, submissionRepository.findGradeVersionByClassroomId(classroomId));
+            }
+            case STUDENT_GRADES -> {
+                append(version, taskRepository.findVersionByClassroomId(classroomId));
+                appendHash(version, taskRepository.findReportNamesByClassroomId(classroomId));
+                append(version, submissionRepository.findGradeVersionByClassroomId(classroomId));
+                append(version, attendanceRepository.findVersionByClassroomId(classroomId));
+            }
+            case ATTENDANCE_SHEET ->
+                append(version, attendanceRepository.findVersionByClassroomIdAndDate(classroomId, request.date()));
+        }
+        return version.toString();
+    }
+
+    private static void append(StringBuilder version, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                version.append(value).append('|');
+            }
+        }
+    }
+
+    // SHA-256 dos valores (separados por um byte zero para não confundir "ab","c" com "a","bc")
+    private static void appendHash(StringBuilder version, List<Object[]> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object[] row : rows) {
+                for (Object value : row) {
+                    digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            }
+            version.append(HexFormat.of().formatHex(digest.digest())).append('|');
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Linha dos relatórios de notas (uma por aluno × disciplina). As frequências (uma por período do
+     * calendário letivo) só aparecem no boletim individual.
+     */
+    record GradeRow(String nome, String matricula, String disciplina, Double nota1, Double nota2, Double nota3,
+                    Double media, List<Double> frequencias, String recuperacao, String resultado) {}
+
+    /**
+     * Linha da ficha de frequência.
+     */
+    record AttendanceRow(int numero, User student, Attendance attendance) {
+
+        AttendanceStatus status() {
+            return attendance != null ? attendance.getStatus() : null;
+        }
+    }
+
+    private static final ReportTable<GradeRow> CLASSROOM_GRADES_TABLE = ReportTable.<GradeRow>builder()
+            .column("NOME DO ALUNO", 80, row -> ReportStyles.truncate(row.nome(), 20, 17))
+            .column("MATRÍCULA", 40, GradeRow::matricula)
+            .column("DISCIPLINA", 80, row -> ReportStyles.truncate(row.disciplina(), 20, 17))
+            .column("NOTA 1", 35, row -> ReportStyles.decimal(row.nota1()))
+            .column("NOTA 2", 35, row -> ReportStyles.decimal(row.nota2()))
+            .column("NOTA 3", 35, row -> ReportStyles.decimal(row.nota3()))
+            .column("MÉDIA", 40, row -> ReportStyles.decimal(row.media()))
+            .column("RECUPERAÇÃO", 45, GradeRow::recuperacao)
+            .column("RESULTADO FINAL", 60, GradeRow::resultado)
+            .build();
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final ReportTable<AttendanceRow> ATTENDANCE_TABLE = ReportTable.<AttendanceRow>builder()
+            .percentWidths()
+            .styles(ReportStyles.SHEET_HEADER_CELL, ReportStyles.SHEET_BODY_CELL)
+            .column("Nº", 5, row -> String.valueOf(row.numero()))
+            .column("Nome do Aluno", 40, row -> ReportStyles.truncate(displayName(row.student()), 30, 27))
+            // X na coluna do status registrado
+            .column("Presente", 10, row -> row.status() == AttendanceStatus.PRESENT ? "X" : "")
+            .column("Ausente", 10, row -> row.status() == AttendanceStatus.ABSENT ? "X" : "")
+            .column("Atrasado", 10, row -> row.status() == AttendanceStatus.LATE ? "X" : "")
+            .column("Horário Chegada", 15, row -> row.attendance() != null && row.attendance().getArrivalTime() != null
+                    ? row.attendance().getArrivalTime().format(TIME) : "")
+            .column("Observações", 10, row -> row.attendance() != null && row.attendance().getObservations() != null
+                    ? ReportStyles.truncate(row.attendance().getObservations(), 20, 17) : "")
+            .build();
+
+    // Boletim individual: uma coluna de frequência por período do calendário letivo
+    private static ReportTable<GradeRow> studentGradesTable(AcademicCalendar calendar) {
+        ReportTable.Builder<GradeRow> builder = ReportTable.<GradeRow>builder()
+                .column("NOME DO ALUNO", 65, row -> ReportStyles.truncate(row.nome(), 18, 15))
+                .column("MATRÍCULA", 30, GradeRow::matricula)
+                .column("DISCIPLINA", 65, row -> ReportStyles.truncate(row.disciplina(), 18, 15))
+                .column("NOTA 1", 28, row -> ReportStyles.decimal(row.nota1()))
+                .column("NOTA 2", 28, row -> ReportStyles.decimal(row.nota2()))
+                .column("NOTA 3", 28, row -> ReportStyles.decimal(row.nota3()))
+                .column("MÉDIA", 32, row -> ReportStyles.decimal(row.media()));
+        // Frequência de cada período (formato: 85% ou "-" se não houver dados)
+        for (int term = 0; term < calendar.termCount(); term++) {
+            int index = term;
+            builder.column("FREQ. " + calendar.label(term), 32, row -> ReportStyles.percent(row.frequencias().get(index)));
+        }
+        return builder
+                .column("RECUPERAÇÃO", 35, GradeRow::recuperacao)
+                .column("RESULTADO FINAL", 50, GradeRow::resultado)
+                .build();
+    }
+
+    /**
+     * Boletim de um aluno: notas por disciplina e frequência por período letivo.
+     */
+    public PreparedReport studentGrades(Classroom classroom, User student) {
+        // Frequência por disciplina/período e resumo das notas já agregados no banco
+        return studentGrades(classroom, student, taskGroups(classroom),
+                reportAggregateService.forStudent(classroom.getId(), student.getId()));
+    }
+
+    /**
+     * Boletins de todos os alunos da sala, ordenados pelo nome. Os agregados da sala são carregados
+     * uma vez e repartidos por aluno; o conteúdo de cada boletim não acessa o banco e pode ser
+     * escrito em paralelo (ver {@link ReportCardArchive}).
+     */
+    public List<PreparedReport> reportCards(Classroom classroom) {
+        Map<Long, ReportAggregates> aggregates = reportAggregateService.forClassroom(classroom.getId());
+        Set<String> taskGroups = taskGroups(classroom);
+
+        List<User> students = new ArrayList<>(classroom.getStudents());
+        students.sort(Comparator.comparing(ClassroomReportService::displayName, String.CASE_INSENSITIVE_ORDER));
+        List<PreparedReport> reports = new ArrayList<>(students.size());
+        for (User student : students) {
+            reports.add(studentGrades(classroom, student, taskGroups,
+                    aggregates.getOrDefault(student.getId(), new ReportAggregates())));
+        }
+        logger.info("Boletins preparados - Sala: {}, Alunos: {}, Alunos com notas ou frequência: {}",
+                classroom.getName(), students.size(), aggregates.size());
+        return reports;
+    }
+
+    private PreparedReport studentGrades(Classroom classroom, User student, Set<String> taskGroups,
+                                         ReportAggregates aggregates) {
+        // Disciplinas com frequência registrada e grupos de tarefas (tasks com mesmo título são a mesma disciplina)
+        Set<String> allDisciplines = new LinkedHashSet<>(aggregates.attendanceByDiscipline().keySet());
+        allDisciplines.addAll(taskGroups);
+        allDisciplines.addAll(aggregates.gradesByGroup().keySet());
+
+        int termCount = calendar.termCount();
+        String studentName = displayName(student);
+        String matricula = String.valueOf(student.getId());
+        List<GradeRow> rows = new ArrayList<>();
+
+        // Processar todas as disciplinas (com notas e/ou frequência)
+        for (String disciplinaName : allDisciplines) {
+            GradeSummary notas = aggregates.gradesByGroup().get(disciplinaName);
+            ReportAggregates.TermAttendance frequencia = aggregates.attendanceByDiscipline().get(disciplinaName);
+
+            List<Double> frequencias = new ArrayList<>(termCount);
+            for (int term = 0; term < termCount; term++) {
+                frequencias.add(frequencia != null ? frequencia.rate(term) : null);
+            }
+
+            Double media = notas != null ? notas.average() : null;
+            rows.add(new GradeRow(studentName, matricula, disciplinaName,
+                    notas != null ? notas.grade1() : null,
+                    notas != null ? notas.grade2() : null,
+                    notas != null ? notas.grade3() : null,
+                    media, frequencias, "-", media != null ? result(media) : "Em andamento"));
+        }
+
+        // Se não houver nenhuma disciplina, adicionar linha vazia
+        if (rows.isEmpty()) {
+            rows.add(new GradeRow(studentName, matricula, "-", null, null, null, null,
+                    Collections.nCopies(termCount, 1.0), "-", "Em andamento"));
+        }
+
+        String filename = "notas_" + studentName.replaceAll("[^a-zA-Z0-9]", "_") + ".pdf";
+        return new PreparedReport(filename, document -> {
+            document.add(ReportStyles.title("Relatório de Notas - EaDuck", 16, 5));
+            document.add(ReportStyles.generatedAt(15));
+            document.add(classroomInfo(classroom));
+            studentGradesTable.write(document, rows);
+        });
+    }
+
+    /**
+     * Notas de todos os alunos da sala em uma única tabela.
+     */
+    public PreparedReport allStudentsGrades(Classroom classroom) {
+        List<User> students = new ArrayList<>(classroom.getStudents());
+
+        // Resumo das notas de todos os alunos da sala, agregado no banco
+        Map<Long, ReportAggregates> aggregates = reportAggregateService.forClassroom(classroom.getId());
+
+        List<GradeRow> rows = new ArrayList<>();
+        for (User student : students) {
+            String studentName = displayName(student);
+            String matricula = String.valueOf(student.getId());
+
+            // Notas agrupadas por título (disciplina)
+            ReportAggregates studentAggregates = aggregates.get(student.getId());
+            Map<String, GradeSummary> gradesByDisciplina = studentAggregates != null
+                    ? studentAggregates.gradesByGroup() : Map.of();
+            if (gradesByDisciplina.isEmpty()) {
+                // Aluno sem notas - linha com "Em andamento"
+                rows.add(new GradeRow(studentName, matricula, "-", null, null, null, null,
+                        List.of(), "-", "Em andamento"));
+                continue;
+            }
+            gradesByDisciplina.forEach((disciplinaName, notas) -> {
+                Double media = notas.average();
+                rows.add(new GradeRow(studentName, matricula, disciplinaName,
+                        notas.grade1(), notas.grade2(), notas.grade3(), media,
+                        List.of(), "-", media != null ? result(media) : "-"));
+            });
+        }
+
+        String filename = "notas_todos_alunos_" + classroom.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".pdf";
+        return new PreparedReport(filename, document -> {
+            document.add(ReportStyles.title("Relatório de Notas - EaDuck", 16, 5));
+            document.add(ReportStyles.generatedAt(15));
+            document.add(classroomInfo(classroom));
+            CLASSROOM_GRADES_TABLE.write(document, rows);
+        });
+    }
+
+    /**
+     * Ficha de frequência da sala em uma data.
+     */
+    public PreparedReport attendanceSheet(Classroom classroom, LocalDate date) {
+        List<Attendance> attendances = attendanceRepository.findByClassroomAndDate(classroom, date);
+        List<User> students = new ArrayList<>(classroom.getStudents());
+
+        logger.info("Gerando PDF - Sala: {}, Data: {}, Total alunos: {}, Frequências encontradas: {}",
+                classroom.getName(), date, students.size(), attendances.size());
+
+        // Frequência de cada aluno por id, em vez de procurar na lista a cada linha
+        Map<Long, Attendance> attendanceByStudent = new HashMap<>();
+        // Resumo - contar apenas frequências salvas
+        long presentes = 0;
+        long ausentes = 0;
+        long atrasados = 0;
+        for (Attendance att : attendances) {
+            if (att.getStudent() != null && att.getStudent().getId() != null) {
+                attendanceByStudent.putIfAbsent(att.getStudent().getId(), att);
+            }
+            if (att.getStatus() == AttendanceStatus.PRESENT) {
+                presentes++;
+            } else if (att.getStatus() == AttendanceStatus.ABSENT) {
+                ausentes++;
+            } else if (att.getStatus() == AttendanceStatus.LATE) {
+                atrasados++;
+            }
+        }
+
+        List<AttendanceRow> rows = new ArrayList<>(students.size());
+        for (User student : students) {
+            Attendance attendance = student.getId() != null ? attendanceByStudent.get(student.getId()) : null;
+            if (attendance == null) {
+                logger.warn("Aluno {} sem frequência registrada", student.getId());
+            }
+            rows.add(new AttendanceRow(rows.size() + 1, student, attendance));
+        }
+
+        double percentual = students.size() > 0 ? (presentes * 100.0 / students.size()) : 0;
+
+        logger.info("Resumo PDF - Total alunos: {}, Presentes: {}, Ausentes: {}, Atrasados: {}",
+                students.size(), presentes, ausentes, atrasados);
+
+        String disciplina = !attendances.isEmpty() ? attendances.get(0).getDiscipline() : null;
+        Period period = !attendances.isEmpty() ? attendances.get(0).getPeriod() : null;
+
+        Paragraph resumo = new Paragraph()
+                .setFontSize(10)
+                .setBold()
+                .setMarginTop(15);
+        resumo.add(new Paragraph("Total de alunos: " + students.size()));
+        resumo.add(new Paragraph("Presentes: " + presentes));
+        resumo.add(new Paragraph("Ausentes: " + ausentes));
+        resumo.add(new Paragraph("Atrasados: " + atrasados));
+        resumo.add(new Paragraph("Percentual de presença: " + String.format("%.2f", percentual) + "%"));
+
+        String filename = "frequencia_" + classroom.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_" +
+                date.format(DateTimeFormatter.ofPattern("ddMMyyyy")) + ".pdf";
+        return new PreparedReport(filename, document -> {
+            document.add(ReportStyles.title("Ficha de Frequência", 16, 10));
+
+            // Informações
+            Paragraph info = new Paragraph()
+                    .setFontSize(11)
+                    .setBold()
+                    .setMarginBottom(10);
+            info.add(new Paragraph("Nome da Sala: " + classroom.getName()));
+            info.add(new Paragraph("Data: " + date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
+            if (disciplina != null) {
+                info.add(new Paragraph("Disciplina: " + disciplina));
+            }
+            if (period != null) {
+                info.add(new Paragraph("Período: " + period));
+            }
+            document.add(info);
+
+            ATTENDANCE_TABLE.write(document, rows);
+            document.add(resumo);
+        });
+    }
+
+    private static Paragraph classroomInfo(Classroom classroom) {
+        Paragraph classroomInfo = new Paragraph()
+                .setFontSize(11)
+                .setBold()
+                .setMarginBottom(10);
+        classroomInfo.add(new Paragraph("Nome da Sala: " + ReportStyles.orDash(classroom.getName())));
+        classroomInfo.add(new Paragraph("Ano Letivo: " + ReportStyles.orDash(classroom.getAcademicYear())));
+        return classroomInfo;
+    }
+
+    // Títulos das tarefas da sala, sem repetição
+    private static Set<String> taskGroups(Classroom classroom) {
+        Set<String> groups = new LinkedHashSet<>();
+        for (Task task : classroom.getTasks()) {
+            groups.add(task.getTitle());
+        }
+        return groups;
+    }
+
+    static String displayName(User user) {
+        return user.getNomeCompleto() != null ? user.getNomeCompleto()
+                : (user.getName() != null ? user.getName() : user.getEmail());
+    }
+
+    private static String result(double media) {
+        return media >= 6.0 ? "Aprovado" : "Reprovado";
+    }
+}
@@ -0,0 +1,85 @@
+package com.eaduck.backend.service.report;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Respostas PDF geradas em streaming: o documento é escrito direto no output stream da resposta
+ * (sem ByteArrayOutputStream nem toByteArray) e as páginas prontas são liberadas à medida que
+ * são fechadas. Tabelas grandes devem ser criadas com {@code new Table(larguras, true)},
+ * adicionadas ao documento antes das linhas e liberadas com {@link #flushIfNeeded} e
+ * {@code table.complete()}, para que a memória dependa do tamanho da página e não do documento.
+ */
+public final class PdfResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfResponses.class);
+
+    // Linhas de tabela grande mantidas em memória antes de serem desenhadas na página
+    public static final int FLUSH_EVERY_ROWS = 50;
+
+    @FunctionalInterface
+    public interface PdfContent {
+        void write(Document document) throws IOException;
+    }
+
+    private PdfResponses() {
+    }
+
+    /**
+     * Resposta com o PDF (A4 paisagem) escrito em streaming pelo conteúdo informado.
+     */
+    public static ResponseEntity<StreamingResponseBody> stream(String filename, PdfContent content) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+
+        StreamingResponseBody body = out -> {
+            try {
+                write(content, out);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Erro ao gerar PDF {}: {}", filename, e.getMessage(), e);
+                throw e;
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Escreve o PDF (A4 paisagem) no stream informado, sem fechá-lo.
+     */
+    public static void write(PdfContent content, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        // Quem fecha o stream é quem o abriu (container ou arquivo do relatório)
+        writer.setCloseStream(false);
+        Document document = new Document(new PdfDocument(writer), PageSize.A4.rotate());
+        // Fonte padrão criada a partir do programa compartilhado, em vez de resolver Helvetica a cada documento
+        document.setFont(ReportStyles.regularFont());
+        try {
+            content.write(document);
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * Libera as linhas já adicionadas a uma tabela grande a cada {@link #FLUSH_EVERY_ROWS} linhas.
+     */
+    public static void flushIfNeeded(com.itextpdf.layout.element.Table table, int rows) {
+        if (rows % FLUSH_EVERY_ROWS == 0) {
+            table.flush();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.eaduck.backend.service.report;
+
+/**
+ * Relatório com os dados já carregados: nome do arquivo e o conteúdo a ser escrito no PDF.
+ */
+public record PreparedReport(String filename, PdfResponses.PdfContent content) {
+}
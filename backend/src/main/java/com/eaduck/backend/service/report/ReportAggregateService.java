@@ -0,0 +1,74 @@
+package com.eaduck.backend.service.report;
+
+import com.eaduck.backend.model.submission.dto.GradeSummary;
+import com.eaduck.backend.repository.AttendanceRepository;
+import com.eaduck.backend.repository.SubmissionRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregados dos relatórios de notas calculados no banco com GROUP BY, em vez de carregar todas as
+ * frequências e notas da sala e separar em Java:
+ * - frequência por aluno, disciplina e mês, agrupada nos períodos do {@link AcademicCalendar}
+ *   (no máximo 12 linhas por aluno × disciplina);
+ * - média, quantidade e as três notas mais recentes por aluno e grupo de tarefas.
+ */
+@Service
+public class ReportAggregateService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final SubmissionRepository submissionRepository;
+    private final AcademicCalendar calendar;
+
+    public ReportAggregateService(AttendanceRepository attendanceRepository,
+                                  SubmissionRepository submissionRepository,
+                                  AcademicCalendar calendar) {
+        this.attendanceRepository = attendanceRepository;
+        this.submissionRepository = submissionRepository;
+        this.calendar = calendar;
+    }
+
+    public AcademicCalendar calendar() {
+        return calendar;
+    }
+
+    /**
+     * Agregados de todos os alunos da sala, por id do aluno (alunos sem notas nem frequência não aparecem).
+     */
+    public Map<Long, ReportAggregates> forClassroom(Long classroomId) {
+        return ReportAggregates.byStudent(
+                attendanceRepository.countByStudentDisciplineAndMonth(classroomId),
+                toSummaries(submissionRepository.summarizeGradesByClassroomId(classroomId)),
+                calendar);
+    }
+
+    public ReportAggregates forStudent(Long classroomId, Long studentId) {
+        Map<Long, ReportAggregates> result = ReportAggregates.byStudent(
+                attendanceRepository.countByDisciplineAndMonth(classroomId, studentId),
+                toSummaries(submissionRepository.summarizeGradesByClassroomIdAndStudentId(classroomId, studentId)),
+                calendar);
+        return result.getOrDefault(studentId, new ReportAggregates());
+    }
+
+    private static List<GradeSummary> toSummaries(List<Object[]> rows) {
+        List<GradeSummary> summaries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            summaries.add(new GradeSummary(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    toDouble(row[2]),
+                    ((Number) row[3]).longValue(),
+                    toDouble(row[4]),
+                    toDouble(row[5]),
+                    toDouble(row[6])));
+        }
+        return summaries;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+}
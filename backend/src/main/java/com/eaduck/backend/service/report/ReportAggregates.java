@@ -0,0 +1,86 @@
+package com.eaduck.backend.service.report;
+
+import com.eaduck.backend.model.attendance.dto.AttendanceMonthCount;
+import com.eaduck.backend.model.submission.dto.GradeSummary;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregados de um aluno para os relatórios de notas: frequência por disciplina e período letivo
+ * e resumo das notas por grupo de tarefas, já calculados no banco (ver {@link ReportAggregateService}).
+ */
+public final class ReportAggregates {
+
+    /**
+     * Presenças e total de registros de uma disciplina em cada período (índice = período).
+     */
+    public record TermAttendance(long[] present, long[] total) {
+
+        /**
+         * Fração de presenças no período, ou null se não há frequência registrada.
+         */
+        public Double rate(int term) {
+            return total[term] > 0 ? (double) present[term] / total[term] : null;
+        }
+    }
+
+    private final Map<String, TermAttendance> attendanceByDiscipline = new LinkedHashMap<>();
+    private final Map<String, GradeSummary> gradesByGroup = new LinkedHashMap<>();
+
+    ReportAggregates() {
+    }
+
+    void addAttendance(AttendanceMonthCount count, int term, int termCount) {
+        TermAttendance attendance = attendanceByDiscipline.computeIfAbsent(count.discipline(),
+                k -> new TermAttendance(new long[termCount], new long[termCount]));
+        attendance.present()[term] += count.present();
+        attendance.total()[term] += count.total();
+    }
+
+    void addGrades(GradeSummary summary) {
+        gradesByGroup.put(summary.group(), summary);
+    }
+
+    public Map<String, TermAttendance> attendanceByDiscipline() {
+        return attendanceByDiscipline;
+    }
+
+    public Map<String, GradeSummary> gradesByGroup() {
+        return gradesByGroup;
+    }
+
+    /**
+     * Média final do aluno na sala: média de todas as notas (as médias dos grupos ponderadas pela
+     * quantidade de notas), ou null se ele ainda não tem notas.
+     */
+    public Double finalAverage() {
+        double sum = 0.0;
+        long count = 0;
+        for (GradeSummary summary : gradesByGroup.values()) {
+            if (summary.average() != null && summary.count() > 0) {
+                sum += summary.average() * summary.count();
+                count += summary.count();
+            }
+        }
+        return count > 0 ? sum / count : null;
+    }
+
+    static Map<Long, ReportAggregates> byStudent(List<AttendanceMonthCount> attendance, List<GradeSummary> grades,
+                                                 AcademicCalendar calendar) {
+        Map<Long, ReportAggregates> result = new HashMap<>();
+        for (AttendanceMonthCount count : attendance) {
+            int term = calendar.termOf(count.month());
+            if (term >= 0) {
+                result.computeIfAbsent(count.studentId(), k -> new ReportAggregates())
+                        .addAttendance(count, term, calendar.termCount());
+            }
+        }
+        for (GradeSummary summary : grades) {
+            result.computeIfAbsent(summary.studentId(), k -> new ReportAggregates()).addGrades(summary);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.eaduck.backend.service.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escreve vários PDFs já preparados em um ZIP. Os PDFs são gerados em paralelo no pool
+ * "reportCardPool" e gravados no ZIP na ordem da lista, à medida que ficam prontos; no máximo
+ * {@code reports.report-cards.max-in-flight} documentos ficam em memória ao mesmo tempo.
+ */
+@Service
+public class ReportCardArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCardArchive.class);
+
+    private final ForkJoinPool pool;
+
+    @Value("${reports.report-cards.max-in-flight:8}")
+    private int maxInFlight;
+
+    public ReportCardArchive(@Qualifier("reportCardPool") ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Gera os PDFs e escreve o ZIP no stream informado, sem fechá-lo.
+     */
+    public void write(List<PreparedReport> reports, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Deque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+        Deque<String> names = new ArrayDeque<>();
+        Set<String> usedNames = new HashSet<>();
+        try {
+            for (PreparedReport report : reports) {
+                pending.add(pool.submit(() -> render(report)));
+                names.add(uniqueName(report.filename(), usedNames));
+                if (pending.size() >= maxInFlight) {
+                    writeEntry(zip, names.poll(), pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeEntry(zip, names.poll(), pending.poll());
+            }
+            zip.finish();
+        } finally {
+            // Em caso de erro (ex.: cliente desconectou), não gerar os PDFs restantes
+            pending.forEach(task -> task.cancel(true));
+        }
+        zip.flush();
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, ForkJoinTask<byte[]> task) throws IOException {
+        byte[] pdf = task.join();
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    private static byte[] render(PreparedReport report) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try {
+            PdfResponses.write(report.content(), out);
+        } catch (IOException e) {
+            logger.error("Erro ao gerar {}: {}", report.filename(), e.getMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Alunos com o mesmo nome geram o mesmo arquivo: acrescenta um sufixo numérico
+    private static String uniqueName(String filename, Set<String> usedNames) {
+        String name = filename;
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        String extension = dot > 0 ? filename.substring(dot) : "";
+        for (int i = 2; !usedNames.add(name); i++) {
+            name = base + "_" + i + extension;
+        }
+        return name;
+    }
+}
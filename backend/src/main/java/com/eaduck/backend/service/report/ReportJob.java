@@ -0,0 +1,95 @@
+package com.eaduck.backend.service.report;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geração de um relatório em segundo plano. Pedidos idênticos feitos enquanto o relatório
+ * é gerado compartilham o mesmo job; cada solicitante é registrado para poder consultá-lo.
+ */
+public class ReportJob {
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final ReportRequest request;
+    private final String cacheKey;
+    private final Instant createdAt = Instant.now();
+    private final Set<String> requesters = ConcurrentHashMap.newKeySet();
+
+    private volatile Status status = Status.PENDING;
+    private volatile String filename;
+    private volatile Path file;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    ReportJob(ReportRequest request, String cacheKey, String requester) {
+        this.request = request;
+        this.cacheKey = cacheKey;
+        this.requesters.add(requester);
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void done(String filename, Path file) {
+        this.filename = filename;
+        this.file = file;
+        this.finishedAt = Instant.now();
+        this.status = Status.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    void addRequester(String requester) {
+        requesters.add(requester);
+    }
+
+    public boolean isRequestedBy(String requester) {
+        return requesters.contains(requester);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ReportRequest getRequest() {
+        return request;
+    }
+
+    String getCacheKey() {
+        return cacheKey;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
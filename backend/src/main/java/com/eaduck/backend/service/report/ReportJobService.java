@@ -0,0 +1,238 @@
+package com.eaduck.backend.service.report;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Relatórios gerados em segundo plano: o cliente envia o pedido, consulta o job e baixa o arquivo.
+ *
+ * - Os jobs rodam no pool limitado "reportExecutor"; com a fila cheia o pedido é recusado.
+ * - Pedidos idênticos (mesmo relatório e mesma versão dos dados) em andamento compartilham o job.
+ * - O PDF gerado fica em disco sob uma chave derivada do relatório e da versão dos dados de entrada
+ *   ({@link ClassroomReportService#dataVersion}); enquanto os dados não mudam, novos pedidos
+ *   são atendidos pelo arquivo pronto, sem gerar de novo.
+ *
+ * Jobs e índice do cache ficam em memória (uma instância); os arquivos que sobram de uma execução
+ * anterior são apagados na inicialização.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private record Artifact(Path file, String filename, Instant createdAt) {}
+
+    private final ClassroomReportService classroomReportService;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reports.cache.dir:${java.io.tmpdir}/eaduck-reports}")
+    private String cacheDir;
+
+    @Value("${reports.cache.max-entries:200}")
+    private int maxEntries;
+
+    @Value("${reports.cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${reports.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private Path directory;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Jobs em andamento por chave do cache (deduplicação)
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>();
+    // Artefatos prontos por chave, em ordem de acesso (LRU); acesso sincronizado
+    private final LinkedHashMap<String, Artifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ReportJobService(ClassroomReportService classroomReportService,
+                            @Qualifier("reportExecutor") ThreadPoolTaskExecutor executor,
+                            PlatformTransactionManager transactionManager) {
+        this.classroomReportService = classroomReportService;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Paths.get(cacheDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Registra o pedido. Devolve um job já concluído se o relatório está em cache, o job em andamento
+     * se um pedido idêntico já está sendo gerado, ou um novo job na fila.
+     *
+     * @throws TaskRejectedException se a fila de relatórios está cheia
+     */
+    public ReportJob submit(ReportRequest request, String requester) {
+        String cacheKey = cacheKey(request, classroomReportService.dataVersion(request));
+        synchronized (this) {
+            Artifact cached = cachedArtifact(cacheKey);
+            if (cached != null) {
+                ReportJob job = new ReportJob(request, cacheKey, requester);
+                job.done(cached.filename(), cached.file());
+                jobs.put(job.getId(), job);
+                return job;
+            }
+            ReportJob running = inFlight.get(cacheKey);
+            if (running != null) {
+                running.addRequester(requester);
+                return running;
+            }
+            ReportJob job = new ReportJob(request, cacheKey, requester);
+            inFlight.put(cacheKey, job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (TaskRejectedException e) {
+                inFlight.remove(cacheKey);
+                throw e;
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        }
+    }
+
+    public Optional<ReportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(ReportJob job) {
+        job.running();
+        Path temp = null;
+        try {
+            Path target = directory.resolve(job.getCacheKey() + ".pdf");
+            temp = Files.createTempFile(directory, "report-", ".tmp");
+            String filename;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                // Transação somente leitura: os relatórios percorrem coleções lazy da sala
+                filename = transactionTemplate.execute(status -> {
+                    PreparedReport report = classroomReportService.prepare(job.getRequest());
+                    try {
+                        PdfResponses.write(report.content(), out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return report.filename();
+                });
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            putArtifact(job.getCacheKey(), new Artifact(target, filename, Instant.now()));
+            job.done(filename, target);
+            logger.info("Relatório {} gerado: {} ({} bytes)", job.getRequest().key(), filename, Files.size(target));
+        } catch (Exception e) {
+            logger.error("Erro ao gerar relatório {}: {}", job.getRequest().key(), e.getMessage(), e);
+            job.failed(e.getMessage());
+        } finally {
+            inFlight.remove(job.getCacheKey(), job);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.warn("Falha ao remover temporário {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private synchronized Artifact cachedArtifact(String cacheKey) {
+        Artifact artifact = artifacts.get(cacheKey);
+        if (artifact == null) {
+            return null;
+        }
+        if (isExpired(artifact) || !Files.isRegularFile(artifact.file())) {
+            artifacts.remove(cacheKey);
+            deleteQuietly(artifact.file());
+            return null;
+        }
+        return artifact;
+    }
+
+    private synchronized void putArtifact(String cacheKey, Artifact artifact) {
+        artifacts.put(cacheKey, artifact);
+        Iterator<Map.Entry<String, Artifact>> iterator = artifacts.entrySet().iterator();
+        while (artifacts.size() > maxEntries && iterator.hasNext()) {
+            Artifact eldest = iterator.next().getValue();
+            iterator.remove();
+            deleteQuietly(eldest.file());
+        }
+    }
+
+    /**
+     * Remove jobs antigos e artefatos expirados.
+     */
+    @Scheduled(fixedDelayString = "${reports.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        Instant jobCutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(jobCutoff));
+        synchronized (this) {
+            Iterator<Artifact> iterator = artifacts.values().iterator();
+            while (iterator.hasNext()) {
+                Artifact artifact = iterator.next();
+                if (isExpired(artifact)) {
+                    iterator.remove();
+                    deleteQuietly(artifact.file());
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(Artifact artifact) {
+        return artifact.createdAt().isBefore(Instant.now().minus(Duration.ofMinutes(ttlMinutes)));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Falha ao remover relatório {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String cacheKey(ReportRequest request, String dataVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((request.key() + "#" + dataVersion).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
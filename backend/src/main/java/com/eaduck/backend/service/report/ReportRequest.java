@@ -0,0 +1,28 @@
+package com.eaduck.backend.service.report;
+
+import java.time.LocalDate;
+
+/**
+ * Parâmetros de um relatório; studentId e date só valem para os tipos que os usam.
+ */
+public record ReportRequest(ReportType type, Long classroomId, Long studentId, LocalDate date) {
+
+    public static ReportRequest classroomGrades(Long classroomId) {
+        return new ReportRequest(ReportType.CLASSROOM_GRADES, classroomId, null, null);
+    }
+
+    public static ReportRequest studentGrades(Long classroomId, Long studentId) {
+        return new ReportRequest(ReportType.STUDENT_GRADES, classroomId, studentId, null);
+    }
+
+    public static ReportRequest attendanceSheet(Long classroomId, LocalDate date) {
+        return new ReportRequest(ReportType.ATTENDANCE_SHEET, classroomId, null, date);
+    }
+
+    /**
+     * Identifica o relatório independentemente de quem o pediu.
+     */
+    public String key() {
+        return type + ":" + classroomId + ":" + (studentId != null ? studentId : "") + ":" + (date != null ? date : "");
+    }
+}
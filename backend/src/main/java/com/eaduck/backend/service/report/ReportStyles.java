@@ -0,0 +1,122 @@
+package com.eaduck.backend.service.report;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.TextAlignment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Fontes e estilos compartilhados pelos relatórios PDF.
+ *
+ * As fontes são lidas uma vez (FontProgram); um PdfFont pertence a um único documento, então cada
+ * documento cria o seu a partir do programa já carregado. Os estilos são aplicados por referência
+ * ({@code addStyle}), em vez de copiar tamanho, padding e cor para cada célula.
+ * Os estilos não devem ser alterados depois de criados.
+ */
+public final class ReportStyles {
+
+    private static final FontProgram REGULAR = load(StandardFonts.HELVETICA);
+    private static final FontProgram BOLD = load(StandardFonts.HELVETICA_BOLD);
+
+    // Tabelas de dados (notas, usuários): cabeçalho 7pt, linhas 6pt
+    public static final Style HEADER_CELL = new Style()
+            .setFontSize(7)
+            .setBackgroundColor(ColorConstants.LIGHT_GRAY)
+            .setPadding(3);
+    public static final Style BODY_CELL = new Style()
+            .setFontSize(6)
+            .setPadding(3);
+
+    // Fichas (frequência): cabeçalho 8pt, linhas 7pt
+    public static final Style SHEET_HEADER_CELL = new Style()
+            .setFontSize(8)
+            .setBackgroundColor(ColorConstants.LIGHT_GRAY)
+            .setPadding(4);
+    public static final Style SHEET_BODY_CELL = new Style()
+            .setFontSize(7)
+            .setPadding(3);
+
+    public static final Style SECTION_TITLE = new Style()
+            .setFontSize(14)
+            .setMarginBottom(10);
+
+    private ReportStyles() {
+    }
+
+    public static PdfFont regularFont() {
+        return PdfFontFactory.createFont(REGULAR, PdfEncodings.WINANSI);
+    }
+
+    public static PdfFont boldFont() {
+        return PdfFontFactory.createFont(BOLD, PdfEncodings.WINANSI);
+    }
+
+    /**
+     * Título centralizado do relatório.
+     */
+    public static Paragraph title(String text, float fontSize, float marginBottom) {
+        return new Paragraph(text)
+                .setFontSize(fontSize)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(marginBottom);
+    }
+
+    /**
+     * Linha "Data de geração" centralizada abaixo do título.
+     */
+    public static Paragraph generatedAt(float marginBottom) {
+        return new Paragraph("Data de geração: " + java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")))
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(marginBottom);
+    }
+
+    /**
+     * Título de seção (ex.: "DADOS DOS ALUNOS").
+     */
+    public static Paragraph sectionTitle(String text) {
+        return new Paragraph(text).addStyle(SECTION_TITLE).setBold();
+    }
+
+    /**
+     * Texto cortado em {@code max} caracteres, mantendo {@code keep} e acrescentando "...";
+     * nulo vira "-".
+     */
+    public static String truncate(String value, int max, int keep) {
+        if (value == null) {
+            return "-";
+        }
+        return value.length() > max ? value.substring(0, keep) + "..." : value;
+    }
+
+    public static String orDash(String value) {
+        return value != null ? value : "-";
+    }
+
+    public static String decimal(Double value) {
+        return value != null ? String.format("%.2f", value) : "-";
+    }
+
+    public static String percent(Double ratio) {
+        return ratio != null ? String.format("%.0f%%", ratio * 100) : "-";
+    }
+
+    private static FontProgram load(String name) {
+        try {
+            return FontProgramFactory.createFont(name, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.eaduck.backend.service.report;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Modelo declarativo de tabela: colunas (cabeçalho, largura e valor extraído da linha) definidas uma
+ * vez e reutilizadas por todos os documentos. {@link #write} escreve a tabela em modo de tabela grande
+ * (liberada em blocos de {@link PdfResponses#FLUSH_EVERY_ROWS} linhas), com os estilos compartilhados
+ * de {@link ReportStyles}.
+ *
+ * Instâncias são imutáveis e podem ser guardadas em constantes.
+ */
+public final class ReportTable<T> {
+
+    private record Column<T>(String header, float width, Function<? super T, String> value) {}
+
+    private final List<Column<T>> columns;
+    private final boolean percentWidths;
+    private final Style headerStyle;
+    private final Style cellStyle;
+
+    private ReportTable(Builder<T> builder) {
+        this.columns = List.copyOf(builder.columns);
+        this.percentWidths = builder.percentWidths;
+        this.headerStyle = builder.headerStyle;
+        this.cellStyle = builder.cellStyle;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Adiciona a tabela ao documento e escreve as linhas.
+     */
+    public void write(Document document, Iterable<? extends T> rows) {
+        Table table = percentWidths
+                ? new Table(UnitValue.createPercentArray(widths()), true).useAllAvailableWidth()
+                : new Table(pointWidths(), true).setWidth(UnitValue.createPercentValue(100));
+
+        PdfFont bold = ReportStyles.boldFont();
+        for (Column<T> column : columns) {
+            table.addHeaderCell(new Cell()
+                    .addStyle(headerStyle)
+                    .setFont(bold)
+                    .add(new Paragraph(column.header())));
+        }
+        document.add(table);
+
+        int count = 0;
+        for (T row : rows) {
+            for (Column<T> column : columns) {
+                String value = column.value().apply(row);
+                table.addCell(new Cell()
+                        .addStyle(cellStyle)
+                        .add(new Paragraph(value != null ? value : "")));
+            }
+            PdfResponses.flushIfNeeded(table, ++count);
+        }
+        table.complete();
+    }
+
+    private float[] widths() {
+        float[] widths = new float[columns.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = columns.get(i).width();
+        }
+        return widths;
+    }
+
+    private UnitValue[] pointWidths() {
+        UnitValue[] widths = new UnitValue[columns.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = UnitValue.createPointValue(columns.get(i).width());
+        }
+        return widths;
+    }
+
+    public static final class Builder<T> {
+
+        private final List<Column<T>> columns = new ArrayList<>();
+        private boolean percentWidths;
+        private Style headerStyle = ReportStyles.HEADER_CELL;
+        private Style cellStyle = ReportStyles.BODY_CELL;
+
+        private Builder() {
+        }
+
+        /**
+         * Coluna com largura em pontos (ou proporcional, com {@link #percentWidths()}).
+         */
+        public Builder<T> column(String header, float width, Function<? super T, String> value) {
+            columns.add(new Column<>(header, width, value));
+            return this;
+        }
+
+        /**
+         * Larguras proporcionais, ocupando toda a largura disponível.
+         */
+        public Builder<T> percentWidths() {
+            this.percentWidths = true;
+            return this;
+        }
+
+        public Builder<T> styles(Style headerStyle, Style cellStyle) {
+            this.headerStyle = headerStyle;
+            this.cellStyle = cellStyle;
+            return this;
+        }
+
+        public ReportTable<T> build() {
+            return new ReportTable<>(this);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.eaduck.backend.service.report;
+
+/**
+ * Relatórios que podem ser gerados em segundo plano.
+ */
+public enum ReportType {
+    CLASSROOM_GRADES,   // Notas de todos os alunos da sala
+    STUDENT_GRADES,     // Notas e frequência de um aluno
+    ATTENDANCE_SHEET    // Ficha de frequência da sala em uma data
+}
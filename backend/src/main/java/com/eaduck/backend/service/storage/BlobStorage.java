@@ -0,0 +1,57 @@
+package com.eaduck.backend.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Backend de armazenamento dos arquivos enviados. As chaves são caminhos relativos
+ * (ex.: blobs/&lt;sha256&gt;.pdf) e as URLs públicas continuam sendo /files/&lt;chave&gt;,
+ * independentemente do backend configurado em storage.type (local ou s3).
+ */
+public interface BlobStorage {
+
+    /**
+     * Grava o arquivo local na chave informada. O arquivo de origem é consumido.
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * Tamanho do objeto, se ele existir.
+     */
+    Optional<Long> size(String key);
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Abre o conteúdo do objeto para leitura sequencial. Lança FileNotFoundException se ele não existir.
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * URL pré-assinada para o cliente enviar o conteúdo direto ao armazenamento (PUT).
+     * Quando sha256 é informado, o armazenamento rejeita conteúdo com hash diferente; maxSize é o
+     * limite da finalidade do upload, assinado junto com a URL quando o destino é o próprio backend.
+     */
+    PresignedUrl presignUpload(String key, String contentType, String sha256, long maxSize, Duration ttl);
+
+    /**
+     * URL pré-assinada de leitura.
+     */
+    PresignedUrl presignDownload(String key, String fileName, Duration ttl);
+
+    /**
+     * Caminho no disco quando o backend é local (usado pelo FileController e pelos derivados).
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * Indica se os arquivos ficam no disco da aplicação (servidos pelo FileController)
+     * ou em armazenamento externo (FileController redireciona para URL pré-assinada).
+     */
+    boolean isLocal();
+}
@@ -0,0 +1,329 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.model.storage.StoredFile;
+import com.eaduck.backend.repository.StoredFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Armazenamento deduplicado por conteúdo: cada arquivo é gravado uma única vez na chave
+ * blobs/&lt;aa&gt;/&lt;bb&gt;/&lt;sha256&gt;&lt;extensão&gt; do {@link BlobStorage} configurado (dois níveis
+ * de diretório pelos primeiros bytes do hash, no máximo 256 entradas por nível) e registrado
+ * em stored_files. Quando o hash já existe o upload devolve o arquivo existente e o temporário é descartado.
+ *
+ * A leitura passa pelo índice: {@link #resolveKey} encontra a chave pelo hash da URL, então
+ * o arquivo pode ser realocado sem invalidar URLs já gravadas.
+ *
+ * Os contadores de referência são mantidos por quem grava a URL em TaskAttachment.fileUrl,
+ * Submission.fileUrl ou ChatMessageEntity.fileUrl (retain ao salvar, release ao excluir).
+ */
+@Service
+public class ContentAddressedStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedStorageService.class);
+
+    static final String BLOB_DIRECTORY = "blobs";
+
+    private static final Pattern BLOB_URL = Pattern.compile("^/files/" + BLOB_DIRECTORY + "/(?:.*/)?([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+    private static final Pattern EXTENSION = Pattern.compile("\\.([A-Za-z0-9]{1,10})$");
+
+    private static final Pattern LEGACY_NAME = Pattern.compile("^\\d+_(.+)$");
+    private static final int MAX_FILENAME_LENGTH = 255;
+
+    // Chave no armazenamento e nome original de um hash registrado
+    private record Location(String key, String originalFilename) {}
+
+    // Hash → localização. As entradas só mudam na migração e na coleta de órfãos, que chamam evict()
+    private static final int KEY_CACHE_SIZE = 10_000;
+    private final Map<String, Location> keyCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Location> eldest) {
+                    return size() > KEY_CACHE_SIZE;
+                }
+            });
+
+    // Serializa publicação e remoção do mesmo hash (deduplicação × coleta de órfãos)
+    private final Object[] hashLocks = new Object[64];
+
+    private final FileStorageService fileStorageService;
+    private final StoredFileRepository storedFileRepository;
+    private final BlobStorage blobStorage;
+
+    public ContentAddressedStorageService(FileStorageService fileStorageService,
+                                          StoredFileRepository storedFileRepository,
+                                          BlobStorage blobStorage) {
+        this.fileStorageService = fileStorageService;
+        this.storedFileRepository = storedFileRepository;
+        this.blobStorage = blobStorage;
+        for (int i = 0; i < hashLocks.length; i++) {
+            hashLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Grava um upload multipart em streaming, respeitando o limite de tamanho.
+     */
+    public UploadedFile store(MultipartFile file, long maxSize, String ownerEmail) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            FileStorageService.StagedFile staged = fileStorageService.stage(in, maxSize);
+            return publish(staged, file.getOriginalFilename(), file.getContentType(), ownerEmail);
+        }
+    }
+
+    /**
+     * Publica um arquivo já montado em disco (ex.: sessão de upload em partes). O arquivo de origem é consumido.
+     */
+    public UploadedFile storeFile(Path source, String originalFilename, String contentType, String ownerEmail)
+            throws IOException {
+        return publish(fileStorageService.stageExisting(source), originalFilename, contentType, ownerEmail);
+    }
+
+    /**
+     * Move o arquivo temporário para o endereço do seu hash, ou o descarta se o conteúdo já existe.
+     */
+    private UploadedFile publish(FileStorageService.StagedFile staged, String originalFilename, String contentType,
+                                 String ownerEmail) throws IOException {
+        synchronized (lockFor(staged.sha256())) {
+            Optional<StoredFile> existing = touchExisting(staged.sha256());
+            if (existing.isPresent()) {
+                Files.deleteIfExists(staged.path());
+                logger.debug("Conteúdo {} já armazenado, upload deduplicado", staged.sha256());
+                return toUploadedFile(existing.get(), originalFilename);
+            }
+
+            String key = keyFor(staged.sha256(), originalFilename);
+            // Conteúdo idêntico na mesma chave (ex.: upload concorrente) é simplesmente descartado pelo backend
+            blobStorage.put(key, staged.path(), contentType);
+
+            StoredFile storedFile = register(staged.sha256(), key, staged.size(), contentType, ownerEmail, originalFilename);
+            logger.info("Arquivo {} armazenado em {} ({} bytes)", originalFilename, storedFile.getStoragePath(), staged.size());
+            return toUploadedFile(storedFile, originalFilename);
+        }
+    }
+
+    /**
+     * Arquivo já armazenado com o hash informado, se existir. Usado pelo upload direto
+     * (URL pré-assinada) para pular o envio de conteúdo já conhecido.
+     */
+    public Optional<UploadedFile> findExisting(String sha256, String originalFilename) {
+        synchronized (lockFor(sha256)) {
+            return touchExisting(sha256).map(storedFile -> toUploadedFile(storedFile, originalFilename));
+        }
+    }
+
+    /**
+     * Busca o hash e marca o uso: um arquivo antigo reaproveitado pela deduplicação ganha de novo
+     * o período de carência antes que a coleta de órfãos possa removê-lo.
+     */
+    private Optional<StoredFile> touchExisting(String sha256) {
+        Optional<StoredFile> existing = storedFileRepository.findBySha256(sha256);
+        existing.ifPresent(storedFile -> storedFileRepository.touch(sha256, LocalDateTime.now()));
+        return existing;
+    }
+
+    /**
+     * Remove o arquivo se ele não foi usado desde o limite informado. Executado sob o mesmo lock
+     * da publicação, então um upload concorrente do mesmo conteúdo nunca recebe um arquivo removido.
+     * As referências são conferidas de novo aqui (referenced), já que uma linha pode ter sido gravada
+     * depois da verificação do lote. Retorna false se o arquivo voltou a ser usado.
+     */
+    public boolean deleteIfUnused(StoredFile storedFile, LocalDateTime unusedSince,
+                                  Predicate<StoredFile> referenced) throws IOException {
+        synchronized (lockFor(storedFile.getSha256())) {
+            if (referenced.test(storedFile)
+                    || storedFileRepository.deleteIfUnusedSince(storedFile.getId(), unusedSince) == 0) {
+                return false;
+            }
+            keyCache.remove(storedFile.getSha256());
+            blobStorage.delete(storedFile.getStoragePath());
+            return true;
+        }
+    }
+
+    /**
+     * Remove um blob que está no armazenamento sem registro em stored_files (ex.: queda entre a
+     * gravação e o registro), conferindo o registro sob o lock da publicação.
+     */
+    public boolean deleteUnregistered(String sha256, String key) throws IOException {
+        synchronized (lockFor(sha256)) {
+            if (storedFileRepository.findBySha256(sha256).isPresent()) {
+                return false;
+            }
+            blobStorage.delete(key);
+            return true;
+        }
+    }
+
+    private Object lockFor(String sha256) {
+        return hashLocks[Math.floorMod(sha256.hashCode(), hashLocks.length)];
+    }
+
+    /**
+     * Registra um arquivo enviado direto ao armazenamento por URL pré-assinada, conferindo
+     * que o objeto existe e tem o tamanho declarado.
+     */
+    public UploadedFile registerDirectUpload(String sha256, String originalFilename, String contentType, long expectedSize,
+                                             String ownerEmail) throws IOException {
+        Optional<UploadedFile> existing = findExisting(sha256, originalFilename);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        String key = keyFor(sha256, originalFilename);
+        long size = blobStorage.size(key).orElseThrow(() -> new IOException("Arquivo não encontrado no armazenamento: " + key));
+        if (size != expectedSize) {
+            blobStorage.delete(key);
+            throw new IOException("Tamanho enviado (" + size + ") diferente do declarado (" + expectedSize + ")");
+        }
+        return toUploadedFile(register(sha256, key, size, contentType, ownerEmail, originalFilename), originalFilename);
+    }
+
+    /**
+     * Chave do conteúdo no armazenamento: blobs/ab/cd/abcd…&lt;extensão&gt;.
+     */
+    public static String keyFor(String sha256, String originalFilename) {
+        return BLOB_DIRECTORY + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/"
+                + sha256 + extensionOf(originalFilename);
+    }
+
+    /**
+     * Chave no armazenamento para uma URL /files/…: arquivos por conteúdo são localizados pelo
+     * índice stored_files (cache em memória); URLs antigas (anteriores ao armazenamento por conteúdo)
+     * são mapeadas direto para o caminho relativo.
+     */
+    public Optional<String> resolveKey(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/files/")) {
+            return Optional.empty();
+        }
+        Optional<String> sha = hashOf(fileUrl);
+        if (sha.isEmpty()) {
+            return Optional.of(fileUrl.substring("/files/".length()));
+        }
+        return locate(sha.get()).map(Location::key);
+    }
+
+    /**
+     * Nome original do arquivo de uma URL /files/…, para o download: o do primeiro envio do conteúdo,
+     * ou, em URLs antigas (&lt;timestamp&gt;_&lt;nome&gt;), o nome sem o prefixo numérico.
+     */
+    public Optional<String> originalFilename(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/files/")) {
+            return Optional.empty();
+        }
+        Optional<String> sha = hashOf(fileUrl);
+        if (sha.isPresent()) {
+            return locate(sha.get()).map(Location::originalFilename);
+        }
+        return Optional.of(legacyOriginalName(fileUrl.substring(fileUrl.lastIndexOf('/') + 1)));
+    }
+
+    /**
+     * Nome original de um arquivo salvo no layout antigo (&lt;timestamp&gt;_&lt;nome&gt;).
+     */
+    public static String legacyOriginalName(String storedName) {
+        Matcher matcher = LEGACY_NAME.matcher(storedName);
+        return matcher.matches() ? matcher.group(1) : storedName;
+    }
+
+    private Optional<Location> locate(String sha256) {
+        Location cached = keyCache.get(sha256);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Location> location = storedFileRepository.findBySha256(sha256)
+                .map(storedFile -> new Location(storedFile.getStoragePath(), storedFile.getOriginalFilename()));
+        location.ifPresent(value -> keyCache.put(sha256, value));
+        return location;
+    }
+
+    /**
+     * Remove o hash do cache de chaves (arquivo realocado ou removido).
+     */
+    public void evict(String sha256) {
+        keyCache.remove(sha256);
+    }
+
+    private StoredFile register(String sha256, String key, long size, String contentType, String ownerEmail,
+                                String originalFilename) {
+        if (originalFilename != null && originalFilename.length() > MAX_FILENAME_LENGTH) {
+            originalFilename = originalFilename.substring(originalFilename.length() - MAX_FILENAME_LENGTH);
+        }
+        StoredFile storedFile = StoredFile.builder()
+                .sha256(sha256)
+                .storagePath(key)
+                .fileSize(size)
+                .contentType(contentType)
+                .ownerEmail(ownerEmail)
+                .originalFilename(originalFilename)
+                .refCount(0)
+                .createdAt(LocalDateTime.now())
+                .lastUsedAt(LocalDateTime.now())
+                .build();
+        try {
+            return storedFileRepository.saveAndFlush(storedFile);
+        } catch (DataIntegrityViolationException e) {
+            // Outro upload do mesmo conteúdo registrou o hash primeiro
+            return storedFileRepository.findBySha256(sha256).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Registra uma nova referência à URL. URLs que não são do armazenamento por conteúdo são ignoradas.
+     */
+    public void retain(String fileUrl) {
+        hashOf(fileUrl).ifPresent(sha -> {
+            if (storedFileRepository.incrementRefCount(sha, LocalDateTime.now()) == 0) {
+                logger.warn("Referência a arquivo desconhecido: {}", fileUrl);
+            }
+        });
+    }
+
+    /**
+     * Remove uma referência à URL. Arquivos sem referências são removidos pela coleta de órfãos.
+     */
+    public void release(String fileUrl) {
+        hashOf(fileUrl).ifPresent(storedFileRepository::decrementRefCount);
+    }
+
+    /**
+     * Extrai o SHA-256 de uma URL do armazenamento por conteúdo.
+     */
+    public static Optional<String> hashOf(String fileUrl) {
+        if (fileUrl == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = BLOB_URL.matcher(fileUrl);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    private UploadedFile toUploadedFile(StoredFile storedFile, String originalFilename) {
+        Path path = blobStorage.localPath(storedFile.getStoragePath()).orElse(null);
+        String fileName = storedFile.getStoragePath().substring(storedFile.getStoragePath().lastIndexOf('/') + 1);
+        return new UploadedFile(fileName, originalFilename, path,
+                "/files/" + storedFile.getStoragePath(), storedFile.getFileSize(), storedFile.getSha256());
+    }
+
+    public static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        Matcher matcher = EXTENSION.matcher(originalFilename);
+        return matcher.find() ? "." + matcher.group(1).toLowerCase() : "";
+    }
+}
@@ -0,0 +1,303 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.repository.ChatMessageRepository;
+import com.eaduck.backend.repository.TaskAttachmentRepository;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geração de derivados em segundo plano: miniaturas de imagens e prévia da primeira página de PDFs.
+ * Os derivados ficam ao lado do original (&lt;arquivo&gt;.&lt;tamanho&gt;.jpg|png) e são servidos
+ * pelo FileController em /files/...?size=thumb|medium. Quando ficam prontos, as mensagens de chat
+ * e os anexos que apontam para o arquivo recebem a URL da miniatura/prévia.
+ */
+@Service
+public class DerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DerivativeService.class);
+
+    private static final List<String> IMAGE_EXTENSIONS = List.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final String PDF_EXTENSION = "pdf";
+
+    private final Path uploadRoot = Paths.get("uploads").toAbsolutePath().normalize();
+
+    // Arquivos com geração em andamento, para não enfileirar o mesmo trabalho duas vezes
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolTaskExecutor executor;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+
+    @Value("${derivatives.max-source-bytes:104857600}")
+    private long maxSourceBytes;
+
+    @Value("${derivatives.max-source-pixels:100000000}")
+    private long maxSourcePixels;
+
+    public DerivativeService(@Qualifier("derivativeExecutor") ThreadPoolTaskExecutor executor,
+                             ChatMessageRepository chatMessageRepository,
+                             TaskAttachmentRepository taskAttachmentRepository,
+                             ContentAddressedStorageService contentAddressedStorageService) {
+        this.executor = executor;
+        this.chatMessageRepository = chatMessageRepository;
+        this.taskAttachmentRepository = taskAttachmentRepository;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+    }
+
+    /**
+     * Enfileira a geração dos derivados do arquivo (se o tipo for suportado) e, ao terminar,
+     * preenche thumbnailUrl/previewUrl de quem referencia a URL. Se os derivados já existem
+     * (ex.: conteúdo deduplicado) as referências são atualizadas na hora.
+     */
+    public void requestDerivatives(String fileUrl) {
+        Path original = resolve(fileUrl);
+        if (original == null || !supports(original) || !Files.isRegularFile(original)) {
+            return;
+        }
+        if (findDerivative(original, DerivativeSize.THUMB).isPresent()) {
+            updateReferences(fileUrl, original);
+            return;
+        }
+        if (!inFlight.add(original)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (generate(original)) {
+                        updateReferences(fileUrl, original);
+                    }
+                } catch (Exception e) {
+                    logger.warn("Falha ao gerar derivados de {}: {}", original, e.getMessage());
+                } finally {
+                    inFlight.remove(original);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(original);
+            logger.warn("Fila de derivados cheia, {} será processado sob demanda", fileUrl);
+        }
+    }
+
+    /**
+     * URL da miniatura do arquivo, se ela já foi gerada.
+     */
+    public Optional<String> readyThumbnailUrl(String fileUrl) {
+        Path original = resolve(fileUrl);
+        if (original == null || findDerivative(original, DerivativeSize.THUMB).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(variantUrl(fileUrl, DerivativeSize.THUMB));
+    }
+
+    /**
+     * Derivado já gerado para o tamanho informado, se existir.
+     */
+    public Optional<Path> findDerivative(Path original, DerivativeSize size) {
+        for (String extension : List.of("jpg", "png")) {
+            Path candidate = derivativePath(original, size, extension);
+            if (Files.isRegularFile(candidate)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * URL de uma variante de tamanho do arquivo.
+     */
+    public static String variantUrl(String fileUrl, DerivativeSize size) {
+        return fileUrl + "?size=" + size.getKey();
+    }
+
+    /**
+     * Indica se o arquivo (pela extensão) tem derivados: imagens e PDFs.
+     */
+    public static boolean supports(Path file) {
+        String extension = extensionOf(file);
+        return IMAGE_EXTENSIONS.contains(extension) || PDF_EXTENSION.equals(extension);
+    }
+
+    /**
+     * Indica se o nome é de um derivado (&lt;arquivo&gt;.thumb.jpg etc.), para a coleta de órfãos
+     * tratá-lo junto com o original.
+     */
+    public static boolean isDerivativeName(String fileName) {
+        for (DerivativeSize size : DerivativeSize.values()) {
+            if (fileName.endsWith("." + size.getKey() + ".jpg") || fileName.endsWith("." + size.getKey() + ".png")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gera os derivados; false se o arquivo não tem derivados (formato não suportado ou acima dos limites).
+     */
+    boolean generate(Path original) throws IOException {
+        long bytes = Files.size(original);
+        if (bytes > maxSourceBytes) {
+            logger.info("Derivados ignorados para {}: {} bytes acima do limite", original.getFileName(), bytes);
+            return false;
+        }
+        BufferedImage source = PDF_EXTENSION.equals(extensionOf(original))
+                ? renderFirstPage(original, DerivativeSize.MEDIUM.getMaxDimension())
+                : readImage(original, DerivativeSize.MEDIUM.getMaxDimension());
+        if (source == null) {
+            logger.debug("Formato de imagem não suportado ou acima do limite: {}", original);
+            return false;
+        }
+
+        boolean hasAlpha = source.getColorModel().hasAlpha();
+        String extension = hasAlpha ? "png" : "jpg";
+        // Do maior para o menor: cada tamanho é reduzido a partir do anterior
+        BufferedImage current = source;
+        for (int i = DerivativeSize.values().length - 1; i >= 0; i--) {
+            DerivativeSize size = DerivativeSize.values()[i];
+            current = scale(current, size.getMaxDimension(), hasAlpha);
+            Path target = derivativePath(original, size, extension);
+            Path tmp = Files.createTempFile(target.getParent(), ".derivative-", "." + extension);
+            try {
+                ImageIO.write(current, extension, tmp.toFile());
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        logger.info("Derivados gerados para {}", original.getFileName());
+        return true;
+    }
+
+    /**
+     * Decodifica a imagem já reduzida por subamostragem (ImageReadParam), de forma que só uma
+     * imagem de no máximo ~2× o maior derivado fica em memória, qualquer que seja o original.
+     * Imagens com mais de derivatives.max-source-pixels não são lidas (null).
+     */
+    private BufferedImage readImage(Path file, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    logger.info("Derivados ignorados para {}: {}x{} pixels acima do limite", file.getFileName(), width, height);
+                    return null;
+                }
+                // Mantém pelo menos o dobro do tamanho final para a redução em etapas do scale()
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * maxDimension));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderFirstPage(Path pdf, int maxDimension) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            if (document.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float longestSide = Math.max(box.getWidth(), box.getHeight());
+            float dpi = 72f * maxDimension / longestSide;
+            return new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Reduz a imagem em etapas de no máximo 50% (interpolação bilinear), o que evita o serrilhado
+     * de uma redução direta sem o custo de SCALE_SMOOTH. Nunca amplia.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxDimension, boolean hasAlpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        int type = hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void updateReferences(String fileUrl, Path original) {
+        String thumbnailUrl = variantUrl(fileUrl, DerivativeSize.THUMB);
+        String previewUrl = PDF_EXTENSION.equals(extensionOf(original))
+                ? variantUrl(fileUrl, DerivativeSize.MEDIUM)
+                : thumbnailUrl;
+        chatMessageRepository.updateThumbnailUrl(fileUrl, thumbnailUrl);
+        taskAttachmentRepository.updatePreviewUrl(fileUrl, previewUrl);
+    }
+
+    private Path derivativePath(Path original, DerivativeSize size, String extension) {
+        return original.resolveSibling(original.getFileName() + "." + size.getKey() + "." + extension);
+    }
+
+    private Path resolve(String fileUrl) {
+        Optional<String> key = contentAddressedStorageService.resolveKey(fileUrl);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Path file = uploadRoot.resolve(key.get()).normalize();
+        return file.startsWith(uploadRoot) ? file : null;
+    }
+
+    private static String extensionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.eaduck.backend.service.storage;
+
+import java.util.Optional;
+
+/**
+ * Tamanhos de derivados (miniaturas e prévias) servidos em /files/...?size=&lt;nome&gt;.
+ * O valor é o maior lado da imagem gerada, em pixels.
+ */
+public enum DerivativeSize {
+    THUMB("thumb", 320),
+    MEDIUM("medium", 960);
+
+    private final String key;
+    private final int maxDimension;
+
+    DerivativeSize(String key, int maxDimension) {
+        this.key = key;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public static Optional<DerivativeSize> fromKey(String key) {
+        for (DerivativeSize size : values()) {
+            if (size.key.equalsIgnoreCase(key)) {
+                return Optional.of(size);
+            }
+        }
+        return Optional.empty();
+    }
+}
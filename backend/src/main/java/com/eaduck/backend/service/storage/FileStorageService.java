@@ -0,0 +1,129 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.exceptions.FileTooLargeException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Operações de baixo nível sobre o diretório de uploads.
+ * Nenhum caminho de upload deve chamar MultipartFile.getBytes(): os bytes são copiados
+ * em streaming para um arquivo temporário (com tamanho e SHA-256 calculados durante a cópia)
+ * e depois movidos atomicamente para o destino final pelo {@link ContentAddressedStorageService}.
+ */
+@Service
+public class FileStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path uploadRoot = Paths.get("uploads");
+
+    /**
+     * Arquivo temporário já gravado, com tamanho e hash calculados.
+     */
+    public record StagedFile(Path path, long size, String sha256) {}
+
+    /**
+     * Copia o stream para um arquivo temporário calculando tamanho e SHA-256 durante a cópia.
+     * O limite de tamanho é verificado a cada bloco lido, então um arquivo grande demais é
+     * rejeitado assim que ultrapassa o limite, sem ser lido até o fim.
+     */
+    public StagedFile stage(InputStream in, long maxSize) throws IOException {
+        Path tmp = createTempFile();
+        boolean staged = false;
+        try {
+            MessageDigest digest = newSha256();
+            long size = copy(in, tmp, digest, maxSize);
+            staged = true;
+            return new StagedFile(tmp, size, HexFormat.of().formatHex(digest.digest()));
+        } finally {
+            if (!staged) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /**
+     * Calcula tamanho e hash de um arquivo já montado em disco (ex.: sessão de upload em partes).
+     */
+    public StagedFile stageExisting(Path source) throws IOException {
+        MessageDigest digest = newSha256();
+        long size = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return new StagedFile(source, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Cria um arquivo temporário dentro de uploads/, garantindo que o move final
+     * aconteça no mesmo sistema de arquivos.
+     */
+    Path createTempFile() throws IOException {
+        Path tmpDir = uploadRoot.resolve(".tmp");
+        Files.createDirectories(tmpDir);
+        return Files.createTempFile(tmpDir, "upload-", ".part");
+    }
+
+    private long copy(InputStream in, Path target, MessageDigest digest, long maxSize) throws IOException {
+        long size = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new FileTooLargeException(maxSize);
+                }
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return size;
+    }
+
+    public void moveAtomically(Path source, Path destination) throws IOException {
+        Files.createDirectories(destination.getParent());
+        try {
+            Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public Path getUploadRoot() {
+        return uploadRoot;
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.repository.ChatMessageRepository;
+import com.eaduck.backend.repository.StoredFileRepository;
+import com.eaduck.backend.repository.SubmissionRepository;
+import com.eaduck.backend.repository.TaskAttachmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Migração única dos uploads para o layout em dois níveis (blobs/ab/cd/&lt;sha256&gt;):
+ * - arquivos antigos com nome por timestamp em uploads/ e uploads/chat/ são registrados em
+ *   stored_files e as URLs em task_attachments, submissions e chat_messages são reescritas;
+ * - blobs gravados no layout plano (blobs/&lt;sha256&gt;) são movidos e o índice atualizado
+ *   (as URLs continuam válidas porque a leitura resolve pelo hash).
+ *
+ * Move e apaga arquivos, então não roda só porque a aplicação (ou um teste) subiu: é disparada por
+ * um administrador em POST /api/storage/migrate, ou na inicialização quando storage.migration.enabled=true
+ * é ligado explicitamente no deploy. Roda em segundo plano e é idempotente: cada arquivo só sai do
+ * lugar antigo depois que o novo endereço e as referências estão gravados, então os dois endereços
+ * funcionam durante a migração e uma nova execução só processa o que faltou.
+ */
+@Component
+public class LegacyUploadMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyUploadMigration.class);
+
+    private static final Pattern FLAT_BLOB_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+    private static final List<String> LEGACY_DIRECTORIES = List.of("", "chat");
+
+    private final FileStorageService fileStorageService;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+    private final DerivativeService derivativeService;
+    private final BlobStorage blobStorage;
+    private final StoredFileRepository storedFileRepository;
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    @Value("${storage.migration.enabled:false}")
+    private boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LegacyUploadMigration(FileStorageService fileStorageService,
+                                 ContentAddressedStorageService contentAddressedStorageService,
+                                 DerivativeService derivativeService,
+                                 BlobStorage blobStorage,
+                                 StoredFileRepository storedFileRepository,
+                                 TaskAttachmentRepository taskAttachmentRepository,
+                                 SubmissionRepository submissionRepository,
+                                 ChatMessageRepository chatMessageRepository) {
+        this.fileStorageService = fileStorageService;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+        this.derivativeService = derivativeService;
+        this.blobStorage = blobStorage;
+        this.storedFileRepository = storedFileRepository;
+        this.taskAttachmentRepository = taskAttachmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            startMigration();
+        }
+    }
+
+    /**
+     * Inicia a migração em segundo plano; false se ela já está em andamento.
+     */
+    public boolean startMigration() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                logger.error("Erro na migração de uploads: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "legacy-upload-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    void migrate() {
+        Path root = fileStorageService.getUploadRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        int migrated = 0;
+        int relocated = 0;
+        for (String directory : LEGACY_DIRECTORIES) {
+            migrated += migrateLegacyDirectory(root.resolve(directory));
+        }
+        if (blobStorage.isLocal()) {
+            relocated = relocateFlatBlobs(root.resolve(ContentAddressedStorageService.BLOB_DIRECTORY));
+        }
+        if (migrated > 0 || relocated > 0) {
+            logger.info("Migração de uploads concluída: {} arquivos antigos migrados, {} blobs realocados", migrated, relocated);
+        }
+    }
+
+    /**
+     * Arquivos diretamente no diretório (sem subdiretórios), fora os derivados, que migram junto com o original.
+     */
+    private int migrateLegacyDirectory(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int count = 0;
+        // DirectoryStream lê as entradas sob demanda, sem carregar o diretório inteiro em memória
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : entries) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".") || DerivativeService.isDerivativeName(name)) {
+                    continue;
+                }
+                try {
+                    migrateLegacyFile(file);
+                    count++;
+                } catch (Exception e) {
+                    logger.warn("Falha ao migrar {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Erro ao listar {}: {}", directory, e.getMessage(), e);
+        }
+        return count;
+    }
+
+    private void migrateLegacyFile(Path file) throws IOException {
+        Path root = fileStorageService.getUploadRoot();
+        String oldUrl = "/files/" + root.relativize(file).toString().replace('\\', '/');
+
+        // Publica uma cópia: o original só é removido depois que as referências apontam para o novo endereço
+        Path copy = fileStorageService.createTempFile();
+        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        UploadedFile stored = contentAddressedStorageService.storeFile(copy,
+                ContentAddressedStorageService.legacyOriginalName(file.getFileName().toString()),
+                Files.probeContentType(file), null);
+        moveDerivatives(file, ContentAddressedStorageService.keyFor(stored.sha256(), file.getFileName().toString()));
+
+        int references = taskAttachmentRepository.replaceFileUrl(oldUrl, stored.url())
+                + submissionRepository.replaceFileUrl(oldUrl, stored.url())
+                + chatMessageRepository.replaceFileUrl(oldUrl, stored.url());
+        if (references > 0) {
+            storedFileRepository.addRefCount(stored.sha256(), references);
+            derivativeService.requestDerivatives(stored.url());
+        }
+
+        Files.deleteIfExists(file);
+        logger.debug("{} migrado para {} ({} referências)", oldUrl, stored.url(), references);
+    }
+
+    /**
+     * Blobs gravados antes do layout em dois níveis (blobs/&lt;sha256&gt;&lt;ext&gt;).
+     */
+    private int relocateFlatBlobs(Path blobDirectory) {
+        if (!Files.isDirectory(blobDirectory)) {
+            return 0;
+        }
+        int count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(blobDirectory, Files::isRegularFile)) {
+            for (Path file : entries) {
+                var matcher = FLAT_BLOB_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String sha256 = matcher.group(1);
+                String key = ContentAddressedStorageService.keyFor(sha256, file.getFileName().toString());
+                try {
+                    Path target = blobStorage.localPath(key).orElseThrow();
+                    fileStorageService.moveAtomically(file, target);
+                    moveDerivatives(file, key);
+                    storedFileRepository.updateStoragePath(sha256, key);
+                    contentAddressedStorageService.evict(sha256);
+                    count++;
+                } catch (Exception e) {
+                    logger.warn("Falha ao realocar {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Erro ao listar {}: {}", blobDirectory, e.getMessage(), e);
+        }
+        return count;
+    }
+
+    /**
+     * Leva miniaturas/prévias já geradas para junto do novo endereço; sem disco local elas são descartadas.
+     */
+    private void moveDerivatives(Path original, String newKey) throws IOException {
+        Path target = blobStorage.localPath(newKey).orElse(null);
+        for (DerivativeSize size : DerivativeSize.values()) {
+            for (String extension : List.of("jpg", "png")) {
+                String suffix = "." + size.getKey() + "." + extension;
+                Path derivative = original.resolveSibling(original.getFileName() + suffix);
+                if (!Files.isRegularFile(derivative)) {
+                    continue;
+                }
+                if (target == null) {
+                    Files.deleteIfExists(derivative);
+                } else {
+                    Path destination = target.resolveSibling(target.getFileName() + suffix);
+                    if (Files.exists(destination)) {
+                        Files.deleteIfExists(derivative);
+                    } else {
+                        fileStorageService.moveAtomically(derivative, destination);
+                    }
+                }
+            }
+        }
+    }
+}
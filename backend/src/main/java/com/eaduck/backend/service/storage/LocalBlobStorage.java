@@ -0,0 +1,140 @@
+package com.eaduck.backend.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Armazenamento no disco local (diretório uploads/). As URLs pré-assinadas apontam para
+ * /api/storage/local/&lt;chave&gt; com expiração e assinatura HMAC, seguindo o mesmo protocolo
+ * do S3 para que o cliente não precise saber qual backend está ativo.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStorage implements BlobStorage {
+
+    static final String UPLOAD_PATH = "/api/storage/local/";
+
+    private final FileStorageService fileStorageService;
+    private final byte[] signingKey;
+
+    public LocalBlobStorage(FileStorageService fileStorageService,
+                            @Value("${storage.local.signing-secret:${jwt.secret}}") String signingSecret) {
+        this.fileStorageService = fileStorageService;
+        this.signingKey = signingSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path destination = resolve(key);
+        if (Files.exists(destination)) {
+            // Mesma chave = mesmo conteúdo
+            Files.deleteIfExists(source);
+            return;
+        }
+        fileStorageService.moveAtomically(source, destination);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public Optional<Long> size(String key) {
+        try {
+            Path path = resolve(key);
+            return Files.isRegularFile(path) ? Optional.of(Files.size(path)) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(key);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public PresignedUrl presignUpload(String key, String contentType, String sha256, long maxSize, Duration ttl) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        long expires = expiresAt.getEpochSecond();
+        String url = UPLOAD_PATH + key + "?expires=" + expires + "&maxSize=" + maxSize
+                + "&signature=" + sign("PUT", key, expires, maxSize);
+        return new PresignedUrl(url, "PUT", contentType != null ? Map.of("Content-Type", contentType) : Map.of(), expiresAt);
+    }
+
+    @Override
+    public PresignedUrl presignDownload(String key, String fileName, Duration ttl) {
+        // Arquivos locais já são públicos em /files/
+        return new PresignedUrl("/files/" + key, "GET", Map.of(), Instant.now().plus(ttl));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * Confere a assinatura e a expiração de uma URL gerada por {@link #presignUpload}
+     * (o limite de tamanho faz parte da assinatura).
+     */
+    public boolean verify(String method, String key, long expires, long maxSize, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(method, key, expires, maxSize).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sign(String method, String key, long expires, long maxSize) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+            byte[] digest = mac.doFinal((method + "\n" + key + "\n" + expires + "\n" + maxSize)
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+
+    private Path resolve(String key) {
+        Path root = fileStorageService.getUploadRoot().toAbsolutePath().normalize();
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Chave inválida: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,350 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.model.storage.StoredFile;
+import com.eaduck.backend.repository.StoredFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Coleta de arquivos órfãos em marcação e varredura incrementais.
+ *
+ * Varredura: stored_files em lotes pelo id, continuando de onde a execução anterior parou.
+ * Marcação: por lote, só os candidatos (sem uso há mais que o período de carência) são procurados
+ * em task_attachments, submissions e chat_messages, uma consulta por tabela com os prefixos das URLs
+ * possíveis de cada hash (layout em dois níveis e o antigo blobs/&lt;sha256&gt;), pelos índices de
+ * file_url. O custo de cada execução acompanha o tamanho do lote, não o total de referências.
+ * Um candidato não referenciado é removido (com miniaturas e prévias). O critério são as
+ * referências, não o refCount, então exclusões em cascata (tarefa, turma) que não passaram por
+ * release também são recolhidas. A carência protege uploads já devolvidos ao cliente que ainda não
+ * viraram mensagem, anexo ou submissão.
+ *
+ * Ao completar uma volta em stored_files, o disco também é varrido: blobs sem registro
+ * (ex.: queda entre a gravação e o registro) e temporários abandonados em uploads/.tmp.
+ */
+@Service
+public class OrphanFileCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanFileCollector.class);
+
+    /**
+     * Resultado de uma execução da coleta.
+     */
+    public record Report(Instant startedAt, Instant finishedAt, int scanned, int deleted, long reclaimedBytes,
+                         boolean cycleCompleted, long totalDeleted, long totalReclaimedBytes) {}
+
+    // Tabelas com file_url que referenciam arquivos por conteúdo
+    private static final List<String> REFERENCING_TABLES = List.of("task_attachments", "submissions", "chat_messages");
+
+    private final StoredFileRepository storedFileRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+    private final FileStorageService fileStorageService;
+    private final BlobStorage blobStorage;
+
+    @Value("${storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${storage.gc.batch-size:200}")
+    private int batchSize;
+
+    @Value("${storage.gc.max-batches:10}")
+    private int maxBatches;
+
+    @Value("${storage.gc.batch-pause-ms:1000}")
+    private long batchPauseMs;
+
+    // Posição da varredura entre execuções
+    private volatile long cursor = 0;
+    private volatile Report lastReport;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private long totalDeleted;
+    private long totalReclaimedBytes;
+
+    public OrphanFileCollector(StoredFileRepository storedFileRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ContentAddressedStorageService contentAddressedStorageService,
+                               FileStorageService fileStorageService,
+                               BlobStorage blobStorage) {
+        this.storedFileRepository = storedFileRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+        this.fileStorageService = fileStorageService;
+        this.blobStorage = blobStorage;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.gc.interval-ms:3600000}", initialDelayString = "${storage.gc.initial-delay-ms:600000}")
+    public void scheduledCollect() {
+        if (enabled) {
+            collect();
+        }
+    }
+
+    /**
+     * Executa uma rodada limitada a max-batches lotes de batch-size arquivos, com pausa entre os lotes.
+     */
+    public synchronized Report collect() {
+        Instant startedAt = Instant.now();
+        LocalDateTime unusedSince = LocalDateTime.now().minusHours(graceHours);
+
+        int scanned = 0;
+        int deleted = 0;
+        long reclaimed = 0;
+        boolean cycleCompleted = false;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<StoredFile> files = storedFileRepository.findBatchAfter(cursor, PageRequest.of(0, batchSize));
+            if (files.isEmpty()) {
+                cycleCompleted = true;
+                break;
+            }
+            List<StoredFile> candidates = files.stream()
+                    .filter(file -> file.getLastUsedAt().isBefore(unusedSince))
+                    .toList();
+            Set<String> referenced = referencedHashes(candidates);
+            scanned += files.size();
+            cursor = files.get(files.size() - 1).getId();
+            for (StoredFile file : candidates) {
+                if (referenced.contains(file.getSha256())) {
+                    continue;
+                }
+                try {
+                    if (contentAddressedStorageService.deleteIfUnused(file, unusedSince,
+                            candidate -> !referencedHashes(List.of(candidate)).isEmpty())) {
+                        deleted++;
+                        reclaimed += file.getFileSize() + deleteDerivatives(file.getStoragePath());
+                    }
+                } catch (IOException e) {
+                    logger.warn("Falha ao remover arquivo órfão {}: {}", file.getStoragePath(), e.getMessage());
+                }
+            }
+            if (files.size() < batchSize) {
+                cycleCompleted = true;
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (cycleCompleted) {
+            cursor = 0;
+            if (blobStorage.isLocal()) {
+                long[] swept = sweepDisk(unusedSince);
+                deleted += (int) swept[0];
+                reclaimed += swept[1];
+            }
+        }
+
+        totalDeleted += deleted;
+        totalReclaimedBytes += reclaimed;
+        Report report = new Report(startedAt, Instant.now(), scanned, deleted, reclaimed, cycleCompleted,
+                totalDeleted, totalReclaimedBytes);
+        lastReport = report;
+        if (deleted > 0) {
+            logger.info("Coleta de órfãos: {} arquivos removidos, {} bytes liberados ({} verificados)",
+                    deleted, reclaimed, scanned);
+        } else {
+            logger.debug("Coleta de órfãos: nenhum arquivo removido ({} verificados)", scanned);
+        }
+        return report;
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Hashes dos candidatos que ainda são referenciados por alguma tabela.
+     */
+    private Set<String> referencedHashes(List<StoredFile> candidates) {
+        Set<String> referenced = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return referenced;
+        }
+        List<String> prefixes = new ArrayList<>(candidates.size() * 2);
+        for (StoredFile file : candidates) {
+            String sha = file.getSha256();
+            prefixes.add(urlPrefix(ContentAddressedStorageService.keyFor(sha, null)));
+            prefixes.add(urlPrefix(ContentAddressedStorageService.BLOB_DIRECTORY + "/" + sha));
+        }
+        String condition = String.join(" OR ", Collections.nCopies(prefixes.size(), "file_url LIKE ?"));
+        for (String table : REFERENCING_TABLES) {
+            jdbcTemplate.query("SELECT file_url FROM " + table + " WHERE " + condition,
+                    rs -> {
+                        ContentAddressedStorageService.hashOf(rs.getString(1)).ifPresent(referenced::add);
+                    },
+                    prefixes.toArray());
+        }
+        return referenced;
+    }
+
+    // Prefixo da URL para LIKE (o hash não tem curingas; a extensão varia)
+    private static String urlPrefix(String keyWithoutExtension) {
+        return "/files/" + keyWithoutExtension + "%";
+    }
+
+    /**
+     * Inicia uma rodada da coleta em segundo plano (disparo manual). Retorna false se já houver
+     * uma em andamento.
+     */
+    public boolean startCollect() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                collect();
+            } catch (Exception e) {
+                logger.error("Erro na coleta de órfãos: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "orphan-file-collector");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Blobs no disco sem registro em stored_files e temporários antigos. Os hashes são conferidos
+     * em lotes, e só arquivos mais antigos que a carência são considerados.
+     */
+    private long[] sweepDisk(LocalDateTime unusedSince) {
+        long[] result = new long[2];
+        Instant cutoff = unusedSince.atZone(ZoneId.systemDefault()).toInstant();
+        Path root = fileStorageService.getUploadRoot();
+
+        Path blobRoot = root.resolve(ContentAddressedStorageService.BLOB_DIRECTORY);
+        if (Files.isDirectory(blobRoot)) {
+            try (Stream<Path> paths = Files.walk(blobRoot)) {
+                Map<String, Path> pending = new HashMap<>();
+                Iterator<Path> iterator = paths.filter(Files::isRegularFile).iterator();
+                while (iterator.hasNext()) {
+                    Path path = iterator.next();
+                    String name = path.getFileName().toString();
+                    if (name.startsWith(".") || DerivativeService.isDerivativeName(name) || !isOlderThan(path, cutoff)) {
+                        continue;
+                    }
+                    String url = "/files/" + root.relativize(path).toString().replace('\\', '/');
+                    ContentAddressedStorageService.hashOf(url).ifPresent(sha -> pending.put(sha, path));
+                    if (pending.size() >= batchSize) {
+                        deleteUnregistered(pending, result);
+                    }
+                }
+                deleteUnregistered(pending, result);
+            } catch (IOException e) {
+                logger.warn("Erro ao varrer {}: {}", blobRoot, e.getMessage());
+            }
+        }
+
+        Path tmp = root.resolve(".tmp");
+        if (Files.isDirectory(tmp)) {
+            try (Stream<Path> paths = Files.list(tmp)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    if (Files.isRegularFile(path) && isOlderThan(path, cutoff)) {
+                        result[1] += Files.size(path);
+                        Files.deleteIfExists(path);
+                        result[0]++;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Erro ao limpar {}: {}", tmp, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void deleteUnregistered(Map<String, Path> pending, long[] result) throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> registered = new HashSet<>(storedFileRepository.findExistingHashes(new ArrayList<>(pending.keySet())));
+        for (Map.Entry<String, Path> entry : pending.entrySet()) {
+            if (registered.contains(entry.getKey())) {
+                continue;
+            }
+            Path path = entry.getValue();
+            String key = fileStorageService.getUploadRoot().relativize(path).toString().replace('\\', '/');
+            long size = Files.size(path);
+            if (contentAddressedStorageService.deleteUnregistered(entry.getKey(), key)) {
+                result[1] += size + deleteDerivatives(key);
+                result[0]++;
+            }
+        }
+        pending.clear();
+        pause();
+    }
+
+    /**
+     * Remove miniaturas e prévias do arquivo. Retorna os bytes liberados.
+     */
+    private long deleteDerivatives(String key) throws IOException {
+        Path original = blobStorage.localPath(key).orElse(null);
+        if (original == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (DerivativeSize size : DerivativeSize.values()) {
+            for (String extension : List.of("jpg", "png")) {
+                Path derivative = original.resolveSibling(original.getFileName() + "." + size.getKey() + "." + extension);
+                if (Files.isRegularFile(derivative)) {
+                    bytes += Files.size(derivative);
+                    Files.deleteIfExists(derivative);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Pausa entre lotes para não disputar disco e banco com as requisições. Retorna false se interrompido.
+     */
+    private boolean pause() {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.eaduck.backend.service.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * URL de acesso direto ao armazenamento, com os cabeçalhos que o cliente precisa enviar.
+ *
+ * @param url       URL assinada
+ * @param method    método HTTP (PUT para upload, GET para download)
+ * @param headers   cabeçalhos obrigatórios na requisição
+ * @param expiresAt momento em que a assinatura expira
+ */
+public record PresignedUrl(
+    String url,
+    String method,
+    Map<String, String> headers,
+    Instant expiresAt
+) {}
@@ -0,0 +1,204 @@
+package com.eaduck.backend.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import jakarta.annotation.PreDestroy;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Armazenamento em serviço compatível com S3 (AWS S3, MinIO). Com storage.s3.endpoint apontando
+ * para um MinIO local (path-style) é possível testar o fluxo completo sem a AWS.
+ * Uploads e downloads dos clientes usam URLs pré-assinadas, então os bytes não passam pela aplicação.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.type", havingValue = "s3")
+public class S3BlobStorage implements BlobStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3BlobStorage.class);
+
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final String bucket;
+
+    public S3BlobStorage(
+            @Value("${storage.s3.bucket}") String bucket,
+            @Value("${storage.s3.region:us-east-1}") String region,
+            @Value("${storage.s3.endpoint:}") String endpoint,
+            @Value("${storage.s3.access-key}") String accessKey,
+            @Value("${storage.s3.secret-key}") String secretKey) {
+        this.bucket = bucket;
+
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(accessKey, secretKey));
+        // MinIO e a maioria dos compatíveis exigem path-style (http://host/bucket/chave)
+        S3Configuration configuration = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+
+        var clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        var presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        if (!endpoint.isBlank()) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+        this.s3Client = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        try {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .build();
+            s3Client.putObject(request, RequestBody.fromFile(source));
+        } catch (S3Exception e) {
+            throw new IOException("Erro ao enviar " + key + " ao armazenamento: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public Optional<Long> size(String key) {
+        return head(key).map(HeadObjectResponse::contentLength);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (S3Exception e) {
+            throw new IOException("Erro ao remover " + key + " do armazenamento: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(key);
+        } catch (S3Exception e) {
+            throw new IOException("Erro ao ler " + key + " do armazenamento: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public PresignedUrl presignUpload(String key, String contentType, String sha256, long maxSize, Duration ttl) {
+        // O tamanho é conferido com o declarado (já dentro do limite) na confirmação do upload
+        PutObjectRequest.Builder request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType);
+        if (sha256 != null) {
+            // O S3 confere o checksum e rejeita o PUT se o conteúdo não corresponder ao hash
+            request.checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256)));
+        }
+
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(builder -> builder
+                .signatureDuration(ttl)
+                .putObjectRequest(request.build()));
+        return new PresignedUrl(presigned.url().toString(), "PUT", flatten(presigned.signedHeaders()),
+                presigned.expiration());
+    }
+
+    @Override
+    public PresignedUrl presignDownload(String key, String fileName, Duration ttl) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (fileName != null) {
+            request.responseContentDisposition(
+                    ContentDisposition.inline().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        }
+        PresignedGetObjectRequest presigned = presigner.presignGetObject(builder -> builder
+                .signatureDuration(ttl)
+                .getObjectRequest(request.build()));
+        return new PresignedUrl(presigned.url().toString(), "GET", Map.of(), presigned.expiration());
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        presigner.close();
+        s3Client.close();
+    }
+
+    private Optional<HeadObjectResponse> head(String key) {
+        try {
+            return Optional.of(s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            logger.warn("Erro ao consultar {} no armazenamento: {}", key, e.getMessage());
+            throw e;
+        }
+    }
+
+    private static Map<String, String> flatten(Map<String, List<String>> headers) {
+        Map<String, String> result = new HashMap<>();
+        headers.forEach((name, values) -> {
+            // host é definido pelo próprio cliente HTTP
+            if (!"host".equalsIgnoreCase(name)) {
+                result.put(name, String.join(",", values));
+            }
+        });
+        return result;
+    }
+}
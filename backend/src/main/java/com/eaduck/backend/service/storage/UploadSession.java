@@ -0,0 +1,196 @@
+package com.eaduck.backend.service.storage;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+
+/**
+ * Estado de uma sessão de upload em partes (resumable upload).
+ * O arquivo parcial tem o tamanho final desde a criação e cada parte é gravada na sua posição,
+ * então as partes podem chegar em qualquer ordem e em paralelo. O arquivo é esparso (não reserva
+ * disco): o espaço que falta é contabilizado pelo {@link UploadSessionService} ao abrir sessões.
+ *
+ * Gravações em andamento são contadas sob o lock da sessão: a finalização só acontece sem
+ * gravações pendentes, e o cancelamento deixa a remoção do arquivo para a última delas.
+ */
+public class UploadSession {
+
+    public enum Purpose {
+        CHAT,
+        TASK_ATTACHMENT
+    }
+
+    private final String id;
+    private final String ownerEmail;
+    private final Purpose purpose;
+    private final Long taskId;
+    private final String fileName;
+    private final String contentType;
+    private final long totalSize;
+    private final int chunkSize;
+    private final int totalChunks;
+    private final Path partFile;
+    private final Instant createdAt;
+    private final BitSet receivedChunks;
+    private volatile Instant lastActivityAt;
+    private volatile boolean completed;
+    private int activeWrites;
+    private boolean discarded;
+
+    public UploadSession(String id, String ownerEmail, Purpose purpose, Long taskId, String fileName,
+                         String contentType, long totalSize, int chunkSize, Path partFile) {
+        this.id = id;
+        this.ownerEmail = ownerEmail;
+        this.purpose = purpose;
+        this.taskId = taskId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.totalChunks = (int) Math.max(1, (totalSize + chunkSize - 1) / chunkSize);
+        this.partFile = partFile;
+        this.createdAt = Instant.now();
+        this.lastActivityAt = createdAt;
+        this.receivedChunks = new BitSet(totalChunks);
+    }
+
+    /**
+     * Tamanho esperado da parte de índice informado (a última pode ser menor).
+     */
+    public long expectedChunkLength(int index) {
+        long start = (long) index * chunkSize;
+        return Math.min(chunkSize, totalSize - start);
+    }
+
+    public synchronized void markReceived(int index) {
+        receivedChunks.set(index);
+        lastActivityAt = Instant.now();
+    }
+
+    public synchronized int getReceivedCount() {
+        return receivedChunks.cardinality();
+    }
+
+    public synchronized boolean isChunkReceived(int index) {
+        return receivedChunks.get(index);
+    }
+
+    public synchronized boolean isAllReceived() {
+        return receivedChunks.cardinality() == totalChunks;
+    }
+
+    public synchronized long getReceivedBytes() {
+        long bytes = 0;
+        for (int i = receivedChunks.nextSetBit(0); i >= 0; i = receivedChunks.nextSetBit(i + 1)) {
+            bytes += expectedChunkLength(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Índices das partes que ainda faltam, para o cliente retomar após uma queda.
+     */
+    public synchronized int[] getMissingChunks() {
+        BitSet missing = (BitSet) receivedChunks.clone();
+        missing.flip(0, totalChunks);
+        return missing.stream().toArray();
+    }
+
+    /**
+     * Registra uma gravação de parte; false se a sessão já foi finalizada ou cancelada.
+     */
+    public synchronized boolean beginWrite() {
+        if (completed) {
+            return false;
+        }
+        activeWrites++;
+        return true;
+    }
+
+    /**
+     * Encerra uma gravação. Retorna true se a sessão foi cancelada durante ela e esta era a última
+     * gravação: cabe a quem chamou remover o arquivo parcial.
+     */
+    public synchronized boolean endWrite() {
+        activeWrites--;
+        return discarded && activeWrites == 0;
+    }
+
+    public synchronized boolean hasActiveWrites() {
+        return activeWrites > 0;
+    }
+
+    /**
+     * Cancela a sessão (novas gravações são recusadas). Retorna true se o arquivo parcial pode ser
+     * removido já; com gravações em andamento, a última remove ao terminar. Uma sessão já em
+     * finalização não é cancelada (false).
+     */
+    public synchronized boolean discard() {
+        if (completed) {
+            return false;
+        }
+        completed = true;
+        discarded = true;
+        return activeWrites == 0;
+    }
+
+    public void touch() {
+        lastActivityAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    public Purpose getPurpose() {
+        return purpose;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public Path getPartFile() {
+        return partFile;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+}
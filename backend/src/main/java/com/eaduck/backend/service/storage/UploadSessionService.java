@@ -0,0 +1,272 @@
+package com.eaduck.backend.service.storage;
+
+import com.eaduck.backend.exceptions.CustomException;
+import com.eaduck.backend.exceptions.FileTooLargeException;
+import com.eaduck.backend.exceptions.ObjectNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessões de upload em partes. Cada sessão cria um arquivo parcial em uploads/.sessions
+ * e as partes são gravadas com escrita posicional (FileChannel.write(buffer, position)),
+ * permitindo envio fora de ordem, em paralelo e retomada após queda de conexão.
+ *
+ * O arquivo parcial é esparso, então o disco só é ocupado conforme as partes chegam. Para que as
+ * sessões abertas não esgotem o disco, cada usuário tem um limite de sessões simultâneas e uma nova
+ * sessão só é aceita se o espaço livre cobre o que ainda falta receber em todas as sessões abertas.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    // Serializa a verificação de limites e espaço com o registro da nova sessão
+    private final Object creationLock = new Object();
+
+    private final FileStorageService fileStorageService;
+    private final ContentAddressedStorageService contentAddressedStorageService;
+
+    @Value("${upload.session.chunk-size:5242880}")
+    private int chunkSize;
+
+    @Value("${upload.session.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${upload.session.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    public UploadSessionService(FileStorageService fileStorageService,
+                                ContentAddressedStorageService contentAddressedStorageService) {
+        this.fileStorageService = fileStorageService;
+        this.contentAddressedStorageService = contentAddressedStorageService;
+    }
+
+    /**
+     * Cria uma sessão e o arquivo parcial correspondente.
+     */
+    public UploadSession create(String ownerEmail, UploadSession.Purpose purpose, Long taskId, String fileName,
+                                String contentType, long totalSize, long maxSize) throws IOException {
+        if (totalSize <= 0) {
+            throw new CustomException("Tamanho total do arquivo inválido");
+        }
+        if (totalSize > maxSize) {
+            throw new FileTooLargeException(maxSize);
+        }
+
+        Path sessionsDir = sessionsDirectory();
+        Files.createDirectories(sessionsDir);
+
+        UploadSession session;
+        synchronized (creationLock) {
+            long pendingBytes = totalSize;
+            int ownerSessions = 0;
+            for (UploadSession open : sessions.values()) {
+                pendingBytes += open.getTotalSize() - open.getReceivedBytes();
+                if (open.getOwnerEmail().equals(ownerEmail)) {
+                    ownerSessions++;
+                }
+            }
+            if (ownerSessions >= maxSessionsPerUser) {
+                throw new CustomException("Limite de " + maxSessionsPerUser
+                        + " uploads simultâneos atingido; conclua ou cancele um envio em andamento");
+            }
+            // O que falta receber de todas as sessões abertas precisa caber no disco
+            if (Files.getFileStore(sessionsDir).getUsableSpace() < pendingBytes) {
+                throw new CustomException("Espaço insuficiente no servidor para o arquivo");
+            }
+
+            String id = UUID.randomUUID().toString();
+            Path partFile = sessionsDir.resolve(id + ".part");
+            Files.createFile(partFile);
+            try (RandomAccessFile file = new RandomAccessFile(partFile.toFile(), "rw")) {
+                file.setLength(totalSize);
+            } catch (IOException e) {
+                deleteQuietly(partFile);
+                throw e;
+            }
+
+            session = new UploadSession(id, ownerEmail, purpose, taskId, fileName, contentType,
+                    totalSize, chunkSize, partFile);
+            sessions.put(id, session);
+        }
+        logger.info("Sessão de upload {} criada para {} ({} bytes, {} partes)", session.getId(), ownerEmail, totalSize,
+                session.getTotalChunks());
+        return session;
+    }
+
+    /**
+     * Busca uma sessão ativa do usuário.
+     */
+    public UploadSession get(String sessionId, String ownerEmail) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null || !session.getOwnerEmail().equals(ownerEmail)) {
+            throw new ObjectNotFoundException("Sessão de upload não encontrada: " + sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Grava uma parte no offset informado. O offset precisa estar alinhado ao tamanho de parte
+     * da sessão e o corpo precisa ter exatamente o tamanho esperado; uma parte incompleta
+     * não é marcada como recebida e pode ser reenviada.
+     */
+    public UploadSession writeChunk(String sessionId, String ownerEmail, long offset, InputStream body) throws IOException {
+        UploadSession session = get(sessionId, ownerEmail);
+        if (offset < 0 || offset >= session.getTotalSize() || offset % session.getChunkSize() != 0) {
+            throw new CustomException("Offset inválido: " + offset);
+        }
+
+        int index = (int) (offset / session.getChunkSize());
+        long expected = session.expectedChunkLength(index);
+        long written = 0;
+
+        // A finalização e o cancelamento esperam as gravações registradas aqui
+        if (!session.beginWrite()) {
+            throw new CustomException("Sessão de upload já finalizada");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ReadableByteChannel source = Channels.newChannel(body);
+            try (FileChannel channel = FileChannel.open(session.getPartFile(), StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    if (written + buffer.remaining() > expected) {
+                        throw new CustomException("Parte maior que o esperado (" + expected + " bytes)");
+                    }
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer, offset + written);
+                    }
+                    buffer.clear();
+                }
+            }
+
+            if (written != expected) {
+                throw new CustomException("Parte incompleta: recebidos " + written + " de " + expected + " bytes");
+            }
+
+            session.markReceived(index);
+        } finally {
+            if (session.endWrite()) {
+                deleteQuietly(session.getPartFile());
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Finaliza a sessão: confere se todas as partes chegaram e publica o arquivo no armazenamento por conteúdo.
+     */
+    public UploadedFile complete(String sessionId, String ownerEmail) throws IOException {
+        UploadSession session = get(sessionId, ownerEmail);
+        synchronized (session) {
+            if (session.isCompleted()) {
+                throw new CustomException("Sessão de upload já finalizada");
+            }
+            if (session.hasActiveWrites()) {
+                throw new CustomException("Há partes ainda em envio; finalize novamente em instantes");
+            }
+            if (!session.isAllReceived()) {
+                throw new CustomException("Upload incompleto: " + session.getReceivedCount() + " de "
+                        + session.getTotalChunks() + " partes recebidas");
+            }
+            session.setCompleted(true);
+        }
+
+        try {
+            UploadedFile stored = contentAddressedStorageService.storeFile(session.getPartFile(),
+                    session.getFileName(), session.getContentType(), session.getOwnerEmail());
+            logger.info("Sessão de upload {} finalizada em {}", sessionId, stored.url());
+            return stored;
+        } finally {
+            sessions.remove(sessionId);
+            Files.deleteIfExists(session.getPartFile());
+        }
+    }
+
+    /**
+     * Cancela a sessão e remove o arquivo parcial (ao fim da última gravação em andamento, se houver).
+     */
+    public void abort(String sessionId, String ownerEmail) throws IOException {
+        UploadSession session = get(sessionId, ownerEmail);
+        if (session.discard()) {
+            Files.deleteIfExists(session.getPartFile());
+        }
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Remove sessões abandonadas (sem atividade dentro do TTL) e arquivos parciais
+     * que sobraram de execuções anteriores do servidor.
+     */
+    @Scheduled(fixedDelayString = "${upload.session.cleanup-interval-ms:600000}")
+    public void cleanupExpiredSessions() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(ttlMinutes));
+        int removed = 0;
+
+        for (UploadSession session : sessions.values()) {
+            if (!session.isCompleted() && session.getLastActivityAt().isBefore(cutoff)) {
+                sessions.remove(session.getId());
+                if (session.discard()) {
+                    deleteQuietly(session.getPartFile());
+                }
+                removed++;
+            }
+        }
+
+        Path sessionsDir = sessionsDirectory();
+        if (Files.isDirectory(sessionsDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(sessionsDir, "*.part")) {
+                for (Path part : stream) {
+                    String id = part.getFileName().toString().replace(".part", "");
+                    if (!sessions.containsKey(id)
+                            && Files.getLastModifiedTime(part).toInstant().isBefore(cutoff)) {
+                        deleteQuietly(part);
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Erro ao varrer sessões de upload: {}", e.getMessage());
+            }
+        }
+
+        if (removed > 0) {
+            logger.info("Limpeza de uploads: {} sessões abandonadas removidas", removed);
+        }
+    }
+
+    private Path sessionsDirectory() {
+        return fileStorageService.getUploadRoot().resolve(".sessions");
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.eaduck.backend.service.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Resultado de um upload gravado em disco.
+ *
+ * @param fileName         nome do arquivo dentro do diretório de uploads
+ * @param originalFilename nome enviado pelo cliente
+ * @param path             caminho final do arquivo
+ * @param url              URL pública servida pelo FileController
+ * @param size             tamanho em bytes, contado durante a cópia
+ * @param sha256           hash SHA-256 (hex) calculado durante a cópia
+ */
+public record UploadedFile(
+    String fileName,
+    String originalFilename,
+    Path path,
+    String url,
+    long size,
+    String sha256
+) {}
@@ -0,0 +1,2 @@
+ALTER TABLE chat_messages ADD COLUMN thumbnail_url VARCHAR(500);
+ALTER TABLE task_attachments ADD COLUMN preview_url VARCHAR(500);
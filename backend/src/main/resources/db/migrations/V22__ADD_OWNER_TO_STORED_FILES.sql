@@ -0,0 +1,3 @@
+ALTER TABLE stored_files ADD COLUMN owner_email VARCHAR(255);
+
+CREATE INDEX idx_stored_files_owner_email ON stored_files(owner_email);
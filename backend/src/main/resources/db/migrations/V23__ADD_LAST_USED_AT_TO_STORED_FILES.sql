@@ -0,0 +1,5 @@
+ALTER TABLE stored_files ADD COLUMN last_used_at TIMESTAMP;
+
+UPDATE stored_files SET last_used_at = COALESCE(created_at, CURRENT_TIMESTAMP);
+
+ALTER TABLE stored_files ALTER COLUMN last_used_at SET NOT NULL;
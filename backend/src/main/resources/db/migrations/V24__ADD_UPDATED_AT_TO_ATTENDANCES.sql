@@ -0,0 +1,3 @@
+ALTER TABLE attendances ADD COLUMN updated_at TIMESTAMP;
+
+UPDATE attendances SET updated_at = CURRENT_TIMESTAMP;
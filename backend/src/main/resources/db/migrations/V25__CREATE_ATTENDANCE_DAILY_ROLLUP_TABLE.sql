@@ -0,0 +1,20 @@
+CREATE TABLE attendance_daily_rollup (
+    id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    classroom_id BIGINT NOT NULL,
+    discipline VARCHAR(255) NOT NULL DEFAULT '',
+    date DATE NOT NULL,
+    present INTEGER NOT NULL DEFAULT 0,
+    absent INTEGER NOT NULL DEFAULT 0,
+    late INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT attendance_daily_rollup_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_attendance_daily_rollup_classroom FOREIGN KEY (classroom_id) REFERENCES classrooms(id) ON DELETE CASCADE,
+    CONSTRAINT unique_attendance_daily_rollup UNIQUE (classroom_id, date, discipline)
+);
+
+INSERT INTO attendance_daily_rollup (classroom_id, discipline, date, present, absent, late)
+SELECT classroom_id, COALESCE(discipline, ''), date,
+       SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'LATE' THEN 1 ELSE 0 END)
+FROM attendances
+GROUP BY classroom_id, COALESCE(discipline, ''), date;
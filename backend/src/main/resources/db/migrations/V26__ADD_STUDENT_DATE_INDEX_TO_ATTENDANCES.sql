@@ -0,0 +1,3 @@
+CREATE INDEX idx_attendances_student_date ON attendances(student_id, date);
+
+DROP INDEX IF EXISTS idx_attendances_student;
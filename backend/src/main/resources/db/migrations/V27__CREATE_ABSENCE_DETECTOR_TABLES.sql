@@ -0,0 +1,38 @@
+CREATE TABLE job_checkpoints (
+    name VARCHAR(100) NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    CONSTRAINT job_checkpoints_pkey PRIMARY KEY (name)
+);
+
+CREATE TABLE attendance_absence_counters (
+    id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    classroom_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    discipline VARCHAR(255) NOT NULL DEFAULT '',
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+    absent INTEGER NOT NULL DEFAULT 0,
+    total INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT attendance_absence_counters_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_absence_counters_classroom FOREIGN KEY (classroom_id) REFERENCES classrooms(id) ON DELETE CASCADE,
+    CONSTRAINT fk_absence_counters_student FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT unique_absence_counter UNIQUE (classroom_id, student_id, period_start, discipline)
+);
+
+CREATE TABLE attendance_absence_alerts (
+    id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    classroom_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    discipline VARCHAR(255) NOT NULL DEFAULT '',
+    period_start DATE NOT NULL,
+    absent INTEGER NOT NULL,
+    total INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT attendance_absence_alerts_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_absence_alerts_classroom FOREIGN KEY (classroom_id) REFERENCES classrooms(id) ON DELETE CASCADE,
+    CONSTRAINT fk_absence_alerts_student FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT unique_absence_alert UNIQUE (classroom_id, student_id, period_start, discipline)
+);
+
+CREATE INDEX idx_attendances_updated_at ON attendances(updated_at);
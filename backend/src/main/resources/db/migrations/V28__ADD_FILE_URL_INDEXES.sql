@@ -0,0 +1,4 @@
+-- Coleta de órfãos: cada lote confere só os seus candidatos por prefixo de URL (LIKE '/files/blobs/...%')
+CREATE INDEX idx_task_attachments_file_url ON task_attachments (file_url text_pattern_ops);
+CREATE INDEX idx_submissions_file_url ON submissions (file_url text_pattern_ops);
+CREATE INDEX idx_chat_messages_file_url ON chat_messages (file_url text_pattern_ops);
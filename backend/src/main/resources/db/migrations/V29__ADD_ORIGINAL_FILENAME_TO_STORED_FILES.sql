@@ -0,0 +1,2 @@
+-- Nome original do primeiro envio, usado no Content-Disposition dos downloads (a URL traz só o hash)
+ALTER TABLE stored_files ADD COLUMN original_filename VARCHAR(255);
@@ -0,0 +1,78 @@
+package com.eaduck.backend.service.attendance;
+
+import com.eaduck.backend.model.enums.AttendanceStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Unit tests for {@link AttendanceMatrix}.
+ */
+public class AttendanceMatrixTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Counts by status over ranges that cross word boundaries (32 days per long).
+     */
+    @Test
+    void shouldCountStatusesInRange() {
+        AttendanceMatrix matrix = new AttendanceMatrix(2025, 1);
+        for (int day = 0; day < 100; day++) {
+            AttendanceStatus status = day % 10 == 0 ? AttendanceStatus.ABSENT
+                    : day % 10 == 5 ? AttendanceStatus.LATE : AttendanceStatus.PRESENT;
+            matrix.set(1L, JAN_1.plusDays(day), status);
+        }
+
+        Assertions.assertEquals(10, matrix.count(1L, null, null, AttendanceStatus.ABSENT));
+        Assertions.assertEquals(10, matrix.count(1L, null, null, AttendanceStatus.LATE));
+        Assertions.assertEquals(80, matrix.count(1L, null, null, AttendanceStatus.PRESENT));
+        // Dias 30..69: faltas em 30, 40, 50, 60
+        Assertions.assertEquals(4, matrix.count(1L, JAN_1.plusDays(30), JAN_1.plusDays(69), AttendanceStatus.ABSENT));
+        Assertions.assertEquals(0, matrix.count(2L, null, null, AttendanceStatus.ABSENT));
+
+        AttendanceMatrix.Stats stats = matrix.stats(1L, null, null);
+        Assertions.assertEquals(100, stats.recorded());
+        Assertions.assertEquals(0.8, stats.presenceRate(), 1e-9);
+    }
+
+    /**
+     * Overwriting a cell replaces the status, and other students keep their own rows.
+     */
+    @Test
+    void shouldOverwriteCellsPerStudent() {
+        AttendanceMatrix matrix = new AttendanceMatrix(2025, 1);
+        LocalDate date = LocalDate.of(2025, 12, 31);
+        matrix.set(1L, date, AttendanceStatus.ABSENT);
+        matrix.set(2L, date, AttendanceStatus.LATE);
+        matrix.set(1L, date, AttendanceStatus.PRESENT);
+        matrix.set(3L, LocalDate.of(2024, 12, 31), AttendanceStatus.ABSENT);
+
+        Assertions.assertEquals(AttendanceStatus.PRESENT, matrix.get(1L, date));
+        Assertions.assertEquals(AttendanceStatus.LATE, matrix.get(2L, date));
+        Assertions.assertNull(matrix.get(1L, date.minusDays(1)));
+        Assertions.assertEquals(2, matrix.studentCount());
+    }
+
+    /**
+     * Days without a record do not break an absence streak; any other status does.
+     */
+    @Test
+    void shouldFindLongestAbsenceStreak() {
+        AttendanceMatrix matrix = new AttendanceMatrix(2025, 1);
+        // 3 faltas seguidas, fim de semana sem registro, mais 2 faltas; presença; 4 faltas
+        LocalDate[] absences = {
+                LocalDate.of(2025, 1, 29), LocalDate.of(2025, 1, 30), LocalDate.of(2025, 1, 31),
+                LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 4),
+                LocalDate.of(2025, 2, 6), LocalDate.of(2025, 2, 7), LocalDate.of(2025, 2, 10), LocalDate.of(2025, 2, 11)
+        };
+        for (LocalDate date : absences) {
+            matrix.set(1L, date, AttendanceStatus.ABSENT);
+        }
+        matrix.set(1L, LocalDate.of(2025, 2, 5), AttendanceStatus.PRESENT);
+
+        Assertions.assertEquals(5, matrix.stats(1L, null, null).longestAbsenceStreak());
+        Assertions.assertEquals(4, matrix.stats(1L, LocalDate.of(2025, 2, 5), null).longestAbsenceStreak());
+    }
+}
@@ -0,0 +1,118 @@
+package com.eaduck.backend.service.report;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a montagem célula a célula usada antes (tamanho, padding e cor copiados para cada célula,
+ * negrito simulado no cabeçalho) com {@link ReportTable} + {@link ReportStyles}. Não roda com os testes; para executar:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.eaduck.backend.service.report.ReportRenderingBenchmark
+ * </pre>
+ *
+ * O GCProfiler informa a alocação por operação (gc.alloc.rate.norm); divida pelo número de linhas
+ * para ter a alocação por linha.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportRenderingBenchmark {
+
+    record Row(long id, String nome, String email, String disciplina, double nota, String resultado) {}
+
+    private static final ReportTable<Row> TEMPLATE = ReportTable.<Row>builder()
+            .column("ID", 20, row -> String.valueOf(row.id()))
+            .column("NOME", 100, row -> ReportStyles.truncate(row.nome(), 25, 22))
+            .column("E-MAIL", 60, row -> ReportStyles.truncate(row.email(), 25, 22))
+            .column("DISCIPLINA", 80, row -> row.disciplina())
+            .column("NOTA", 35, row -> ReportStyles.decimal(row.nota()))
+            .column("RESULTADO", 50, row -> row.resultado())
+            .build();
+
+    @Param({"100", "5000"})
+    public int rows;
+
+    private List<Row> data;
+
+    @Setup
+    public void setUp() {
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(new Row(i, "Aluno de Teste Número " + i, "aluno" + i + "@eaduck.com",
+                    "Disciplina " + (i % 8), (i % 100) / 10.0, i % 3 == 0 ? "Reprovado" : "Aprovado"));
+        }
+    }
+
+    @Benchmark
+    public void inline() throws IOException {
+        PdfResponses.write(document -> {
+            UnitValue[] widths = {
+                UnitValue.createPointValue(20), UnitValue.createPointValue(100), UnitValue.createPointValue(60),
+                UnitValue.createPointValue(80), UnitValue.createPointValue(35), UnitValue.createPointValue(50)
+            };
+            Table table = new Table(widths, true);
+            table.setWidth(UnitValue.createPercentValue(100));
+            for (String header : new String[] {"ID", "NOME", "E-MAIL", "DISCIPLINA", "NOTA", "RESULTADO"}) {
+                table.addHeaderCell(new Cell().add(new Paragraph(header).setBold().setFontSize(7))
+                        .setBackgroundColor(ColorConstants.LIGHT_GRAY).setPadding(3));
+            }
+            document.add(table);
+            int count = 0;
+            for (Row row : data) {
+                table.addCell(new Cell().add(new Paragraph(String.valueOf(row.id()))).setFontSize(6).setPadding(3));
+                String nome = row.nome().length() > 25 ? row.nome().substring(0, 22) + "..." : row.nome();
+                table.addCell(new Cell().add(new Paragraph(nome)).setFontSize(6).setPadding(3));
+                String email = row.email().length() > 25 ? row.email().substring(0, 22) + "..." : row.email();
+                table.addCell(new Cell().add(new Paragraph(email)).setFontSize(6).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(row.disciplina())).setFontSize(6).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(String.format("%.2f", row.nota()))).setFontSize(6).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(row.resultado())).setFontSize(6).setPadding(3));
+                PdfResponses.flushIfNeeded(table, ++count);
+            }
+            table.complete();
+        }, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void template() throws IOException {
+        PdfResponses.write(document -> TEMPLATE.write(document, data), OutputStream.nullOutputStream());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReportRenderingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
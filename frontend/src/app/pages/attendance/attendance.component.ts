@@ -2,7 +2,7 @@ import { Component, OnInit, OnDestroy } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { SidebarComponent } from '../../components/sidebar/sidebar.component';
-import { AttendanceService, ClassroomAttendanceInfo, Attendance, AttendanceBulk } from '../../services/attendance.service';
+import { AttendanceService, ClassroomAttendanceInfo, Attendance, AttendanceBulk, AttendanceHistory } from '../../services/attendance.service';
 import { DisciplineCacheService } from '../../services/discipline-cache.service';
 import { Discipline } from '../../services/discipline.service';
 import { AuthService } from '../../services/auth.service';
@@ -52,6 +52,9 @@ export class AttendanceComponent implements OnInit, OnDestroy {
   // Histórico
   selectedStudentForHistory: number | null = null;
   studentHistory: Attendance[] = [];
+  historySummary: AttendanceHistory | null = null;
+  historyNextCursor: string | null = null;
+  loadingMoreHistory = false;
   showHistoryModal = false;
   
   // Alunos completos para exibir nomes corretos
@@ -689,23 +692,19 @@ export class AttendanceComponent implements OnInit, OnDestroy {
     this.selectedStudentForHistory = studentId;
     this.showHistoryModal = true;
     this.loading = true;
+    this.studentHistory = [];
+    this.historySummary = null;
+    this.historyNextCursor = null;
     
     this.attendanceService.getAttendanceByStudent(
       studentId, 
       this.selectedClassroom?.id
     ).subscribe({
-      next: (history: Attendance[]) => {
-        // Normalizar arrivalTime para formato HH:mm se necessário
-        this.studentHistory = history.map((att: Attendance) => {
-          if (att.arrivalTime && att.arrivalTime.length > 5) {
-            att.arrivalTime = att.arrivalTime.substring(0, 5);
-          }
-          return att;
-        }).sort((a: Attendance, b: Attendance) => {
-          const dateA = new Date(a.date);
-          const dateB = new Date(b.date);
-          return dateB.getTime() - dateA.getTime(); // Mais recente primeiro
-        });
+      next: (history: AttendanceHistory) => {
+        // Página já vem do mais recente para o mais antigo; totais valem para todo o histórico
+        this.studentHistory = this.normalizeHistoryItems(history.items);
+        this.historySummary = history;
+        this.historyNextCursor = history.nextCursor;
         this.loading = false;
       },
       error: (error: any) => {
@@ -716,10 +715,45 @@ export class AttendanceComponent implements OnInit, OnDestroy {
     });
   }
 
+  loadMoreHistory() {
+    if (!this.selectedStudentForHistory || !this.historyNextCursor || this.loadingMoreHistory) {
+      return;
+    }
+    this.loadingMoreHistory = true;
+    this.attendanceService.getAttendanceByStudent(
+      this.selectedStudentForHistory,
+      this.selectedClassroom?.id,
+      this.historyNextCursor
+    ).subscribe({
+      next: (history: AttendanceHistory) => {
+        this.studentHistory = [...this.studentHistory, ...this.normalizeHistoryItems(history.items)];
+        this.historyNextCursor = history.nextCursor;
+        this.loadingMoreHistory = false;
+      },
+      error: (error: any) => {
+        console.error('Erro ao carregar histórico:', error);
+        this.loadingMoreHistory = false;
+        alert('Erro ao carregar mais registros do histórico');
+      }
+    });
+  }
+
+  // Normalizar arrivalTime para formato HH:mm se necessário
+  private normalizeHistoryItems(items: Attendance[]): Attendance[] {
+    return items.map((att: Attendance) => {
+      if (att.arrivalTime && att.arrivalTime.length > 5) {
+        att.arrivalTime = att.arrivalTime.substring(0, 5);
+      }
+      return att;
+    });
+  }
+
   closeHistoryModal() {
     this.showHistoryModal = false;
     this.selectedStudentForHistory = null;
     this.studentHistory = [];
+    this.historySummary = null;
+    this.historyNextCursor = null;
   }
 
   canEditAttendance(attendance: Attendance): boolean {
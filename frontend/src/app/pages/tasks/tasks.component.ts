@@ -418,6 +418,12 @@ export class TasksComponent implements OnInit, OnDestroy {
     this.selectedFiles.splice(index, 1);
   }
 
+  // A URL do arquivo traz o hash do conteúdo; ?name= faz o download usar o nome do anexo
+  getAttachmentDownloadUrl(attachment: TaskAttachment): string {
+    const separator = attachment.fileUrl!.includes('?') ? '&' : '?';
+    return attachment.fileUrl + separator + 'name=' + encodeURIComponent(attachment.fileName);
+  }
+
   getFileIcon(fileType: string): string {
     if (fileType.includes('pdf')) return '📄';
     if (fileType.includes('image')) return '🖼️';
@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
 export interface ClassroomAttendanceInfo {
@@ -26,6 +26,18 @@ export interface Attendance {
   teacherName?: string;
 }
 
+// Página do histórico do aluno (mais recente primeiro); os totais consideram todos os registros
+export interface AttendanceHistory {
+  items: Attendance[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  present: number;
+  absent: number;
+  late: number;
+  total: number;
+  presenceRate: number | null;
+}
+
 export interface AttendanceBulk {
   classroomId: number;
   date: string;
@@ -67,12 +79,15 @@ export class AttendanceService {
     return this.http.get<Attendance[]>(`${this.apiUrl}/classroom/${classroomId}`);
   }
 
-  getAttendanceByStudent(studentId: number, classroomId?: number): Observable<Attendance[]> {
-    let url = `${this.apiUrl}/student/${studentId}`;
+  getAttendanceByStudent(studentId: number, classroomId?: number, cursor?: string | null): Observable<AttendanceHistory> {
+    let params = new HttpParams();
     if (classroomId) {
-      url += `?classroomId=${classroomId}`;
+      params = params.set('classroomId', classroomId.toString());
+    }
+    if (cursor) {
+      params = params.set('cursor', cursor);
     }
-    return this.http.get<Attendance[]>(url);
+    return this.http.get<AttendanceHistory>(`${this.apiUrl}/student/${studentId}`, { params });
   }
 }
 